@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanAssignmentList;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.ComputeAtomicSetsSAT4J;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures computing atomic sets with {@link ComputeAtomicSetsSAT4J}.
+ */
+public class AtomicSetsBenchmark extends ABenchmark {
+
+    @Param({"GPL/model.xml", "EMBToolkit/model.xml", "random-100", "random-1000"})
+    public String formula;
+
+    @Param({"1", "4"})
+    public int threadCount;
+
+    @Param({"false", "true"})
+    public boolean useMIG;
+
+    private BooleanClauseList clauseList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clauseList = BenchmarkFormulas.load(formula);
+    }
+
+    @Benchmark
+    public BooleanAssignmentList atomicSets() {
+        return Computations.of(clauseList)
+                .map(ComputeAtomicSetsSAT4J::new)
+                .set(ComputeAtomicSetsSAT4J.THREAD_COUNT, threadCount)
+                .set(ComputeAtomicSetsSAT4J.USE_MIG, useMIG)
+                .compute();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.Common;
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.structure.formula.IFormula;
+import de.featjar.formula.transformer.ComputeCNFFormula;
+import de.featjar.formula.transformer.ComputeNNFFormula;
+
+/**
+ * Provides the formulas used in benchmarks. A formula is either a path to a
+ * model from the test fixtures (e.g., {@code GPL/model.xml}) or a generated
+ * random 3-CNF given as {@code random-<variable count>}.
+ */
+public final class BenchmarkFormulas {
+
+    public static final String RANDOM_PREFIX = "random-";
+    public static final double RANDOM_CLAUSE_RATIO = 3.0;
+    public static final long RANDOM_SEED = 1L;
+
+    private BenchmarkFormulas() {}
+
+    public static BooleanClauseList load(String name) {
+        if (name.startsWith(RANDOM_PREFIX)) {
+            return RandomCNFGenerator.generate(
+                    Integer.parseInt(name.substring(RANDOM_PREFIX.length())), RANDOM_CLAUSE_RATIO, RANDOM_SEED);
+        }
+        return Computations.of(Common.loadFormula(name))
+                .cast(IFormula.class)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .map(ComputeBooleanRepresentation::new)
+                .map(Computations::getKey)
+                .cast(BooleanClauseList.class)
+                .compute();
+    }
+}
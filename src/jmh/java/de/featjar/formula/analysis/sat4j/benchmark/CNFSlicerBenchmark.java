@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.transform.CNFSlicer;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures slicing a fixed share of variables from a formula with
+ * {@link CNFSlicer}.
+ */
+public class CNFSlicerBenchmark extends ABenchmark {
+
+    @Param({"GPL/model.xml", "EMBToolkit/model.xml", "random-100", "random-500"})
+    public String formula;
+
+    /**
+     * Every n-th variable is removed from the formula.
+     */
+    @Param({"10", "4"})
+    public int step;
+
+    private BooleanClauseList clauseList;
+    private BooleanAssignment variables;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clauseList = BenchmarkFormulas.load(formula);
+        variables = new BooleanAssignment(IntStream.rangeClosed(1, clauseList.getVariableCount())
+                .filter(variable -> variable % step == 0)
+                .toArray());
+    }
+
+    @Benchmark
+    public BooleanClauseList slice() {
+        return Computations.of(clauseList)
+                .map(CNFSlicer::new)
+                .set(CNFSlicer.VARIABLES_OF_INTEREST, variables)
+                .compute();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.RuntimeContradictionException;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.mig.solver.MIGBuilder;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph.Visitor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures building a {@link ModalImplicationGraph} and propagating each
+ * literal in it.
+ */
+public class MIGBenchmark extends ABenchmark {
+
+    @Param({"GPL/model.xml", "EMBToolkit/model.xml", "random-100", "random-1000"})
+    public String formula;
+
+    private BooleanClauseList clauseList;
+    private Visitor visitor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clauseList = BenchmarkFormulas.load(formula);
+        visitor = build().getVisitor();
+    }
+
+    @Benchmark
+    public ModalImplicationGraph build() {
+        return new MIGBuilder(Computations.of(clauseList)).compute();
+    }
+
+    /**
+     * Propagates every literal once.
+     *
+     * @return the total number of implied literals
+     */
+    @Benchmark
+    public int propagate() {
+        int impliedLiteralCount = 0;
+        final int variableCount = clauseList.getVariableCount();
+        for (int variable = 1; variable <= variableCount; variable++) {
+            impliedLiteralCount += propagate(variable);
+            impliedLiteralCount += propagate(-variable);
+        }
+        return impliedLiteralCount;
+    }
+
+    private int propagate(int literal) {
+        try {
+            visitor.propagate(literal);
+            return visitor.getAddedLiteralCount();
+        } catch (RuntimeContradictionException e) {
+            return 0;
+        } finally {
+            visitor.reset();
+        }
+    }
+}
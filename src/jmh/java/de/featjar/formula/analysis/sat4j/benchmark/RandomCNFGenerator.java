@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random 3-CNFs with a planted solution. Each generated clause is
+ * satisfied by a hidden random assignment, so every formula is satisfiable and
+ * can be used with analyses that require at least one solution.
+ */
+public final class RandomCNFGenerator {
+
+    private RandomCNFGenerator() {}
+
+    /**
+     * Generates a random 3-CNF.
+     *
+     * @param variableCount the number of variables
+     * @param clauseRatio the ratio of clauses to variables
+     * @param seed the random seed
+     * @return a satisfiable clause list
+     */
+    public static BooleanClauseList generate(int variableCount, double clauseRatio, long seed) {
+        if (variableCount < 3) {
+            throw new IllegalArgumentException(String.valueOf(variableCount));
+        }
+        final Random random = new Random(seed);
+        final boolean[] plantedSolution = new boolean[variableCount + 1];
+        for (int i = 1; i <= variableCount; i++) {
+            plantedSolution[i] = random.nextBoolean();
+        }
+        final int clauseCount = (int) Math.round(variableCount * clauseRatio);
+        final List<BooleanClause> clauses = new ArrayList<>(clauseCount);
+        while (clauses.size() < clauseCount) {
+            final int[] literals = new int[3];
+            boolean satisfied = false;
+            for (int i = 0; i < literals.length; i++) {
+                int variable;
+                do {
+                    variable = random.nextInt(variableCount) + 1;
+                } while (contains(literals, i, variable));
+                final boolean positive = random.nextBoolean();
+                literals[i] = positive ? variable : -variable;
+                satisfied |= plantedSolution[variable] == positive;
+            }
+            if (satisfied) {
+                clauses.add(new BooleanClause(literals));
+            }
+        }
+        return new BooleanClauseList(clauses, variableCount);
+    }
+
+    private static boolean contains(int[] literals, int length, int variable) {
+        for (int i = 0; i < length; i++) {
+            if (Math.abs(literals[i]) == variable) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
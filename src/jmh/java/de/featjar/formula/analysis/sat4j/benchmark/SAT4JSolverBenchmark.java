@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures the throughput of {@link SAT4JSolutionSolver#hasSolution(int...)}
+ * for random assumptions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SAT4JSolverBenchmark extends ABenchmark {
+
+    public static final int QUERY_COUNT = 1024;
+
+    @Param({"GPL/model.xml", "EMBToolkit/model.xml", "random-100", "random-1000", "random-10000"})
+    public String formula;
+
+    @Param({"1", "2", "4"})
+    public int assumptionCount;
+
+    private SAT4JSolutionSolver solver;
+    private int[][] queries;
+    private int queryIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final BooleanClauseList clauseList = BenchmarkFormulas.load(formula);
+        solver = new SAT4JSolutionSolver(clauseList);
+
+        final int variableCount = clauseList.getVariableCount();
+        final Random random = new Random(BenchmarkFormulas.RANDOM_SEED);
+        queries = new int[QUERY_COUNT][assumptionCount];
+        for (int[] query : queries) {
+            for (int i = 0; i < query.length; i++) {
+                final int variable = random.nextInt(variableCount) + 1;
+                query[i] = random.nextBoolean() ? variable : -variable;
+            }
+        }
+    }
+
+    @Benchmark
+    public Result<Boolean> hasSolution() {
+        final int[] query = queries[queryIndex];
+        queryIndex = (queryIndex + 1) % queries.length;
+        return solver.hasSolution(query);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.benchmark;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.sat4j.twise.CoverageStatistic;
+import de.featjar.formula.analysis.sat4j.twise.TWiseCoverageComputation;
+import de.featjar.formula.analysis.sat4j.twise.YASA;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Measures computing the t-wise coverage of a sample generated by
+ * {@link YASA}.
+ */
+public class TWiseCoverageBenchmark extends ABenchmark {
+
+    @Param({"GPL/model.xml", "testFeatureModels/model_with_free_variables.dimacs", "random-50", "random-200"})
+    public String formula;
+
+    @Param({"1", "2", "3"})
+    public int t;
+
+    private BooleanClauseList clauseList;
+    private BooleanSolutionList sample;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        clauseList = BenchmarkFormulas.load(formula);
+        sample = Computations.of(clauseList)
+                .map(YASA::new)
+                .set(YASA.T, t)
+                .set(YASA.RANDOM_SEED, BenchmarkFormulas.RANDOM_SEED)
+                .compute();
+    }
+
+    @Benchmark
+    public CoverageStatistic coverage() {
+        return Computations.of(clauseList)
+                .map(TWiseCoverageComputation::new)
+                .set(TWiseCoverageComputation.SAMPLE, sample)
+                .set(TWiseCoverageComputation.T, t)
+                .compute();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.cli;
+
+import de.featjar.base.FeatJAR;
+import de.featjar.base.cli.Flag;
+import de.featjar.base.cli.ICommand;
+import de.featjar.base.cli.Option;
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.IComputation;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.sat4j.ComputeSolutionStreamSAT4J;
+import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSource;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator;
+import de.featjar.formula.structure.formula.IFormula;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Enumerates solutions, one solution per line. If an output file is given,
+ * each solution is written as soon as it is found and, in contrast to
+ * {@link SolutionsCommand}, solutions are not collected in memory. Otherwise,
+ * the solutions are serialized into the command's regular output.
+ */
+public class SolutionStreamCommand
+        extends ASAT4JAnalysisCommand<SAT4JSolutionSource, SAT4JSolutionSource> {
+
+    public static final Option<Long> LIMIT_OPTION = new Option<>("n", Option.LongParser) //
+            .setDescription("Maximum number of configurations to be generated") //
+            .setDefaultValue(Long.MAX_VALUE);
+
+    public static final Option<ISelectionStrategy.Strategy> SELECTION_STRATEGY_OPTION = new Option<>(
+                    "strategy", Option.valueOf(ISelectionStrategy.Strategy.class)) //
+            .setDescription(String.format(
+                    "Strategy to use for generating each configuration (%s)",
+                    Option.possibleValues(ISelectionStrategy.Strategy.class))) //
+            .setDefaultValue(ISelectionStrategy.Strategy.ORIGINAL);
+
+    public static final Option<Boolean> ALLOW_DUPLICATES_OPTION = new Flag("allow-duplicates") //
+            .setDescription("Allow duplicate configurations to be generated");
+
+    @Override
+    public List<Option<?>> getOptions() {
+        return ICommand.addOptions(
+                super.getOptions(), LIMIT_OPTION, SELECTION_STRATEGY_OPTION, ALLOW_DUPLICATES_OPTION);
+    }
+
+    @Override
+    public String getDescription() {
+        return "Enumerates solutions for a given formula using SAT4J and writes them as they are found";
+    }
+
+    @Override
+    public IComputation<SAT4JSolutionSource> newAnalysis(ComputeBooleanRepresentation<IFormula> formula) {
+        return formula.map(Computations::getKey)
+                .map(ComputeSolutionStreamSAT4J::new)
+                .set(
+                        ComputeSolutionStreamSAT4J.FORBID_DUPLICATES,
+                        !optionParser.getResult(ALLOW_DUPLICATES_OPTION).get())
+                .set(ComputeSolutionStreamSAT4J.LIMIT, optionParser.get(LIMIT_OPTION))
+                .set(ComputeSolutionStreamSAT4J.SELECTION_STRATEGY, optionParser.get(SELECTION_STRATEGY_OPTION))
+                .set(ComputeSolutionStreamSAT4J.RANDOM_SEED, optionParser.get(RANDOM_SEED_OPTION))
+                .set(ComputeSolutionStreamSAT4J.SAT_TIMEOUT, optionParser.get(SAT_TIMEOUT_OPTION));
+    }
+
+    @Override
+    protected boolean writeToOutputFile(SAT4JSolutionSource solutions, Path outputPath) {
+        try (Writer writer = Files.newBufferedWriter(outputPath, StandardCharsets.UTF_8)) {
+            write(solutions, writer);
+            return true;
+        } catch (IOException | UncheckedIOException e) {
+            FeatJAR.log().error(e);
+        }
+        return false;
+    }
+
+    @Override
+    public String serializeResult(SAT4JSolutionSource solutions) {
+        StringWriter writer = new StringWriter();
+        try {
+            write(solutions, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static void write(SAT4JSolutionSource solutionSource, Writer writer) throws IOException {
+        try (SAT4JSolutionSpliterator solutions = solutionSource.spliterator()) {
+            solutions.forEachRemaining((BooleanSolution solution) -> {
+                try {
+                    writer.write(solution.print());
+                    writer.write(System.lineSeparator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (solutions.isTimeoutOccurred()) {
+                FeatJAR.log().warning("solver timeout occurred, result is a subset");
+            }
+        }
+    }
+}
@@ -25,12 +25,17 @@ import de.featjar.base.cli.ICommand;
 import de.featjar.base.cli.Option;
 import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.IComputation;
+import de.featjar.base.data.Result;
 import de.featjar.base.io.IO;
 import de.featjar.formula.analysis.VariableMap;
 import de.featjar.formula.analysis.bool.BooleanAssignmentGroups;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.bool.BooleanSolutionList;
 import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.mig.solver.ComputeCachedMIG;
+import de.featjar.formula.analysis.mig.solver.MIGBuilder;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
 import de.featjar.formula.analysis.sat4j.twise.YASA;
 import de.featjar.formula.io.csv.BooleanSolutionListCSVFormat;
 import de.featjar.formula.structure.formula.IFormula;
@@ -52,9 +57,17 @@ public class TWiseCommand extends ASAT4JAnalysisCommand<BooleanSolutionList, Boo
             .setDescription("Number of iterations") //
             .setDefaultValue(1);
 
+    public static final Option<Integer> THREAD_COUNT_OPTION = new Option<>("threads", Option.IntegerParser) //
+            .setDescription("Number of worker threads") //
+            .setDefaultValue(1);
+
+    public static final Option<Path> MIG_CACHE_OPTION = new Option<>("mig_cache", Path::of) //
+            .setDescription("Directory for caching modal implication graphs (no caching if not set)");
+
     @Override
     public List<Option<?>> getOptions() {
-        return ICommand.addOptions(super.getOptions(), LIMIT_OPTION, T_OPTION, ITERATIONS_OPTION);
+        return ICommand.addOptions(
+                super.getOptions(), LIMIT_OPTION, T_OPTION, ITERATIONS_OPTION, THREAD_COUNT_OPTION, MIG_CACHE_OPTION);
     }
 
     @Override
@@ -64,11 +77,20 @@ public class TWiseCommand extends ASAT4JAnalysisCommand<BooleanSolutionList, Boo
 
     @Override
     public IComputation<BooleanSolutionList> newAnalysis(ComputeBooleanRepresentation<IFormula> formula) {
-        return formula.map(Computations::getKey)
-                .map(YASA::new)
+        IComputation<BooleanClauseList> clauses = formula.map(Computations::getKey);
+        int threadCount = optionParser.get(THREAD_COUNT_OPTION);
+        Result<Path> migCache = optionParser.getResult(MIG_CACHE_OPTION);
+        IComputation<ModalImplicationGraph> mig = migCache.isPresent()
+                ? clauses.map(ComputeCachedMIG::new)
+                        .set(ComputeCachedMIG.CACHE_DIRECTORY, migCache.get())
+                        .set(ComputeCachedMIG.THREAD_COUNT, threadCount)
+                : clauses.map(MIGBuilder::new).set(MIGBuilder.THREAD_COUNT, threadCount);
+        return clauses.map(YASA::new)
+                .setDependencyComputation(YASA.MIG, mig)
                 .set(YASA.T, optionParser.get(T_OPTION))
                 .set(YASA.CONFIGURATION_LIMIT, optionParser.get(LIMIT_OPTION))
                 .set(YASA.ITERATIONS, optionParser.get(ITERATIONS_OPTION))
+                .set(YASA.THREAD_COUNT, threadCount)
                 .set(YASA.RANDOM_SEED, optionParser.get(RANDOM_SEED_OPTION))
                 .set(YASA.SAT_TIMEOUT, optionParser.get(SAT_TIMEOUT_OPTION));
     }
@@ -57,61 +57,66 @@ public class ComputeCoreDead extends ASAT4JMIGAnalysis<BooleanAssignment> {
     @Override
     public Result<BooleanAssignment> compute(List<Object> dependencyList, Progress progress) {
         SAT4JSolutionSolver solver = initializeSolver(dependencyList);
-        Random random = new Random(RANDOM_SEED.get(dependencyList));
-        ABooleanAssignment assignment = ASSUMED_ASSIGNMENT.get(dependencyList);
-        ABooleanAssignment variablesOfInterest = VARIABLES_OF_INTEREST.get(dependencyList);
-        ModalImplicationGraph mig = MIG.get(dependencyList);
+        try {
+            Random random = new Random(RANDOM_SEED.get(dependencyList));
+            ABooleanAssignment assignment = ASSUMED_ASSIGNMENT.get(dependencyList);
+            ABooleanAssignment variablesOfInterest = VARIABLES_OF_INTEREST.get(dependencyList);
+            ModalImplicationGraph mig = MIG.get(dependencyList);
 
-        solver.setSelectionStrategy(ISelectionStrategy.positive()); // TODO: fails for berkeley db
-        Result<BooleanSolution> solution = solver.findSolution();
-        if (solution.isEmpty()) return Result.empty();
-        int[] model1 = solution.get().get();
+            solver.setSelectionStrategy(ISelectionStrategy.positive()); // TODO: fails for berkeley db
+            Result<BooleanSolution> solution = solver.findSolution();
+            if (solution.isEmpty()) return Result.empty();
+            int[] model1 = solution.get().get();
 
-        if (model1 != null) {
-            solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
+            if (model1 != null) {
+                solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
 
-            if (!variablesOfInterest.isEmpty()) {
-                final int[] model3 = new int[model1.length];
-                for (int i = 0; i < variablesOfInterest.get().length; i++) {
-                    final int index = variablesOfInterest.get()[i] - 1;
-                    if (index >= 0) {
-                        model3[index] = model1[index];
+                if (!variablesOfInterest.isEmpty()) {
+                    final int[] model3 = new int[model1.length];
+                    for (int i = 0; i < variablesOfInterest.get().length; i++) {
+                        final int index = variablesOfInterest.get()[i] - 1;
+                        if (index >= 0) {
+                            model3[index] = model1[index];
+                        }
                     }
+                    model1 = model3;
                 }
-                model1 = model3;
-            }
 
-            Visitor visitor = mig.getVisitor();
-            visitor.propagate(assignment.get());
+                Visitor visitor = mig.getVisitor();
+                visitor.propagate(assignment.get());
 
-            int addedLiteralCount = visitor.getAddedLiteralCount();
-            for (int i = 0; i < addedLiteralCount; i++) {
-                model1[Math.abs(visitor.getAddedLiterals()[i]) - 1] = 0;
-            }
+                int addedLiteralCount = visitor.getAddedLiteralCount();
+                for (int i = 0; i < addedLiteralCount; i++) {
+                    model1[Math.abs(visitor.getAddedLiterals()[i]) - 1] = 0;
+                }
 
-            for (int i = 0; i < model1.length; i++) {
-                final int varX = model1[i];
-                if (varX != 0) {
-                    solver.getAssignment().add(-varX);
-                    Result<Boolean> hasSolution = solver.hasSolution();
-                    if (hasSolution.valueEquals(false)) {
-                        solver.getAssignment().replaceLast(varX);
-                        visitor.propagate(varX);
-                        for (int j = addedLiteralCount; j < visitor.getAddedLiteralCount(); j++) {
-                            model1[Math.abs(visitor.getAddedLiterals()[j]) - 1] = 0;
+                final int[] modelBuffer = new int[model1.length];
+                for (int i = 0; i < model1.length; i++) {
+                    final int varX = model1[i];
+                    if (varX != 0) {
+                        solver.getAssignment().add(-varX);
+                        Result<Boolean> hasSolution = solver.hasSolution();
+                        if (hasSolution.valueEquals(false)) {
+                            solver.getAssignment().replaceLast(varX);
+                            visitor.propagate(varX);
+                            for (int j = addedLiteralCount; j < visitor.getAddedLiteralCount(); j++) {
+                                model1[Math.abs(visitor.getAddedLiterals()[j]) - 1] = 0;
+                            }
+                            addedLiteralCount = visitor.getAddedLiteralCount();
+                        } else if (hasSolution.isEmpty()) {
+                            solver.getAssignment().remove();
+                        } else if (hasSolution.valueEquals(true)) {
+                            solver.getAssignment().remove();
+                            BooleanSolution.removeConflictsInplace(model1, solver.fillSolution(modelBuffer));
+                            solver.shuffleOrder(random);
                         }
-                        addedLiteralCount = visitor.getAddedLiteralCount();
-                    } else if (hasSolution.isEmpty()) {
-                        solver.getAssignment().remove();
-                    } else if (hasSolution.valueEquals(true)) {
-                        solver.getAssignment().remove();
-                        BooleanSolution.removeConflictsInplace(model1, solver.getInternalSolution());
-                        solver.shuffleOrder(random);
                     }
                 }
             }
-        }
 
-        return solver.createResult(solver.getAssignment().toAssignment());
+            return solver.createResult(solver.getAssignment().toAssignment());
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
     }
 }
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.mig.solver;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Direct strong edges and remaining clauses of a cleaned clause list in
+ * compressed sparse row layout (see {@link ModalImplicationGraph}). Each binary
+ * clause results in two direct strong edges, each longer clause is stored as a
+ * weak edge for all of its literals.
+ */
+class CleanedClauses {
+
+    final int[] directOffsets;
+    final int[] directEdges;
+
+    final int[] occurrenceOffsets;
+    final int[] occurrences;
+
+    final int[] clauses;
+    final int[] clauseStarts;
+    final int[] clauseLengths;
+
+    CleanedClauses(int size, List<BooleanClause> cleanedClauses) {
+        final int vertexCount = 2 * size;
+
+        // count direct strong edges and clause occurrences per vertex
+        directOffsets = new int[vertexCount + 1];
+        occurrenceOffsets = new int[vertexCount + 1];
+        int clausesSize = 0;
+        int clauseCount = 0;
+        for (BooleanClause clause : cleanedClauses) {
+            final int[] literals = clause.get();
+            if (literals.length == 2) {
+                directOffsets[ModalImplicationGraph.getVertexIndex(-literals[0]) + 1]++;
+                directOffsets[ModalImplicationGraph.getVertexIndex(-literals[1]) + 1]++;
+            } else if (literals.length > 2) {
+                clausesSize += literals.length;
+                clauseCount++;
+                for (int l : literals) {
+                    occurrenceOffsets[ModalImplicationGraph.getVertexIndex(-l) + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < vertexCount; i++) {
+            directOffsets[i + 1] += directOffsets[i];
+            occurrenceOffsets[i + 1] += occurrenceOffsets[i];
+        }
+
+        // fill direct strong edges and clauses
+        directEdges = new int[directOffsets[vertexCount]];
+        occurrences = new int[occurrenceOffsets[vertexCount]];
+        clauses = new int[clausesSize];
+        clauseStarts = new int[clauseCount];
+        clauseLengths = new int[clauseCount];
+        final int[] directCursor = Arrays.copyOf(directOffsets, vertexCount);
+        final int[] occurrenceCursor = Arrays.copyOf(occurrenceOffsets, vertexCount);
+        int clausesI = 0;
+        int clauseI = 0;
+        for (BooleanClause clause : cleanedClauses) {
+            final int[] literals = clause.get();
+            if (literals.length == 2) {
+                directEdges[directCursor[ModalImplicationGraph.getVertexIndex(-literals[0])]++] = literals[1];
+                directEdges[directCursor[ModalImplicationGraph.getVertexIndex(-literals[1])]++] = literals[0];
+            } else if (literals.length > 2) {
+                clauseStarts[clauseI] = clausesI;
+                clauseLengths[clauseI] = literals.length;
+                for (int l : literals) {
+                    clauses[clausesI++] = l;
+                    occurrences[occurrenceCursor[ModalImplicationGraph.getVertexIndex(-l)]++] = clauseI;
+                }
+                clauseI++;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a vertex has the same direct strong edges in both lists,
+     * regardless of their order.
+     *
+     * @param vertexIndex the vertex index
+     * @param other       the other clauses
+     * @return {@code true} if the direct strong edges of the vertex are equal
+     */
+    boolean hasEqualDirectEdges(int vertexIndex, CleanedClauses other) {
+        final int from = directOffsets[vertexIndex];
+        final int to = directOffsets[vertexIndex + 1];
+        final int otherFrom = other.directOffsets[vertexIndex];
+        final int otherTo = other.directOffsets[vertexIndex + 1];
+        if (to - from != otherTo - otherFrom) {
+            return false;
+        }
+        final int[] edges = Arrays.copyOfRange(directEdges, from, to);
+        final int[] otherEdges = Arrays.copyOfRange(other.directEdges, otherFrom, otherTo);
+        Arrays.sort(edges);
+        Arrays.sort(otherEdges);
+        return Arrays.equals(edges, otherEdges);
+    }
+}
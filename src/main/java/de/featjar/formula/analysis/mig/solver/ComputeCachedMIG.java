@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.mig.solver;
+
+import de.featjar.base.FeatJAR;
+import de.featjar.base.computation.AComputation;
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+/**
+ * Loads a {@link ModalImplicationGraph} from a cache directory or builds it
+ * with {@link MIGBuilder} and stores it there. The cache file is named after a
+ * SHA-256 hash of the given clause list. Files in the cache directory are
+ * never removed by this class. Thus, analyses use {@link MIGBuilder} by
+ * default and the cache must be enabled explicitly. Analyses that receive
+ * their graph as a dependency (e.g., {@link de.featjar.formula.analysis.sat4j.twise.YASA YASA},
+ * {@link de.featjar.formula.analysis.sat4j.twise.TWiseCoverageComputation TWiseCoverageComputation},
+ * and subclasses of {@link de.featjar.formula.analysis.mig.ASAT4JMIGAnalysis ASAT4JMIGAnalysis})
+ * can use this computation as that dependency (e.g., the {@code mig_cache}
+ * option of the t-wise command). {@link de.featjar.formula.analysis.sat4j.ComputeAtomicSetsSAT4J
+ * ComputeAtomicSetsSAT4J} builds its graph only on demand and uses the cache if
+ * {@link de.featjar.formula.analysis.sat4j.ComputeAtomicSetsSAT4J#CACHE_MIG CACHE_MIG} is set.
+ * <p>
+ * The file consists of a little-endian header (magic number, format version,
+ * and variable count) followed by the length-prefixed arrays of the graph's
+ * compressed sparse row layout. When loading, the file is memory-mapped and
+ * each array is copied into the heap with a single bulk operation. The graph
+ * does not keep the mapped buffers, because its propagation loops index plain
+ * arrays (which are faster to access than buffers), a single mapped buffer is
+ * limited to 2 GiB, and a mapping cannot be released explicitly, which would
+ * prevent replacing or deleting the cache file on some platforms.
+ */
+public class ComputeCachedMIG extends AComputation<ModalImplicationGraph> {
+
+    public static final Dependency<BooleanClauseList> CNF_CLAUSES = Dependency.newDependency(BooleanClauseList.class);
+    public static final Dependency<Path> CACHE_DIRECTORY = Dependency.newDependency(Path.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
+
+    /**
+     * System property that overrides the default cache directory.
+     */
+    public static final String CACHE_DIRECTORY_PROPERTY = "featjar.mig.cache";
+
+    private static final String FILE_EXTENSION = ".mig";
+    private static final int MAGIC_NUMBER = 0x4D494731;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int MAX_MAPPED_BYTES = 1 << 30;
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    public ComputeCachedMIG(IComputation<BooleanClauseList> cnfFormula) {
+        super(cnfFormula, Computations.of(getDefaultCacheDirectory()), Computations.of(1));
+    }
+
+    protected ComputeCachedMIG(ComputeCachedMIG other) {
+        super(other);
+    }
+
+    /**
+     * Returns the directory that is used if no cache directory is set.
+     *
+     * @return the cache directory given by the system property
+     *         {@value #CACHE_DIRECTORY_PROPERTY} or a sub directory of the
+     *         system's temporary directory
+     */
+    public static Path getDefaultCacheDirectory() {
+        String directory = System.getProperty(CACHE_DIRECTORY_PROPERTY);
+        return directory != null
+                ? Path.of(directory)
+                : Path.of(System.getProperty("java.io.tmpdir"), "featjar", "mig");
+    }
+
+    @Override
+    public Result<ModalImplicationGraph> compute(List<Object> dependencyList, Progress progress) {
+        BooleanClauseList cnfFormula = CNF_CLAUSES.get(dependencyList);
+        Path cacheDirectory = CACHE_DIRECTORY.get(dependencyList);
+        Path cacheFile = cacheDirectory.resolve(getKey(cnfFormula) + FILE_EXTENSION);
+
+        if (Files.isRegularFile(cacheFile)) {
+            try {
+                return Result.of(read(cacheFile));
+            } catch (IOException | RuntimeException e) {
+                FeatJAR.log().warning("could not read cached MIG " + cacheFile + ": " + e.getMessage());
+            }
+        }
+
+        Result<ModalImplicationGraph> mig = Computations.of(cnfFormula)
+                .map(MIGBuilder::new)
+                .set(MIGBuilder.THREAD_COUNT, THREAD_COUNT.get(dependencyList))
+                .computeResult();
+        if (mig.isPresent()) {
+            try {
+                Files.createDirectories(cacheDirectory);
+                Path tempFile = Files.createTempFile(cacheDirectory, "mig", ".tmp");
+                try {
+                    write(mig.get(), tempFile);
+                    try {
+                        Files.move(tempFile, cacheFile, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(tempFile);
+                }
+            } catch (IOException e) {
+                FeatJAR.log().warning("could not write cached MIG " + cacheFile + ": " + e.getMessage());
+            }
+        }
+        return mig;
+    }
+
+    /**
+     * Computes the cache key of a clause list.
+     *
+     * @param cnfFormula the clause list
+     * @return the hexadecimal SHA-256 hash of the clause list
+     */
+    public static String getKey(BooleanClauseList cnfFormula) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(cnfFormula.getVariableCount());
+        for (BooleanClause clause : cnfFormula.getAll()) {
+            int[] literals = clause.get();
+            updateDigest(digest, buffer, literals.length);
+            for (int l : literals) {
+                updateDigest(digest, buffer, l);
+            }
+        }
+        buffer.flip();
+        digest.update(buffer);
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Writes a graph to a file in the binary cache format.
+     *
+     * @param mig  the graph
+     * @param file the file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(ModalImplicationGraph mig, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC_NUMBER);
+            buffer.putInt(FORMAT_VERSION);
+            buffer.putInt(mig.size());
+            for (int[] array : getArrays(mig)) {
+                writeInt(channel, buffer, array.length);
+                for (int value : array) {
+                    writeInt(channel, buffer, value);
+                }
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a graph from a file in the binary cache format.
+     *
+     * @param file the file
+     * @return the graph
+     * @throws IOException if the file cannot be read or has an invalid format
+     */
+    public static ModalImplicationGraph read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Truncated MIG file");
+            }
+            IntBuffer header = map(channel, 0, HEADER_SIZE);
+            if (header.get() != MAGIC_NUMBER) {
+                throw new IOException("Not a MIG file");
+            }
+            if (header.get() != FORMAT_VERSION) {
+                throw new IOException("Unsupported MIG file version");
+            }
+            int size = header.get();
+
+            int[][] arrays = new int[8][];
+            long position = HEADER_SIZE;
+            for (int i = 0; i < arrays.length; i++) {
+                if (position + Integer.BYTES > fileSize) {
+                    throw new IOException("Truncated MIG file");
+                }
+                int length = map(channel, position, Integer.BYTES).get();
+                position += Integer.BYTES;
+                if (length < 0 || position + (long) length * Integer.BYTES > fileSize) {
+                    throw new IOException("Truncated MIG file");
+                }
+                int[] array = new int[length];
+                int offset = 0;
+                while (offset < length) {
+                    int count = Math.min(length - offset, MAX_MAPPED_BYTES / Integer.BYTES);
+                    map(channel, position, (long) count * Integer.BYTES).get(array, offset, count);
+                    position += (long) count * Integer.BYTES;
+                    offset += count;
+                }
+                arrays[i] = array;
+            }
+            return new ModalImplicationGraph(
+                    size, arrays[0], arrays[1], arrays[2], arrays[3], arrays[4], arrays[5], arrays[6], arrays[7]);
+        }
+    }
+
+    private static int[][] getArrays(ModalImplicationGraph mig) {
+        return new int[][] {
+            mig.getCore(),
+            mig.getStrongOffsets(),
+            mig.getStrongEdges(),
+            mig.getOccurrenceOffsets(),
+            mig.getOccurrences(),
+            mig.getClauses(),
+            mig.getClauseStarts(),
+            mig.getClauseLengths()
+        };
+    }
+
+    private static void updateDigest(MessageDigest digest, ByteBuffer buffer, int value) {
+        if (buffer.remaining() < Integer.BYTES) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+        buffer.putInt(value);
+    }
+
+    private static IntBuffer map(FileChannel channel, long position, long length) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        return buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    private static void writeInt(FileChannel channel, ByteBuffer buffer, int value) throws IOException {
+        if (buffer.remaining() < Integer.BYTES) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        buffer.putInt(value);
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.mig.solver;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.RuntimeContradictionException;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maintains a {@link ModalImplicationGraph} for a clause list that changes by
+ * adding or removing clauses.
+ * <p>
+ * On each update, only the core literals that may have changed are checked
+ * again. When clauses are only added, all previous core literals remain core
+ * and only the remaining variables are tested. When clauses are only removed,
+ * no new core literals can arise and only the previous core literals are
+ * tested. Afterwards, the strong closures are only recomputed for vertices
+ * that can reach a vertex whose direct strong edges have changed. All other
+ * vertices keep their previous strong edges.
+ */
+public class IncrementalMIGBuilder {
+
+    private final int variableCount;
+    private final MIGBuilder.TraversalState traversalState;
+
+    private ArrayList<BooleanClause> clauseList;
+    private CleanedClauses cleanedClauses;
+    private ModalImplicationGraph mig;
+
+    /**
+     * Creates a new builder and computes the graph for the given clause list.
+     *
+     * @param cnfFormula the initial clause list
+     * @throws RuntimeContradictionException if the clause list is not satisfiable
+     */
+    public IncrementalMIGBuilder(BooleanClauseList cnfFormula) {
+        variableCount = cnfFormula.getVariableCount();
+        final ArrayList<BooleanClause> initialClauseList = new ArrayList<>(cnfFormula.getAll());
+        traversalState = new MIGBuilder.TraversalState(2 * variableCount);
+        final boolean[] candidates = new boolean[variableCount];
+        Arrays.fill(candidates, true);
+        rebuild(initialClauseList, computeCore(initialClauseList, new int[0], candidates));
+    }
+
+    public ModalImplicationGraph getModalImplicationGraph() {
+        return mig;
+    }
+
+    public BooleanClauseList getClauseList() {
+        return new BooleanClauseList(new ArrayList<>(clauseList), variableCount);
+    }
+
+    public ModalImplicationGraph addClauses(List<BooleanClause> addedClauses) {
+        return update(addedClauses, List.of());
+    }
+
+    public ModalImplicationGraph removeClauses(List<BooleanClause> removedClauses) {
+        return update(List.of(), removedClauses);
+    }
+
+    /**
+     * Adds and removes the given clauses and updates the graph accordingly. A
+     * removed clause must be contained in the current clause list with the same
+     * literals in the same order. If the updated clause list is not
+     * satisfiable, neither the clause list nor the graph are changed.
+     *
+     * @param addedClauses   the clauses to add
+     * @param removedClauses the clauses to remove
+     * @return the updated graph
+     * @throws IllegalArgumentException      if a removed clause is not contained
+     *                                       in the clause list
+     * @throws RuntimeContradictionException if the updated clause list is not
+     *                                       satisfiable
+     */
+    public ModalImplicationGraph update(List<BooleanClause> addedClauses, List<BooleanClause> removedClauses) {
+        if (addedClauses.isEmpty() && removedClauses.isEmpty()) {
+            return mig;
+        }
+        final ArrayList<BooleanClause> updatedClauseList = new ArrayList<>(clauseList);
+        for (BooleanClause clause : removedClauses) {
+            final int[] literals = clause.get();
+            int index = -1;
+            for (int i = updatedClauseList.size() - 1; i >= 0; i--) {
+                if (Arrays.equals(updatedClauseList.get(i).get(), literals)) {
+                    index = i;
+                    break;
+                }
+            }
+            if (index < 0) {
+                throw new IllegalArgumentException("Clause is not contained in the clause list: " + clause);
+            }
+            updatedClauseList.remove(index);
+        }
+        updatedClauseList.addAll(addedClauses);
+
+        final int[] oldCore = mig.getCore();
+        final boolean[] candidates = new boolean[variableCount];
+        final int[] fixedCore;
+        if (removedClauses.isEmpty()) {
+            // adding clauses cannot remove core literals
+            Arrays.fill(candidates, true);
+            for (int l : oldCore) {
+                candidates[Math.abs(l) - 1] = false;
+            }
+            fixedCore = oldCore;
+        } else if (addedClauses.isEmpty()) {
+            // removing clauses cannot add core literals
+            for (int l : oldCore) {
+                candidates[Math.abs(l) - 1] = true;
+            }
+            fixedCore = new int[0];
+        } else {
+            Arrays.fill(candidates, true);
+            fixedCore = new int[0];
+        }
+        rebuild(updatedClauseList, computeCore(updatedClauseList, fixedCore, candidates));
+        return mig;
+    }
+
+    private BooleanAssignment computeCore(List<BooleanClause> clauses, int[] fixedCore, boolean[] candidates) {
+        final SAT4JSolutionSolver solver =
+                new SAT4JSolutionSolver(new BooleanClauseList(new ArrayList<>(clauses), variableCount));
+        solver.getAssignment().addAll(fixedCore);
+        solver.setSelectionStrategy(ISelectionStrategy.positive());
+        final Result<BooleanSolution> solution = solver.findSolution();
+        if (solution.isEmpty()) {
+            throw new RuntimeContradictionException("CNF is not satisfiable!");
+        }
+        final int[] model1 = Arrays.copyOf(solution.get().get(), variableCount);
+        for (int i = 0; i < variableCount; i++) {
+            if (!candidates[i]) {
+                model1[i] = 0;
+            }
+        }
+        solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
+
+        final int[] modelBuffer = new int[variableCount];
+        for (int i = 0; i < variableCount; i++) {
+            final int varX = model1[i];
+            if (varX != 0) {
+                solver.getAssignment().add(-varX);
+                Result<Boolean> hasSolution = solver.hasSolution();
+                if (hasSolution.valueEquals(false)) {
+                    solver.getAssignment().replaceLast(varX);
+                } else {
+                    solver.getAssignment().remove();
+                    if (hasSolution.valueEquals(true)) {
+                        BooleanSolution.removeConflictsInplace(model1, solver.fillSolution(modelBuffer));
+                    }
+                }
+            }
+        }
+        return solver.getAssignment().toAssignment();
+    }
+
+    private void rebuild(ArrayList<BooleanClause> updatedClauseList, BooleanAssignment coreLiterals) {
+        final int vertexCount = 2 * variableCount;
+        final CleanedClauses newCleanedClauses =
+                new CleanedClauses(variableCount, MIGBuilder.cleanClauses(updatedClauseList, coreLiterals));
+
+        final boolean[] affected = new boolean[vertexCount];
+        if (mig == null) {
+            Arrays.fill(affected, true);
+        } else {
+            final int[] queue = new int[vertexCount];
+            int end = 0;
+            for (int i = 0; i < vertexCount; i++) {
+                if (!newCleanedClauses.hasEqualDirectEdges(i, cleanedClauses)) {
+                    affected[i] = true;
+                    queue[end++] = i;
+                }
+            }
+            // As each binary clause results in the edges -a -> b and -b -> a, the
+            // predecessors of literal x are the complements of the successors of -x.
+            final int[] oldOffsets = cleanedClauses.directOffsets;
+            final int[] oldEdges = cleanedClauses.directEdges;
+            int head = 0;
+            while (head < end) {
+                final int complementIndex = ModalImplicationGraph.getVertexIndex(-MIGBuilder.getLiteral(queue[head++]));
+                for (int k = oldOffsets[complementIndex]; k < oldOffsets[complementIndex + 1]; k++) {
+                    final int predecessorIndex = ModalImplicationGraph.getVertexIndex(-oldEdges[k]);
+                    if (!affected[predecessorIndex]) {
+                        affected[predecessorIndex] = true;
+                        queue[end++] = predecessorIndex;
+                    }
+                }
+            }
+        }
+
+        final int[] directOffsets = newCleanedClauses.directOffsets;
+        final int[] directEdges = newCleanedClauses.directEdges;
+        final int[] components = new int[vertexCount];
+        final int[] componentRepresentatives = MIGBuilder.computeComponents(directOffsets, directEdges, components);
+        final int[][] componentClosures = new int[componentRepresentatives.length][];
+        for (int i = 0; i < vertexCount; i++) {
+            final int component = components[i];
+            if (affected[i] && componentClosures[component] == null) {
+                componentClosures[component] = MIGBuilder.bfsStrong(
+                        componentRepresentatives[component], directOffsets, directEdges, traversalState);
+            }
+        }
+
+        final int[] strongOffsets = new int[vertexCount + 1];
+        for (int i = 0; i < vertexCount; i++) {
+            final int edgeCount = affected[i]
+                    ? componentClosures[components[i]].length - 1
+                    : mig.getStrongOffsets()[i + 1] - mig.getStrongOffsets()[i];
+            strongOffsets[i + 1] = strongOffsets[i] + edgeCount;
+        }
+        final int[] strongEdges = new int[strongOffsets[vertexCount]];
+        for (int i = 0; i < vertexCount; i++) {
+            if (affected[i]) {
+                final int literal = MIGBuilder.getLiteral(i);
+                int k = strongOffsets[i];
+                for (int v : componentClosures[components[i]]) {
+                    if (v != literal) {
+                        strongEdges[k++] = v;
+                    }
+                }
+            } else {
+                final int oldStart = mig.getStrongOffsets()[i];
+                System.arraycopy(
+                        mig.getStrongEdges(),
+                        oldStart,
+                        strongEdges,
+                        strongOffsets[i],
+                        strongOffsets[i + 1] - strongOffsets[i]);
+            }
+        }
+
+        mig = new ModalImplicationGraph(
+                variableCount,
+                Arrays.copyOf(coreLiterals.get(), coreLiterals.get().length),
+                strongOffsets,
+                strongEdges,
+                newCleanedClauses.occurrenceOffsets,
+                newCleanedClauses.occurrences,
+                newCleanedClauses.clauses,
+                newCleanedClauses.clauseStarts,
+                newCleanedClauses.clauseLengths);
+        cleanedClauses = newCleanedClauses;
+        clauseList = updatedClauseList;
+    }
+}
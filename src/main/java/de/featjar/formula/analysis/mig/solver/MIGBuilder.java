@@ -21,6 +21,7 @@
 package de.featjar.formula.analysis.mig.solver;
 
 import de.featjar.base.computation.AComputation;
+import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
@@ -31,12 +32,14 @@ import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.sat4j.ComputeCoreSAT4J;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Adjacency matrix implementation for a feature graph.
@@ -47,9 +50,10 @@ public class MIGBuilder extends AComputation<ModalImplicationGraph> {
 
     public static final Dependency<BooleanClauseList> CNF_CLAUSES = Dependency.newDependency(BooleanClauseList.class);
     public static final Dependency<BooleanAssignment> CORE = Dependency.newDependency(BooleanAssignment.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
 
     public MIGBuilder(IComputation<BooleanClauseList> cnfFormula) {
-        super(cnfFormula, new ComputeCoreSAT4J(cnfFormula));
+        super(cnfFormula, new ComputeCoreSAT4J(cnfFormula), Computations.of(1));
     }
 
     protected MIGBuilder(MIGBuilder other) {
@@ -71,115 +75,211 @@ public class MIGBuilder extends AComputation<ModalImplicationGraph> {
 
         progress.incrementCurrentStep();
 
-        ExpandableIntegerList[] tempStrong = new ExpandableIntegerList[2 * size];
-        List<BooleanClause> cleanedClausesList = new ArrayList<>(cnfFormula.size());
-        cnfFormula.stream()
-                .map(c -> cleanClause(c, coreLiterals))
-                .filter(Objects::nonNull)
-                .forEach(cleanedClausesList::add);
-
-        final int[][] strong = new int[2 * size][];
-        final int[] weakCount = new int[2 * size];
-        final int[][] clauseIndices = new int[2 * size][];
-        final int[][] clauseLengthIndices = new int[2 * size][];
+        final int vertexCount = 2 * size;
         final int[] core = Arrays.copyOf(coreLiterals.get(), coreLiterals.get().length);
+        final CleanedClauses cleanedClauses = new CleanedClauses(size, cleanClauses(cnfFormula.getAll(), coreLiterals));
+        final int[] directOffsets = cleanedClauses.directOffsets;
+        final int[] directEdges = cleanedClauses.directEdges;
+
+        progress.incrementCurrentStep();
+        progress.incrementCurrentStep();
 
-        int clausesSize = 0;
-        int clauseLengthSize = 0;
-        for (BooleanClause clause : cleanedClausesList) {
-            final int clauseSize = clause.size();
-            if (clauseSize > 2) {
-                clausesSize += clauseSize;
-                clauseLengthSize++;
-                for (int l : clause.get()) {
-                    weakCount[ModalImplicationGraph.getVertexIndex(-l)]++;
+        // compute transitive closure of strong edges once per strongly connected component
+        final int[] components = new int[vertexCount];
+        final int[] componentRepresentatives = computeComponents(directOffsets, directEdges, components);
+        final int[][] componentClosures = new int[componentRepresentatives.length][];
+        final int threadCount = THREAD_COUNT.get(dependencyList);
+        if (threadCount > 1) {
+            final ThreadLocal<TraversalState> traversalState =
+                    ThreadLocal.withInitial(() -> new TraversalState(vertexCount));
+            runInPool(threadCount, () -> IntStream.range(0, componentClosures.length)
+                    .parallel()
+                    .forEach(c -> componentClosures[c] = bfsStrong(
+                            componentRepresentatives[c], directOffsets, directEdges, traversalState.get())));
+        } else {
+            final TraversalState traversalState = new TraversalState(vertexCount);
+            for (int c = 0; c < componentClosures.length; c++) {
+                componentClosures[c] =
+                        bfsStrong(componentRepresentatives[c], directOffsets, directEdges, traversalState);
+            }
+        }
+        progress.incrementCurrentStep();
+
+        final int[] strongOffsets = new int[vertexCount + 1];
+        for (int i = 0; i < vertexCount; i++) {
+            strongOffsets[i + 1] = strongOffsets[i] + componentClosures[components[i]].length - 1;
+        }
+        final int[] strongEdges = new int[strongOffsets[vertexCount]];
+        for (int i = 0; i < vertexCount; i++) {
+            final int literal = getLiteral(i);
+            int k = strongOffsets[i];
+            for (int v : componentClosures[components[i]]) {
+                if (v != literal) {
+                    strongEdges[k++] = v;
                 }
             }
         }
+        progress.incrementCurrentStep();
+
+        ModalImplicationGraph migVisitorProvider = new ModalImplicationGraph(
+                size,
+                core,
+                strongOffsets,
+                strongEdges,
+                cleanedClauses.occurrenceOffsets,
+                cleanedClauses.occurrences,
+                cleanedClauses.clauses,
+                cleanedClauses.clauseStarts,
+                cleanedClauses.clauseLengths);
+        return Result.of(migVisitorProvider);
+    }
 
-        final int[] clauses = new int[clausesSize];
-        final int[] clauseLengths = new int[clauseLengthSize];
+    /**
+     * Marks visited vertices with the number of the current traversal, such
+     * that the mark array does not need to be cleared between traversals.
+     */
+    static class TraversalState {
+        private final int[] marks;
+        private final int[] queue;
+        private int epoch;
 
-        for (int i = 0; i < weakCount.length; i++) {
-            final int c = weakCount[i];
-            clauseIndices[i] = new int[c];
-            clauseLengthIndices[i] = new int[c];
-            tempStrong[i] = new ExpandableIntegerList();
+        TraversalState(int vertexCount) {
+            marks = new int[vertexCount];
+            queue = new int[vertexCount];
         }
+    }
 
-        int clausesI = 0;
-        int clauseCountI = 0;
-        for (BooleanClause clause : cleanedClausesList) {
-            if (clause.size() == 2) {
-                final int i = clause.get()[0];
-                final int j = clause.get()[1];
-                tempStrong[ModalImplicationGraph.getVertexIndex(-i)].add(j);
-                tempStrong[ModalImplicationGraph.getVertexIndex(-j)].add(i);
-            } else if (clause.size() > 2) {
-                int startClausesI = clausesI;
-                int[] literals = clause.get();
-                for (int i = 0; i < literals.length; i++) {
-                    final int l = literals[i];
-                    clauses[clausesI++] = l;
-                    int vertexIndex = ModalImplicationGraph.getVertexIndex(-l);
-                    int[] clauseCountIndexList = clauseLengthIndices[vertexIndex];
-                    int k = 0;
-                    for (; k < clauseCountIndexList.length; k++) {
-                        if (clauseCountIndexList[k] == 0) {
-                            clauseCountIndexList[k] = clauseCountI;
-                            break;
-                        }
-                    }
-                    try {
-                        clauseIndices[vertexIndex][k] = startClausesI;
-                    } catch (RuntimeException e) {
-                        throw new RuntimeException(clause.toString(), e);
-                    }
+    static int getLiteral(int vertexIndex) {
+        return (vertexIndex & 1) == 0 ? -((vertexIndex >> 1) + 1) : (vertexIndex >> 1) + 1;
+    }
+
+    /**
+     * Computes all literals reachable from a literal via strong edges,
+     * including the literal itself.
+     */
+    static int[] bfsStrong(int literal, int[] directOffsets, int[] directEdges, TraversalState state) {
+        final int epoch = ++state.epoch;
+        final int[] marks = state.marks;
+        final int[] queue = state.queue;
+        marks[ModalImplicationGraph.getVertexIndex(literal)] = epoch;
+        int head = 0;
+        int end = 0;
+        queue[end++] = literal;
+        while (head < end) {
+            final int vertexIndex = ModalImplicationGraph.getVertexIndex(queue[head++]);
+            for (int k = directOffsets[vertexIndex]; k < directOffsets[vertexIndex + 1]; k++) {
+                final int v = directEdges[k];
+                final int targetIndex = ModalImplicationGraph.getVertexIndex(v);
+                if (marks[targetIndex] != epoch) {
+                    marks[targetIndex] = epoch;
+                    queue[end++] = v;
                 }
-                clauseLengths[clauseCountI++] = clause.size();
             }
         }
+        return Arrays.copyOf(queue, end);
+    }
 
-        progress.incrementCurrentStep();
+    /**
+     * Computes the strongly connected components of the graph of direct strong
+     * edges with an iterative version of Tarjan's algorithm.
+     *
+     * @param directOffsets the offsets of the direct edges of each vertex
+     * @param directEdges   the target literals of all direct edges
+     * @param components    is filled with the component index of each vertex
+     * @return a literal of each component
+     */
+    static int[] computeComponents(int[] directOffsets, int[] directEdges, int[] components) {
+        final int vertexCount = components.length;
+        final int[] index = new int[vertexCount];
+        final int[] lowLink = new int[vertexCount];
+        final int[] stack = new int[vertexCount];
+        final int[] callStack = new int[vertexCount];
+        final int[] edgePositions = new int[vertexCount];
+        final ExpandableIntegerList representatives = new ExpandableIntegerList();
+        Arrays.fill(index, -1);
+        Arrays.fill(components, -1);
+        int nextIndex = 0;
+        int stackSize = 0;
 
-        for (int i = 1; i <= size; i++) {
-            bfsStrong(i, size, strong, tempStrong);
-            bfsStrong(-i, size, strong, tempStrong);
-        }
-        progress.incrementCurrentStep();
+        for (int root = 0; root < vertexCount; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int callStackSize = 0;
+            callStack[callStackSize++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            edgePositions[root] = directOffsets[root];
+            stack[stackSize++] = root;
 
-        ModalImplicationGraph migVisitorProvider = new ModalImplicationGraph(
-                size, core, strong, clauseIndices, clauses, clauseLengthIndices, clauseLengths);
-        return Result.of(migVisitorProvider);
+            while (callStackSize > 0) {
+                final int v = callStack[callStackSize - 1];
+                if (edgePositions[v] < directOffsets[v + 1]) {
+                    final int w = ModalImplicationGraph.getVertexIndex(directEdges[edgePositions[v]++]);
+                    if (index[w] < 0) {
+                        index[w] = lowLink[w] = nextIndex++;
+                        edgePositions[w] = directOffsets[w];
+                        stack[stackSize++] = w;
+                        callStack[callStackSize++] = w;
+                    } else if (components[w] < 0) {
+                        lowLink[v] = Math.min(lowLink[v], index[w]);
+                    }
+                } else {
+                    callStackSize--;
+                    if (lowLink[v] == index[v]) {
+                        final int component = representatives.size();
+                        representatives.add(getLiteral(v));
+                        int w;
+                        do {
+                            w = stack[--stackSize];
+                            components[w] = component;
+                        } while (w != v);
+                    }
+                    if (callStackSize > 0) {
+                        final int parent = callStack[callStackSize - 1];
+                        lowLink[parent] = Math.min(lowLink[parent], lowLink[v]);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(representatives.toArray(), representatives.size());
     }
 
-    private void bfsStrong(int literal, int size, int[][] strong, ExpandableIntegerList[] tempStrong) {
-        int vertexIndex = ModalImplicationGraph.getVertexIndex(literal);
-        ExpandableIntegerList temp = tempStrong[vertexIndex];
-        final ArrayDeque<Integer> queue = new ArrayDeque<>();
-        final boolean[] mark = new boolean[size + 1];
-        mark[Math.abs(literal)] = true;
-        temp.toIntStream().forEach(v -> {
-            mark[Math.abs(v)] = true;
-            queue.add(v);
-        });
-        while (!queue.isEmpty()) {
-            final Integer curVertex = queue.removeFirst();
-            tempStrong[ModalImplicationGraph.getVertexIndex(curVertex)]
-                    .toIntStream()
-                    .forEach(v -> {
-                        final int index = Math.abs(v);
-                        if (!mark[index]) {
-                            mark[index] = true;
-                            queue.add(v);
-                            temp.add(v);
-                        }
-                    });
+    private static void runInPool(int threadCount, Runnable task) {
+        final ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdownNow();
         }
-        strong[vertexIndex] = Arrays.copyOf(temp.toArray(), temp.size());
     }
 
-    private BooleanClause cleanClause(BooleanClause clause, BooleanAssignment core) {
+    /**
+     * Removes all core and dead literals from the given clauses. Clauses that
+     * are satisfied by the core, tautological, or contain only one remaining
+     * literal are omitted.
+     *
+     * @param clauses the clauses
+     * @param core    the core and dead literals
+     * @return the cleaned clauses
+     */
+    static List<BooleanClause> cleanClauses(List<BooleanClause> clauses, BooleanAssignment core) {
+        final List<BooleanClause> cleanedClauses = new ArrayList<>(clauses.size());
+        clauses.stream()
+                .map(c -> cleanClause(c, core))
+                .filter(Objects::nonNull)
+                .forEach(cleanedClauses::add);
+        return cleanedClauses;
+    }
+
+    private static BooleanClause cleanClause(BooleanClause clause, BooleanAssignment core) {
         final int[] literals = clause.get();
         final LinkedHashSet<Integer> literalSet = new LinkedHashSet<>(literals.length << 1);
 
@@ -21,30 +21,47 @@
 package de.featjar.formula.analysis.mig.solver;
 
 import de.featjar.formula.analysis.RuntimeContradictionException;
-import java.util.ArrayDeque;
 import java.util.Arrays;
 
 /**
  * Adjacency list implementation based on arrays. Intended to use for faster
  * traversion.
+ * <p>
+ * Edges are stored in compressed sparse row layout. The strong edges of the
+ * vertex with index {@code i} are
+ * {@code strongEdges[strongOffsets[i]] ... strongEdges[strongOffsets[i + 1] - 1]}.
+ * Likewise, the indices of all clauses that contain the complement of the
+ * vertex's literal (i.e., its weak edges) are stored in {@code occurrences}
+ * between {@code occurrenceOffsets[i]} and {@code occurrenceOffsets[i + 1]}.
+ * The literals of the clause with index {@code c} are stored in
+ * {@code clauses} starting at {@code clauseStarts[c]}.
  *
  * @author Sebastian Krieter
  */
 public class ModalImplicationGraph {
 
+    /**
+     * Default maximum number of vertices that are visited by
+     * {@link Visitor#canImplyComplement(int...)}.
+     */
+    public static final int DEFAULT_TRAVERSAL_LIMIT = 1024;
+
     private final int size;
 
     private final int[] core;
 
-    private final int[][] strong;
+    private final int[] strongOffsets;
+    private final int[] strongEdges;
 
-    private final int[][] clauseIndices;
-    private final int[] clauses;
+    private final int[] occurrenceOffsets;
+    private final int[] occurrences;
 
-    // TODO join both index arrays
-    private final int[][] clauseLengthsIndices;
+    private final int[] clauses;
+    private final int[] clauseStarts;
     private final int[] clauseLengths;
 
+    private final boolean[] coreVertices;
+
     public class Visitor {
 
         private final int[] clauseCounts;
@@ -53,6 +70,12 @@ public class ModalImplicationGraph {
 
         private int addedLiteralCount;
 
+        private int[] traversalMarks;
+        private int[] traversalStopMarks;
+        private int[] traversalQueue;
+        private int traversalEpoch;
+        private int traversalLimit = DEFAULT_TRAVERSAL_LIMIT;
+
         public Visitor(int[] model) {
             this.model = model;
             for (int l : core) {
@@ -90,6 +113,44 @@ public class ModalImplicationGraph {
             return addedLiteralCount;
         }
 
+        /**
+         * Sets the maximum number of vertices that are visited by
+         * {@link #canImplyComplement(int...)}.
+         *
+         * @param traversalLimit the maximum number of visited vertices
+         */
+        public void setTraversalLimit(int traversalLimit) {
+            this.traversalLimit = traversalLimit;
+        }
+
+        /**
+         * Checks whether the complement of any of the given literals is
+         * reachable from any of the given literals (see
+         * {@link ModalImplicationGraph#canImplyComplement(int...)}). The buffers
+         * for the traversal are reused across calls and the traversal is
+         * aborted after visiting more vertices than the traversal limit (see
+         * {@link #setTraversalLimit(int)}).
+         *
+         * @param literals the literals to check
+         * @return {@code false} if the literals are guaranteed to be consistent,
+         *         {@code true} if they may be inconsistent or the traversal
+         *         limit was reached
+         */
+        public boolean canImplyComplement(int... literals) {
+            if (traversalMarks == null) {
+                traversalMarks = new int[2 * size];
+                traversalStopMarks = new int[2 * size];
+                traversalQueue = new int[2 * size];
+            }
+            if (traversalEpoch == Integer.MAX_VALUE) {
+                Arrays.fill(traversalMarks, 0);
+                Arrays.fill(traversalStopMarks, 0);
+                traversalEpoch = 0;
+            }
+            return ModalImplicationGraph.this.canImplyComplement(
+                    literals, traversalMarks, traversalStopMarks, ++traversalEpoch, traversalQueue, traversalLimit);
+        }
+
         public void propagate(int... literals) throws RuntimeContradictionException {
             for (int l : literals) {
                 if (l != 0) {
@@ -98,32 +159,6 @@ public class ModalImplicationGraph {
             }
         }
 
-        // TODO implement proper traversal
-        private boolean[] traverseWeak(int literal) {
-            final ArrayDeque<Integer> queue = new ArrayDeque<>();
-            final boolean[] mark = new boolean[2 * size];
-            mark[ModalImplicationGraph.getVertexIndex(literal)] = true;
-            queue.add(literal);
-
-            while (!queue.isEmpty()) {
-                final int vertexLiteral = queue.removeFirst();
-                final int vertexIndex = ModalImplicationGraph.getVertexIndex(vertexLiteral);
-                int[] vertexClauseIndices = clauseIndices[vertexIndex];
-                int[] vertexLengthsIndices = clauseLengthsIndices[vertexIndex];
-                for (int i = 0; i < vertexClauseIndices.length; i++) {
-                    int clauseIndex = vertexClauseIndices[i];
-                    int clauseLength = vertexLengthsIndices[i];
-                    for (int j = clauseIndex; j < clauseLength + clauseLength; j++) {
-                        int clauseLiteral = vertexLengthsIndices[j];
-                        if (clauseLiteral != -vertexLiteral) {
-                            // TODO
-                        }
-                    }
-                }
-            }
-            return mark;
-        }
-
         public boolean isContradiction(int... literals) {
             final int oldModelCount = addedLiteralCount;
             try {
@@ -141,8 +176,10 @@ public class ModalImplicationGraph {
                 final int l = addedLiterals[i];
                 model[Math.abs(l) - 1] = 0;
                 addedLiterals[i] = 0;
-                for (int clauseCountIndex : clauseLengthsIndices[getVertexIndex(l)]) {
-                    clauseCounts[clauseCountIndex] = clauseLengths[clauseCountIndex];
+                final int vertexIndex = getVertexIndex(l);
+                for (int k = occurrenceOffsets[vertexIndex], end = occurrenceOffsets[vertexIndex + 1]; k < end; k++) {
+                    final int clauseIndex = occurrences[k];
+                    clauseCounts[clauseIndex] = clauseLengths[clauseIndex];
                 }
             }
             addedLiteralCount = 0;
@@ -150,8 +187,10 @@ public class ModalImplicationGraph {
 
         public void reset(int keep) {
             for (int i = 0; i < addedLiteralCount; i++) {
-                for (int clauseCountIndex : clauseLengthsIndices[getVertexIndex(addedLiterals[i])]) {
-                    clauseCounts[clauseCountIndex] = clauseLengths[clauseCountIndex];
+                final int vertexIndex = getVertexIndex(addedLiterals[i]);
+                for (int k = occurrenceOffsets[vertexIndex], end = occurrenceOffsets[vertexIndex + 1]; k < end; k++) {
+                    final int clauseIndex = occurrences[k];
+                    clauseCounts[clauseIndex] = clauseLengths[clauseIndex];
                 }
             }
             for (int i = keep; i < addedLiteralCount; i++) {
@@ -160,8 +199,9 @@ public class ModalImplicationGraph {
             }
             addedLiteralCount = keep;
             for (int i = 0; i < addedLiteralCount; i++) {
-                for (int j : clauseLengthsIndices[getVertexIndex(addedLiterals[i])]) {
-                    --clauseCounts[j];
+                final int vertexIndex = getVertexIndex(addedLiterals[i]);
+                for (int k = occurrenceOffsets[vertexIndex], end = occurrenceOffsets[vertexIndex + 1]; k < end; k++) {
+                    --clauseCounts[occurrences[k]];
                 }
             }
         }
@@ -175,7 +215,8 @@ public class ModalImplicationGraph {
 
                 final int i = getVertexIndex(l);
 
-                for (int strongL : strong[i]) {
+                for (int k = strongOffsets[i], end = strongOffsets[i + 1]; k < end; k++) {
+                    final int strongL = strongEdges[k];
                     final int varIndex1 = Math.abs(strongL) - 1;
                     final int setL1 = model[varIndex1];
                     if (setL1 == 0) {
@@ -194,15 +235,14 @@ public class ModalImplicationGraph {
         }
 
         private void processWeak(final int index) {
-            final int[] clauseCountIndexList = clauseLengthsIndices[index];
             weakLoop:
-            for (int j = 0; j < clauseCountIndexList.length; j++) {
-                final int clauseCountIndex = clauseCountIndexList[j];
-                final int count = --clauseCounts[clauseCountIndex];
+            for (int j = occurrenceOffsets[index], endJ = occurrenceOffsets[index + 1]; j < endJ; j++) {
+                final int clauseIndex = occurrences[j];
+                final int count = --clauseCounts[clauseIndex];
                 if (count <= 1) {
                     if (count == 1) {
-                        int clauseIndex = clauseIndices[index][j];
-                        for (int end = clauseIndex + clauseLengths[clauseCountIndex], k = clauseIndex; k < end; k++) {
+                        final int clauseStart = clauseStarts[clauseIndex];
+                        for (int end = clauseStart + clauseLengths[clauseIndex], k = clauseStart; k < end; k++) {
                             final int newL = clauses[k];
                             final int modelL = model[Math.abs(newL) - 1];
                             if (modelL == 0 || modelL == newL) {
@@ -221,21 +261,171 @@ public class ModalImplicationGraph {
         return literal < 0 ? (-literal - 1) << 1 : ((literal - 1) << 1) + 1;
     }
 
+    /**
+     * Creates a new graph from arrays in compressed sparse row layout (see
+     * {@link ModalImplicationGraph}).
+     *
+     * @param size              the number of variables
+     * @param core              the core and dead literals
+     * @param strongOffsets     the offsets of the strong edges of each vertex, of
+     *                          length {@code 2 * size + 1}
+     * @param strongEdges       the target literals of all strong edges
+     * @param occurrenceOffsets the offsets of the clause occurrences of each
+     *                          vertex, of length {@code 2 * size + 1}
+     * @param occurrences       the clause indices of all occurrences
+     * @param clauses           the literals of all clauses
+     * @param clauseStarts      the start index of each clause in {@code clauses}
+     * @param clauseLengths     the length of each clause
+     */
     public ModalImplicationGraph(
             int size,
             int[] core,
-            int[][] strong,
-            int[][] clauseIndices,
+            int[] strongOffsets,
+            int[] strongEdges,
+            int[] occurrenceOffsets,
+            int[] occurrences,
             int[] clauses,
-            int[][] clauseLengthIndices,
-            int[] clauseLength) {
+            int[] clauseStarts,
+            int[] clauseLengths) {
         this.size = size;
         this.core = core;
-        this.strong = strong;
-        this.clauseIndices = clauseIndices;
+        this.strongOffsets = strongOffsets;
+        this.strongEdges = strongEdges;
+        this.occurrenceOffsets = occurrenceOffsets;
+        this.occurrences = occurrences;
         this.clauses = clauses;
-        this.clauseLengthsIndices = clauseLengthIndices;
-        this.clauseLengths = clauseLength;
+        this.clauseStarts = clauseStarts;
+        this.clauseLengths = clauseLengths;
+        coreVertices = new boolean[2 * size];
+        for (int l : core) {
+            coreVertices[getVertexIndex(l)] = true;
+        }
+    }
+
+    /**
+     * Computes all literals that are reachable from the given literals via
+     * strong or weak edges. Every literal that is implied by the given literals
+     * is contained in the result, but not every contained literal is
+     * necessarily implied (i.e., it is only implied conditionally).
+     *
+     * @param literals the start literals
+     * @return the conditionally implied literals, not including the start
+     *         literals
+     */
+    public int[] getConditionallyImpliedLiterals(int... literals) {
+        final int[] marks = new int[2 * size];
+        final int[] queue = new int[2 * size];
+        final int start = initTraversal(literals, marks, 1, queue);
+        return Arrays.copyOfRange(queue, start, traverse(marks, 1, queue, start, null, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Checks whether the complement of any of the given literals is reachable
+     * from any of the given literals via strong or weak edges. As any
+     * implication between literals requires such a path, the given literals
+     * can be selected together (i.e., their conjunction is satisfiable with the
+     * formula) if this method returns {@code false} and the formula itself is
+     * satisfiable. This allows to confirm valid combinations of literals
+     * without a SAT call.
+     * <p>
+     * This method allocates new buffers for each call. For repeated checks, use
+     * {@link Visitor#canImplyComplement(int...)}.
+     *
+     * @param literals the literals to check
+     * @return {@code false} if the literals are guaranteed to be consistent,
+     *         {@code true} if they may be inconsistent
+     */
+    public boolean canImplyComplement(int... literals) {
+        return canImplyComplement(
+                literals, new int[2 * size], new int[2 * size], 1, new int[2 * size], Integer.MAX_VALUE);
+    }
+
+    private boolean canImplyComplement(
+            int[] literals, int[] marks, int[] stopMarks, int epoch, int[] queue, int limit) {
+        for (int l : literals) {
+            if (l != 0) {
+                final int complementIndex = getVertexIndex(-l);
+                if (coreVertices[complementIndex]) {
+                    return true;
+                }
+                stopMarks[complementIndex] = epoch;
+            }
+        }
+        return traverse(marks, epoch, queue, initTraversal(literals, marks, epoch, queue), stopMarks, limit) < 0;
+    }
+
+    private int initTraversal(int[] literals, int[] marks, int epoch, int[] queue) {
+        int end = 0;
+        for (int l : literals) {
+            if (l != 0 && !isCoreLiteral(l)) {
+                final int vertexIndex = getVertexIndex(l);
+                if (marks[vertexIndex] != epoch) {
+                    marks[vertexIndex] = epoch;
+                    queue[end++] = l;
+                }
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Breadth-first traversal along strong and weak edges. Core literals and
+     * clauses satisfied by the core are ignored. A vertex counts as visited if
+     * its entry in {@code marks} equals {@code epoch}.
+     *
+     * @return the number of visited literals, or -1 if a vertex whose entry in
+     *         {@code stopMarks} equals {@code epoch} or more than {@code limit}
+     *         vertices were visited
+     */
+    private int traverse(int[] marks, int epoch, int[] queue, int end, int[] stopMarks, int limit) {
+        for (int head = 0; head < end; head++) {
+            if (end > limit) {
+                return -1;
+            }
+            final int l = queue[head];
+            final int vertexIndex = getVertexIndex(l);
+            if (stopMarks != null && stopMarks[vertexIndex] == epoch) {
+                return -1;
+            }
+            for (int k = strongOffsets[vertexIndex], strongEnd = strongOffsets[vertexIndex + 1]; k < strongEnd; k++) {
+                end = visit(strongEdges[k], marks, epoch, queue, end);
+            }
+            clauseLoop:
+            for (int j = occurrenceOffsets[vertexIndex], occurrenceEnd = occurrenceOffsets[vertexIndex + 1];
+                    j < occurrenceEnd;
+                    j++) {
+                final int clauseIndex = occurrences[j];
+                final int clauseStart = clauseStarts[clauseIndex];
+                final int clauseEnd = clauseStart + clauseLengths[clauseIndex];
+                for (int k = clauseStart; k < clauseEnd; k++) {
+                    if (isCoreLiteral(clauses[k])) {
+                        continue clauseLoop;
+                    }
+                }
+                for (int k = clauseStart; k < clauseEnd; k++) {
+                    final int clauseLiteral = clauses[k];
+                    if (clauseLiteral != -l) {
+                        end = visit(clauseLiteral, marks, epoch, queue, end);
+                    }
+                }
+            }
+        }
+        return end;
+    }
+
+    private int visit(int literal, int[] marks, int epoch, int[] queue, int end) {
+        if (!isCoreLiteral(literal) && !isCoreLiteral(-literal)) {
+            final int vertexIndex = getVertexIndex(literal);
+            if (marks[vertexIndex] != epoch) {
+                marks[vertexIndex] = epoch;
+                queue[end++] = literal;
+            }
+        }
+        return end;
+    }
+
+    private boolean isCoreLiteral(int literal) {
+        return coreVertices[getVertexIndex(literal)];
     }
 
     public Visitor getVisitor() {
@@ -253,4 +443,32 @@ public class ModalImplicationGraph {
     public int size() {
         return size;
     }
+
+    int[] getStrongOffsets() {
+        return strongOffsets;
+    }
+
+    int[] getStrongEdges() {
+        return strongEdges;
+    }
+
+    int[] getOccurrenceOffsets() {
+        return occurrenceOffsets;
+    }
+
+    int[] getOccurrences() {
+        return occurrences;
+    }
+
+    int[] getClauses() {
+        return clauses;
+    }
+
+    int[] getClauseStarts() {
+        return clauseStarts;
+    }
+
+    int[] getClauseLengths() {
+        return clauseLengths;
+    }
 }
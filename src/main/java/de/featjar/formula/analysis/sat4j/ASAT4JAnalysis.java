@@ -33,6 +33,7 @@ import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JExplanationSolver;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolverPool;
 import java.time.Duration;
 import java.util.List;
 
@@ -46,6 +47,7 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
             Dependency.newDependency(BooleanClauseList.class);
     public static final Dependency<Duration> SAT_TIMEOUT = Dependency.newDependency(Duration.class);
     public static final Dependency<Long> RANDOM_SEED = Dependency.newDependency(Long.class);
+    public static final Dependency<Boolean> USE_SOLVER_POOL = Dependency.newDependency(Boolean.class);
 
     public ASAT4JAnalysis(IComputation<BooleanClauseList> booleanClauseList, Object... computations) {
         super(
@@ -54,6 +56,7 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
                 Computations.of(new BooleanClauseList(-1)),
                 Computations.of(Duration.ZERO),
                 Computations.of(1L),
+                Computations.of(Boolean.FALSE),
                 computations);
     }
 
@@ -73,6 +76,17 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
 
     protected abstract SAT4JSolver newSolver(BooleanClauseList clauseList);
 
+    /**
+     * Returns the type of the solvers created by
+     * {@link #newSolver(BooleanClauseList)}. Used to find matching solvers in the
+     * {@link SAT4JSolverPool}.
+     *
+     * @return the solver type
+     */
+    protected Class<? extends SAT4JSolver> getSolverClass() {
+        return SAT4JSolutionSolver.class;
+    }
+
     @SuppressWarnings("unchecked")
     public <U extends SAT4JSolver> U initializeSolver(List<Object> dependencyList, boolean empty) {
         BooleanClauseList clauseList = BOOLEAN_CLAUSE_LIST.get(dependencyList);
@@ -83,7 +97,10 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
         FeatJAR.log().debug("clauses %s", clauseList);
         FeatJAR.log().debug("assuming %s", assumedAssignment);
         FeatJAR.log().debug("assuming %s", assumedClauseList);
-        U solver = (U) newSolver(empty ? new BooleanClauseList(clauseList.getVariableCount()) : clauseList);
+        BooleanClauseList baseClauseList = empty ? new BooleanClauseList(clauseList.getVariableCount()) : clauseList;
+        U solver = (U) (USE_SOLVER_POOL.get(dependencyList)
+                ? SAT4JSolverPool.getInstance().acquire(getSolverClass(), baseClauseList, this::newSolver)
+                : newSolver(baseClauseList));
         solver.getClauseList().addAll(assumedClauseList);
         solver.getAssignment().addAll(assumedAssignment);
         solver.setTimeout(timeout);
@@ -95,6 +112,20 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
         return initializeSolver(dependencyList, false);
     }
 
+    /**
+     * Returns a solver created by {@link #initializeSolver(List, boolean)} to the
+     * {@link SAT4JSolverPool}, if {@link #USE_SOLVER_POOL} is set. The solver must
+     * not be used afterwards.
+     *
+     * @param dependencyList the dependency list
+     * @param solver         the solver
+     */
+    public void releaseSolver(List<Object> dependencyList, SAT4JSolver solver) {
+        if (USE_SOLVER_POOL.get(dependencyList)) {
+            SAT4JSolverPool.getInstance().release(solver);
+        }
+    }
+
     public abstract static class Solution<T> extends ASAT4JAnalysis<T> {
         public Solution(IComputation<BooleanClauseList> booleanClauseList, Object... computations) {
             super(booleanClauseList, computations);
@@ -119,5 +150,10 @@ public abstract class ASAT4JAnalysis<T> extends AComputation<T>
         protected SAT4JExplanationSolver newSolver(BooleanClauseList clauseList) {
             return new SAT4JExplanationSolver(clauseList);
         }
+
+        @Override
+        protected Class<SAT4JExplanationSolver> getSolverClass() {
+            return SAT4JExplanationSolver.class;
+        }
     }
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.ISolver;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JClauseList;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Estimates the number of solutions with an (epsilon, delta) guarantee, such
+ * that the estimate lies within a factor of {@code 1 + epsilon} of the exact
+ * count with a probability of at least {@code 1 - delta}. Implements the
+ * hashing-based ApproxMC algorithm: Each round adds random XOR constraints to
+ * the formula until the number of remaining solutions falls below a threshold.
+ * These solutions are enumerated and scaled by the number of XOR constraints.
+ * The result is the median of all rounds. Rounds are independent and run in
+ * parallel if {@link #THREAD_COUNT} is greater than one. If the formula has
+ * less solutions than the threshold, the exact count is returned.
+ * <p>
+ * SAT4J does not support XOR constraints natively, so they are encoded as
+ * clauses with auxiliary variables.
+ */
+public class ComputeApproximateSolutionCountSAT4J extends ASAT4JAnalysis.Solution<BigInteger> {
+    public static final Dependency<Double> EPSILON = Dependency.newDependency(Double.class);
+    public static final Dependency<Double> DELTA = Dependency.newDependency(Double.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
+
+    public ComputeApproximateSolutionCountSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
+        super(
+                booleanClauseList,
+                Computations.of(0.8),
+                Computations.of(0.2),
+                Computations.of(1));
+    }
+
+    protected ComputeApproximateSolutionCountSAT4J(ComputeApproximateSolutionCountSAT4J other) {
+        super(other);
+    }
+
+    /**
+     * Returns the maximum number of solutions that are enumerated per XOR
+     * constraint count for a given tolerance.
+     *
+     * @param epsilon the tolerance
+     * @return the threshold
+     */
+    public static int getThreshold(double epsilon) {
+        return (int) Math.ceil(1 + 9.84 * (1 + epsilon / (1 + epsilon)) * Math.pow(1 + 1 / epsilon, 2));
+    }
+
+    /**
+     * Returns the number of rounds that are required for a given confidence.
+     *
+     * @param delta the probability that the estimate exceeds the tolerance
+     * @return the number of rounds
+     */
+    public static int getRoundCount(double delta) {
+        return (int) Math.ceil(17 * Math.log(3 / delta) / Math.log(2));
+    }
+
+    @Override
+    public Result<BigInteger> compute(List<Object> dependencyList, Progress progress) {
+        final double epsilon = EPSILON.get(dependencyList);
+        final double delta = DELTA.get(dependencyList);
+        if (epsilon <= 0) {
+            throw new IllegalArgumentException("epsilon must be positive: " + epsilon);
+        }
+        if (delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("delta must be between 0 and 1: " + delta);
+        }
+        final int threshold = getThreshold(epsilon);
+        final int roundCount = getRoundCount(delta);
+        final int variableCount = BOOLEAN_CLAUSE_LIST.get(dependencyList).getVariableCount();
+
+        SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+        try {
+            final int cellSize = countCell(solver, variableCount, threshold);
+            if (cellSize < 0) {
+                return Result.empty(ISolver.getTimeoutProblem(null));
+            }
+            if (cellSize < threshold) {
+                return Result.of(BigInteger.valueOf(cellSize));
+            }
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+
+        progress.setTotalSteps(roundCount);
+        final Random random = new Random(RANDOM_SEED.get(dependencyList));
+        final long[] seeds = new long[roundCount];
+        for (int i = 0; i < roundCount; i++) {
+            seeds[i] = random.nextLong();
+        }
+
+        // the first round determines where the other rounds start their search
+        final Estimate firstEstimate = estimate(dependencyList, variableCount, threshold, seeds[0], 1);
+        if (firstEstimate == null) {
+            return Result.empty(ISolver.getTimeoutProblem(null));
+        }
+        progress.incrementCurrentStep();
+        final int startHashCount = Math.max(1, firstEstimate.hashCount - 2);
+
+        final List<BigInteger> counts = new ArrayList<>(roundCount);
+        counts.add(firstEstimate.count);
+        final ExecutorService threadPool =
+                Executors.newFixedThreadPool(Math.max(1, Math.min(THREAD_COUNT.get(dependencyList), roundCount)));
+        try {
+            final List<Future<Estimate>> futures = new ArrayList<>(roundCount - 1);
+            for (int i = 1; i < roundCount; i++) {
+                final long seed = seeds[i];
+                futures.add(threadPool.submit(
+                        () -> estimate(dependencyList, variableCount, threshold, seed, startHashCount)));
+            }
+            for (Future<Estimate> future : futures) {
+                final Estimate estimate = future.get();
+                if (estimate == null) {
+                    return Result.empty(ISolver.getTimeoutProblem(null));
+                }
+                counts.add(estimate.count);
+                progress.incrementCurrentStep();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            threadPool.shutdownNow();
+        }
+        Collections.sort(counts);
+        return Result.of(counts.get(counts.size() / 2));
+    }
+
+    private static final class Estimate {
+        private final BigInteger count;
+        private final int hashCount;
+
+        private Estimate(BigInteger count, int hashCount) {
+            this.count = count;
+            this.hashCount = hashCount;
+        }
+    }
+
+    /**
+     * Performs a single round. Starts with {@code startHashCount} XOR constraints
+     * and adds further constraints until less solutions than the threshold
+     * remain. If less solutions remain already for the first constraint count,
+     * the round is restarted with a single constraint.
+     *
+     * @return the estimate or {@code null}, if the timeout occurred
+     */
+    private Estimate estimate(
+            List<Object> dependencyList, int variableCount, int threshold, long seed, int startHashCount) {
+        final Random random = new Random(seed);
+        final SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+        try {
+            int hashCount = 0;
+            int cellSize;
+            do {
+                checkCancel();
+                do {
+                    addRandomXOR(solver.getClauseList(), variableCount, random);
+                    hashCount++;
+                } while (hashCount < startHashCount);
+                cellSize = countCell(solver, variableCount, threshold);
+                if (cellSize < 0) {
+                    return null;
+                }
+                if (cellSize < threshold && hashCount == startHashCount && startHashCount > 1) {
+                    return estimate(dependencyList, variableCount, threshold, seed, 1);
+                }
+            } while (cellSize >= threshold && hashCount < variableCount);
+            return new Estimate(BigInteger.valueOf(cellSize).shiftLeft(hashCount), hashCount);
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+    }
+
+    /**
+     * Counts the solutions of a solver up to a threshold. The blocking clauses
+     * only contain the original variables and are added to a clause group, which
+     * is retracted afterwards.
+     *
+     * @return the number of solutions or {@code -1}, if the timeout occurred
+     */
+    private static int countCell(SAT4JSolutionSolver solver, int variableCount, int threshold) {
+        final SAT4JClauseList clauseList = solver.getClauseList();
+        final int group = clauseList.newGroup();
+        final int[] blockingClause = new int[variableCount];
+        int count = 0;
+        try {
+            while (count < threshold) {
+                final Result<Boolean> hasSolution = solver.hasSolution();
+                if (hasSolution.isEmpty()) {
+                    return -1;
+                }
+                if (!hasSolution.get()) {
+                    break;
+                }
+                solver.fillSolution(blockingClause);
+                for (int i = 0; i < blockingClause.length; i++) {
+                    blockingClause[i] = -blockingClause[i];
+                }
+                clauseList.addToGroup(group, blockingClause);
+                count++;
+            }
+            return count;
+        } finally {
+            clauseList.retractGroup(group);
+        }
+    }
+
+    /**
+     * Adds an XOR constraint over a random subset of the original variables with
+     * a random parity. Each variable is contained with a probability of one half.
+     */
+    private static void addRandomXOR(SAT4JClauseList clauseList, int variableCount, Random random) {
+        final int[] variables = new int[variableCount];
+        int size = 0;
+        for (int variable = 1; variable <= variableCount; variable++) {
+            if (random.nextBoolean()) {
+                variables[size++] = variable;
+            }
+        }
+        addXOR(clauseList, variables, size, random.nextBoolean());
+    }
+
+    /**
+     * Adds clauses that encode an XOR constraint. The constraint is split into a
+     * chain of ternary XORs with one auxiliary variable per link. Unit clauses are
+     * avoided by using an additional auxiliary variable, so all clauses can be
+     * removed from the solver again. Auxiliary variables are obtained from
+     * {@link SAT4JClauseList#newVariable()}, so they never clash with the
+     * activation variables of clause groups.
+     *
+     * @param clauseList the clause list
+     * @param variables  the variables of the constraint
+     * @param size       the number of variables
+     * @param parity     the parity of the variables
+     */
+    static void addXOR(SAT4JClauseList clauseList, int[] variables, int size, boolean parity) {
+        if (size == 0) {
+            if (parity) {
+                final int a = clauseList.newVariable();
+                final int b = clauseList.newVariable();
+                clauseList.add(a, b);
+                clauseList.add(a, -b);
+                clauseList.add(-a, b);
+                clauseList.add(-a, -b);
+            }
+            return;
+        }
+        if (size == 1) {
+            final int literal = parity ? variables[0] : -variables[0];
+            final int a = clauseList.newVariable();
+            clauseList.add(literal, a);
+            clauseList.add(literal, -a);
+            return;
+        }
+        int chain = variables[0];
+        for (int i = 1; i < size - 1; i++) {
+            final int variable = variables[i];
+            final int link = clauseList.newVariable();
+            clauseList.add(-link, chain, variable);
+            clauseList.add(-link, -chain, -variable);
+            clauseList.add(link, -chain, variable);
+            clauseList.add(link, chain, -variable);
+            chain = link;
+        }
+        final int last = variables[size - 1];
+        if (parity) {
+            clauseList.add(chain, last);
+            clauseList.add(-chain, -last);
+        } else {
+            clauseList.add(-chain, last);
+            clauseList.add(chain, -last);
+        }
+    }
+}
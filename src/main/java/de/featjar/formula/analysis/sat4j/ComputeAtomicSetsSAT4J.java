@@ -20,29 +20,62 @@
  */
 package de.featjar.formula.analysis.sat4j;
 
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.RuntimeContradictionException;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanAssignmentList;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.mig.solver.ComputeCachedMIG;
+import de.featjar.formula.analysis.mig.solver.MIGBuilder;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph.Visitor;
 import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JAssignment;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.sat4j.core.VecInt;
 
 /**
- * Finds atomic sets.
+ * Finds atomic sets. If {@link #THREAD_COUNT} is greater than one, atomic sets
+ * are computed by multiple solvers in parallel. Optionally, variables with
+ * mutual implications in the {@link ModalImplicationGraph} are merged before
+ * any solver is called (see {@link #USE_MIG}). The graph can be loaded from
+ * and stored in a {@link ComputeCachedMIG cache} (see {@link #CACHE_MIG}).
  *
  * @author Sebastian Krieter
  */
 public class ComputeAtomicSetsSAT4J extends ASAT4JAnalysis.Solution<BooleanAssignmentList> {
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
+    public static final Dependency<Boolean> USE_MIG = Dependency.newDependency(Boolean.class);
+    public static final Dependency<Boolean> CACHE_MIG = Dependency.newDependency(Boolean.class);
+
+    /**
+     * Maximum number of models that are used to partition variables before
+     * checking them with a solver.
+     */
+    public static final int MODEL_LIMIT = 1024;
 
     public ComputeAtomicSetsSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList);
+        super(booleanClauseList, Computations.of(1), Computations.of(Boolean.FALSE), Computations.of(Boolean.FALSE));
     }
 
     protected ComputeAtomicSetsSAT4J(ComputeAtomicSetsSAT4J other) {
@@ -52,123 +85,451 @@ public class ComputeAtomicSetsSAT4J extends ASAT4JAnalysis.Solution<BooleanAssig
     @Override
     public Result<BooleanAssignmentList> compute(List<Object> dependencyList, Progress progress) {
         SAT4JSolutionSolver solver = initializeSolver(dependencyList);
-        Random random = new Random(RANDOM_SEED.get(dependencyList));
-        final BooleanAssignmentList result = new BooleanAssignmentList(
-                BOOLEAN_CLAUSE_LIST.get(dependencyList).getVariableCount());
-        //		if (variables == null) {
-        //			variables = LiteralList.getVariables(solver.getVariables());
-        //		}
-        // for all variables not in this.variables, set done[...] to 2
-
-        solver.setSelectionStrategy(ISelectionStrategy.positive());
-        final int[] model1 = solver.findSolution().get().get();
-
-        if (model1 != null) {
-            // initial atomic set consists of core and dead features
-            solver.setSelectionStrategy(ISelectionStrategy.negative());
-            final int[] model2 = solver.findSolution().get().get();
+        try {
+            Random random = new Random(RANDOM_SEED.get(dependencyList));
+            final BooleanAssignmentList result = new BooleanAssignmentList(
+                    BOOLEAN_CLAUSE_LIST.get(dependencyList).getVariableCount());
+            //		if (variables == null) {
+            //			variables = LiteralList.getVariables(solver.getVariables());
+            //		}
+            // for all variables not in this.variables, set done[...] to 2
+
             solver.setSelectionStrategy(ISelectionStrategy.positive());
+            final int[] model1 = solver.findSolution().get().get();
 
-            final byte[] done = new byte[model1.length];
+            if (model1 != null) {
+                // initial atomic set consists of core and dead features
+                solver.setSelectionStrategy(ISelectionStrategy.negative());
+                final int[] model2 = solver.findSolution().get().get();
+                solver.setSelectionStrategy(ISelectionStrategy.positive());
 
-            final int[] model1Copy = Arrays.copyOf(model1, model1.length);
+                final int threadCount = THREAD_COUNT.get(dependencyList);
+                if (threadCount > 1) {
+                    return solver.createResult(computeInParallel(
+                            dependencyList, solver.getAssignment().get(), model1, model2, threadCount, result));
+                }
 
-            BooleanSolution.removeConflictsInplace(model1Copy, model2);
-            for (int i = 0; i < model1Copy.length; i++) {
-                final int varX = model1Copy[i];
-                if (varX != 0) {
-                    solver.getAssignment().add(-varX);
-                    Result<Boolean> hasSolution = solver.hasSolution();
-                    if (hasSolution.isEmpty()) {
-                        solver.getAssignment().remove();
-                    } else if (hasSolution.valueEquals(Boolean.FALSE)) {
-                        done[i] = 2;
-                        solver.getAssignment().replaceLast(varX);
-                    } else if (hasSolution.valueEquals(Boolean.TRUE)) {
-                        solver.getAssignment().remove();
-                        BooleanSolution.removeConflictsInplace(model1Copy, solver.getInternalSolution());
-                        solver.shuffleOrder(random);
+                final byte[] done = new byte[model1.length];
+
+                final int[] model1Copy = Arrays.copyOf(model1, model1.length);
+                final int[] modelBuffer = new int[model1.length];
+
+                BooleanSolution.removeConflictsInplace(model1Copy, model2);
+                for (int i = 0; i < model1Copy.length; i++) {
+                    final int varX = model1Copy[i];
+                    if (varX != 0) {
+                        solver.getAssignment().add(-varX);
+                        Result<Boolean> hasSolution = solver.hasSolution();
+                        if (hasSolution.isEmpty()) {
+                            solver.getAssignment().remove();
+                        } else if (hasSolution.valueEquals(Boolean.FALSE)) {
+                            done[i] = 2;
+                            solver.getAssignment().replaceLast(varX);
+                        } else if (hasSolution.valueEquals(Boolean.TRUE)) {
+                            solver.getAssignment().remove();
+                            BooleanSolution.removeConflictsInplace(model1Copy, solver.fillSolution(modelBuffer));
+                            solver.shuffleOrder(random);
+                        }
                     }
                 }
-            }
-            final int fixedSize = solver.getAssignment().size();
-            result.add(new BooleanAssignment(solver.getAssignment().copy(0, fixedSize)));
+                final int fixedSize = solver.getAssignment().mark();
+                result.add(new BooleanAssignment(solver.getAssignment().copy(0, fixedSize)));
 
-            solver.setSelectionStrategy(ISelectionStrategy.random(random));
+                solver.setSelectionStrategy(ISelectionStrategy.random(random));
 
-            for (int i = 0; i < model1.length; i++) {
-                if (done[i] == 0) {
-                    done[i] = 2;
+                final int[] xModel0 = new int[model1.length];
+                for (int i = 0; i < model1.length; i++) {
+                    if (done[i] == 0) {
+                        done[i] = 2;
 
-                    int[] xModel0 = Arrays.copyOf(model1, model1.length);
+                        System.arraycopy(model1, 0, xModel0, 0, model1.length);
 
-                    final int mx0 = xModel0[i];
-                    solver.getAssignment().add(mx0);
+                        final int mx0 = xModel0[i];
+                        solver.getAssignment().add(mx0);
 
-                    for (int j = i + 1; j < xModel0.length; j++) {
-                        final int my0 = xModel0[j];
-                        if ((my0 != 0) && (done[j] == 0)) {
-                            solver.getAssignment().add(-my0);
+                        for (int j = i + 1; j < xModel0.length; j++) {
+                            final int my0 = xModel0[j];
+                            if ((my0 != 0) && (done[j] == 0)) {
+                                solver.getAssignment().add(-my0);
 
-                            Result<Boolean> hasSolution = solver.hasSolution();
+                                Result<Boolean> hasSolution = solver.hasSolution();
 
-                            if (hasSolution.isEmpty()) {
-                            } else if (hasSolution.valueEquals(Boolean.FALSE)) {
-                                done[j] = 1;
-                            } else if (hasSolution.valueEquals(Boolean.TRUE)) {
-                                BooleanSolution.removeConflictsInplace(xModel0, solver.getInternalSolution());
-                                solver.shuffleOrder(random);
+                                if (hasSolution.isEmpty()) {
+                                } else if (hasSolution.valueEquals(Boolean.FALSE)) {
+                                    done[j] = 1;
+                                } else if (hasSolution.valueEquals(Boolean.TRUE)) {
+                                    BooleanSolution.removeConflictsInplace(xModel0, solver.fillSolution(modelBuffer));
+                                    solver.shuffleOrder(random);
+                                }
+                                solver.getAssignment().remove();
                             }
-                            solver.getAssignment().remove();
                         }
-                    }
 
-                    solver.getAssignment().remove();
-                    solver.getAssignment().add(-mx0);
+                        solver.getAssignment().remove();
+                        solver.getAssignment().add(-mx0);
+
+                        Result<Boolean> hasSolution = solver.hasSolution();
+                        if (hasSolution.isEmpty()) {
+                            // return Result.empty(new TimeoutException()); // TODO: optionally ignore timeout
+                            // or continue?
+                        } else if (hasSolution.valueEquals(Boolean.FALSE)) {
+                            for (int j = i + 1; j < xModel0.length; j++) {
+                                done[j] = 0;
+                            }
+                        } else if (hasSolution.valueEquals(Boolean.TRUE)) {
+                            solver.fillSolution(xModel0);
+                        }
 
-                    Result<Boolean> hasSolution = solver.hasSolution();
-                    if (hasSolution.isEmpty()) {
-                        // return Result.empty(new TimeoutException()); // TODO: optionally ignore timeout or continue?
-                    } else if (hasSolution.valueEquals(Boolean.FALSE)) {
                         for (int j = i + 1; j < xModel0.length; j++) {
-                            done[j] = 0;
+                            if (done[j] == 1) {
+                                final int my0 = xModel0[j];
+                                if (my0 != 0) {
+                                    solver.getAssignment().add(-my0);
+
+                                    if (hasSolution.valueEquals(Boolean.FALSE)) {
+                                        done[j] = 2;
+                                        solver.getAssignment().replaceLast(my0);
+                                    } else if (hasSolution.isEmpty()) {
+                                        done[j] = 0;
+                                        solver.getAssignment().remove();
+                                        // return Result.empty(new TimeoutException()); // TODO: optionally ignore
+                                        // timeout or continue?
+                                    } else if (hasSolution.valueEquals(Boolean.TRUE)) {
+                                        done[j] = 0;
+                                        BooleanSolution.removeConflictsInplace(
+                                                xModel0, solver.fillSolution(modelBuffer));
+                                        solver.shuffleOrder(random);
+                                        solver.getAssignment().remove();
+                                    }
+                                } else {
+                                    done[j] = 0;
+                                }
+                            }
                         }
+                        SAT4JAssignment assignment = solver.getAssignment();
+                        result.add(new BooleanAssignment(
+                                assignment.copy(fixedSize, solver.getAssignment().size())));
+                        solver.getAssignment().rollback(fixedSize);
+                    }
+                }
+            }
+            return solver.createResult(result);
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+    }
+
+    private BooleanAssignmentList computeInParallel(
+            List<Object> dependencyList,
+            int[] assignment,
+            int[] model1,
+            int[] model2,
+            int threadCount,
+            BooleanAssignmentList result) {
+        final int variableCount = model1.length;
+        final SAT4JSolutionSolver[] solvers = new SAT4JSolutionSolver[threadCount];
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            final Random random = new Random(RANDOM_SEED.get(dependencyList));
+            for (int i = 0; i < threadCount; i++) {
+                solvers[i] = initializeSolver(dependencyList);
+                solvers[i].setSelectionStrategy(ISelectionStrategy.random(new Random(random.nextLong())));
+            }
+            final List<int[]> models = Collections.synchronizedList(new ArrayList<>());
+            models.add(model1);
+            models.add(model2);
+
+            // core and dead variables
+            final boolean[] fixed = new boolean[variableCount];
+            for (int l : assignment) {
+                fixed[Math.abs(l) - 1] = true;
+            }
+            final AtomicLongArray candidates = new AtomicLongArray((variableCount + 63) >>> 6);
+            for (int i = 0; i < variableCount; i++) {
+                if (!fixed[i] && model1[i] == model2[i]) {
+                    candidates.getAndAccumulate(i >>> 6, 1L << i, (a, b) -> a | b);
+                }
+            }
+            final int[] core = new int[variableCount];
+            runInParallel(threadPool, solvers, (solver, partition) -> {
+                final int[] model = new int[variableCount];
+                for (int i = partition; i < variableCount; i += threadCount) {
+                    if ((candidates.get(i >>> 6) & (1L << i)) == 0) {
+                        continue;
+                    }
+                    checkCancel();
+                    final int varX = model1[i];
+                    final Result<Boolean> hasSolution = solver.hasSolution(concat(assignment, -varX));
+                    if (hasSolution.valueEquals(Boolean.FALSE)) {
+                        core[i] = varX;
                     } else if (hasSolution.valueEquals(Boolean.TRUE)) {
-                        xModel0 = solver.getInternalSolution();
+                        solver.fillSolution(model);
+                        for (int j = 0; j < variableCount; j++) {
+                            if (model[j] != model1[j]) {
+                                candidates.getAndAccumulate(j >>> 6, ~(1L << j), (a, b) -> a & b);
+                            }
+                        }
+                        addModel(models, model);
                     }
+                }
+            });
+            final VecInt fixedLiterals = new VecInt();
+            for (int l : assignment) {
+                fixedLiterals.push(l);
+            }
+            for (int i = 0; i < variableCount; i++) {
+                if (core[i] != 0) {
+                    fixed[i] = true;
+                    fixedLiterals.push(core[i]);
+                }
+            }
+            result.add(new BooleanAssignment(toArray(fixedLiterals)));
 
-                    for (int j = i + 1; j < xModel0.length; j++) {
-                        if (done[j] == 1) {
-                            final int my0 = xModel0[j];
-                            if (my0 != 0) {
-                                solver.getAssignment().add(-my0);
+            final AtomicIntegerArray parents = new AtomicIntegerArray(variableCount);
+            for (int i = 0; i < variableCount; i++) {
+                parents.set(i, i);
+            }
 
-                                if (hasSolution.valueEquals(Boolean.FALSE)) {
-                                    done[j] = 2;
-                                    solver.getAssignment().replaceLast(my0);
-                                } else if (hasSolution.isEmpty()) {
-                                    done[j] = 0;
-                                    solver.getAssignment().remove();
-                                    // return Result.empty(new TimeoutException()); // TODO: optionally ignore timeout
-                                    // or continue?
-                                } else if (hasSolution.valueEquals(Boolean.TRUE)) {
-                                    done[j] = 0;
-                                    BooleanSolution.removeConflictsInplace(xModel0, solver.getInternalSolution());
-                                    solver.shuffleOrder(random);
-                                    solver.getAssignment().remove();
+            // merge variables with mutual implications in the MIG
+            if (USE_MIG.get(dependencyList)) {
+                final IComputation<BooleanClauseList> clauseList =
+                        Computations.of(BOOLEAN_CLAUSE_LIST.get(dependencyList));
+                final ModalImplicationGraph mig = CACHE_MIG.get(dependencyList)
+                        ? clauseList
+                                .map(ComputeCachedMIG::new)
+                                .set(ComputeCachedMIG.THREAD_COUNT, threadCount)
+                                .compute()
+                        : clauseList
+                                .map(MIGBuilder::new)
+                                .set(MIGBuilder.THREAD_COUNT, threadCount)
+                                .compute();
+                runInParallel(threadPool, solvers, (solver, partition) -> {
+                    final Visitor visitor = mig.getVisitor();
+                    for (int i = partition; i < variableCount; i += threadCount) {
+                        if (fixed[i]) {
+                            continue;
+                        }
+                        checkCancel();
+                        final int varX = model1[i];
+                        final int[] impliedLiterals;
+                        try {
+                            visitor.propagate(varX);
+                            impliedLiterals =
+                                    Arrays.copyOf(visitor.getAddedLiterals(), visitor.getAddedLiteralCount());
+                        } catch (RuntimeContradictionException e) {
+                            continue;
+                        } finally {
+                            visitor.reset();
+                        }
+                        for (int varY : impliedLiterals) {
+                            final int j = Math.abs(varY) - 1;
+                            if (j > i && !fixed[j] && varY == model1[j] && visitor.isContradiction(varY, -varX)) {
+                                union(parents, i, j);
+                            }
+                        }
+                    }
+                });
+            }
+
+            // partition remaining representatives by their values in all known models
+            final LinkedHashMap<BitSet, VecInt> signatureGroups = new LinkedHashMap<>();
+            final List<int[]> modelList = new ArrayList<>(models);
+            for (int i = 0; i < variableCount; i++) {
+                if (!fixed[i] && find(parents, i) == i) {
+                    signatureGroups
+                            .computeIfAbsent(getSignature(modelList, model1, i), k -> new VecInt())
+                            .push(i);
+                }
+            }
+            List<int[]> groups = new ArrayList<>();
+            for (VecInt group : signatureGroups.values()) {
+                if (group.size() > 1) {
+                    groups.add(toArray(group));
+                }
+            }
+
+            // check remaining candidates with solvers, refining groups with each new model
+            while (!groups.isEmpty()) {
+                final List<int[]> currentGroups = groups;
+                final List<int[]> nextGroups = Collections.synchronizedList(new ArrayList<>());
+                final AtomicInteger groupIndex = new AtomicInteger();
+                runInParallel(threadPool, solvers, (solver, partition) -> {
+                    for (int g = groupIndex.getAndIncrement();
+                            g < currentGroups.size();
+                            g = groupIndex.getAndIncrement()) {
+                        final int[] group = currentGroups.get(g);
+                        final int i = group[0];
+                        final int varX = model1[i];
+                        final List<int[]> groupModels = new ArrayList<>();
+                        final VecInt remaining = new VecInt();
+                        candidateLoop:
+                        for (int k = 1; k < group.length; k++) {
+                            checkCancel();
+                            final int j = group[k];
+                            final int varY = model1[j];
+                            for (int[] model : groupModels) {
+                                if ((model[i] == varX) != (model[j] == varY)) {
+                                    remaining.push(j);
+                                    continue candidateLoop;
                                 }
+                            }
+                            if (isEquivalent(solver, assignment, varX, varY, groupModels)) {
+                                union(parents, i, j);
                             } else {
-                                done[j] = 0;
+                                remaining.push(j);
+                            }
+                        }
+                        if (remaining.size() > 1) {
+                            final LinkedHashMap<BitSet, VecInt> subGroups = new LinkedHashMap<>();
+                            for (int j : toArray(remaining)) {
+                                subGroups
+                                        .computeIfAbsent(getSignature(groupModels, model1, j), key -> new VecInt())
+                                        .push(j);
+                            }
+                            for (VecInt subGroup : subGroups.values()) {
+                                if (subGroup.size() > 1) {
+                                    nextGroups.add(toArray(subGroup));
+                                }
                             }
                         }
                     }
-                    SAT4JAssignment assignment = solver.getAssignment();
-                    result.add(new BooleanAssignment(
-                            assignment.copy(fixedSize, solver.getAssignment().size())));
-                    solver.getAssignment().clear(fixedSize);
+                });
+                groups = new ArrayList<>(nextGroups);
+                groups.sort(Comparator.comparingInt(group -> group[0]));
+            }
+
+            final VecInt[] atomicSets = new VecInt[variableCount];
+            for (int i = 0; i < variableCount; i++) {
+                if (!fixed[i]) {
+                    final int root = find(parents, i);
+                    if (atomicSets[root] == null) {
+                        atomicSets[root] = new VecInt();
+                    }
+                    atomicSets[root].push(model1[i]);
+                }
+            }
+            for (VecInt atomicSet : atomicSets) {
+                if (atomicSet != null) {
+                    result.add(new BooleanAssignment(toArray(atomicSet)));
+                }
+            }
+            return result;
+        } finally {
+            threadPool.shutdownNow();
+            for (SAT4JSolutionSolver solver : solvers) {
+                if (solver != null) {
+                    releaseSolver(dependencyList, solver);
                 }
             }
         }
-        return solver.createResult(result);
+    }
+
+    private interface ParallelTask {
+        void run(SAT4JSolutionSolver solver, int partition);
+    }
+
+    private static void runInParallel(
+            ExecutorService threadPool, SAT4JSolutionSolver[] solvers, ParallelTask task) {
+        final List<Future<?>> futures = new ArrayList<>(solvers.length);
+        for (int i = 0; i < solvers.length; i++) {
+            final int partition = i;
+            futures.add(threadPool.submit(() -> task.run(solvers[partition], partition)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static boolean isEquivalent(
+            SAT4JSolutionSolver solver, int[] assignment, int varX, int varY, List<int[]> groupModels) {
+        final Result<Boolean> hasSolution1 = solver.hasSolution(concat(assignment, varX, -varY));
+        if (!hasSolution1.valueEquals(Boolean.FALSE)) {
+            if (hasSolution1.valueEquals(Boolean.TRUE)) {
+                groupModels.add(solver.getSolution().get());
+            }
+            return false;
+        }
+        final Result<Boolean> hasSolution2 = solver.hasSolution(concat(assignment, -varX, varY));
+        if (!hasSolution2.valueEquals(Boolean.FALSE)) {
+            if (hasSolution2.valueEquals(Boolean.TRUE)) {
+                groupModels.add(solver.getSolution().get());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static void addModel(List<int[]> models, int[] model) {
+        if (models.size() < MODEL_LIMIT) {
+            models.add(Arrays.copyOf(model, model.length));
+        }
+    }
+
+    private static BitSet getSignature(List<int[]> models, int[] model1, int variableIndex) {
+        final BitSet signature = new BitSet(models.size());
+        for (int k = 0; k < models.size(); k++) {
+            if (models.get(k)[variableIndex] == model1[variableIndex]) {
+                signature.set(k);
+            }
+        }
+        return signature;
+    }
+
+    private static int[] concat(int[] assignment, int... literals) {
+        final int[] assumptions = Arrays.copyOf(assignment, assignment.length + literals.length);
+        System.arraycopy(literals, 0, assumptions, assignment.length, literals.length);
+        return assumptions;
+    }
+
+    private static int[] toArray(VecInt literals) {
+        final int[] array = new int[literals.size()];
+        literals.copyTo(array);
+        return array;
+    }
+
+    private static int find(AtomicIntegerArray parents, int i) {
+        while (true) {
+            final int parent = parents.get(i);
+            if (parent == i) {
+                return i;
+            }
+            final int grandParent = parents.get(parent);
+            if (parent != grandParent) {
+                parents.compareAndSet(i, parent, grandParent);
+            }
+            i = parent;
+        }
+    }
+
+    /**
+     * Merges the sets of two variables. The smaller index always becomes the
+     * root, such that the representative of each set is deterministic.
+     */
+    private static void union(AtomicIntegerArray parents, int i, int j) {
+        while (true) {
+            int rootI = find(parents, i);
+            int rootJ = find(parents, j);
+            if (rootI == rootJ) {
+                return;
+            }
+            if (rootI < rootJ) {
+                final int temp = rootI;
+                rootI = rootJ;
+                rootJ = temp;
+            }
+            if (parents.compareAndSet(rootI, rootI, rootJ)) {
+                return;
+            }
+        }
     }
 }
@@ -55,17 +55,21 @@ public class ComputeContradictingClauses extends ASAT4JAnalysis.Solution<Boolean
         SAT4JSolutionSolver solver = initializeSolver(dependencyList, true);
         final ArrayList<BooleanClause> result = new ArrayList<>();
 
-        for (BooleanClause clause : clauseList) {
-            checkCancel();
+        try {
+            for (BooleanClause clause : clauseList) {
+                checkCancel();
 
-            solver.getClauseList().add(clause);
-            if (solver.isTrivialContradictionFound()) {
-                solver.getClauseList().remove();
-                result.add(clause);
-            } else if (solver.hasSolution().valueEquals(Boolean.FALSE)) {
-                solver.getClauseList().remove();
-                result.add(clause);
+                solver.getClauseList().add(clause);
+                if (solver.isTrivialContradictionFound()) {
+                    solver.getClauseList().remove();
+                    result.add(clause);
+                } else if (solver.hasSolution().valueEquals(Boolean.FALSE)) {
+                    solver.getClauseList().remove();
+                    result.add(clause);
+                }
             }
+        } finally {
+            releaseSolver(dependencyList, solver);
         }
 
         return Result.of(new BooleanClauseList(result, clauseList.size()));
@@ -28,8 +28,14 @@ import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Finds core and dead features.
@@ -39,9 +45,10 @@ import java.util.Random;
 public class ComputeCoreSAT4J extends ASAT4JAnalysis.Solution<BooleanAssignment> {
     protected static final Dependency<BooleanAssignment> VARIABLES_OF_INTEREST =
             Dependency.newDependency(BooleanAssignment.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
 
     public ComputeCoreSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()));
+        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()), Computations.of(1));
     }
 
     protected ComputeCoreSAT4J(ComputeCoreSAT4J other) {
@@ -51,51 +58,153 @@ public class ComputeCoreSAT4J extends ASAT4JAnalysis.Solution<BooleanAssignment>
     @Override
     public Result<BooleanAssignment> compute(List<Object> dependencyList, Progress progress) {
         SAT4JSolutionSolver solver = initializeSolver(dependencyList);
-        Random random = new Random(RANDOM_SEED.get(dependencyList));
-        ABooleanAssignment variablesOfInterest = VARIABLES_OF_INTEREST.get(dependencyList);
-        final int initialAssignmentLength = solver.getAssignment().size();
-        solver.setSelectionStrategy(ISelectionStrategy.positive()); // TODO: fails for berkeley db
-        Result<BooleanSolution> solution = solver.findSolution();
-        if (solution.isEmpty()) return Result.empty();
-        int[] model1 = solution.get().get();
+        try {
+            Random random = new Random(RANDOM_SEED.get(dependencyList));
+            ABooleanAssignment variablesOfInterest = VARIABLES_OF_INTEREST.get(dependencyList);
+            final int initialAssignmentLength = solver.getAssignment().mark();
+            solver.setSelectionStrategy(ISelectionStrategy.positive()); // TODO: fails for berkeley db
+            Result<BooleanSolution> solution = solver.findSolution();
+            if (solution.isEmpty()) return Result.empty();
+            int[] model1 = solution.get().get();
 
-        if (model1 != null) {
-            solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
+            if (model1 != null) {
+                solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
 
-            if (!variablesOfInterest.isEmpty()) {
-                final int[] model3 = new int[model1.length];
-                for (int i = 0; i < variablesOfInterest.get().length; i++) {
-                    final int index = variablesOfInterest.get()[i] - 1;
-                    if (index >= 0) {
-                        model3[index] = model1[index];
+                if (!variablesOfInterest.isEmpty()) {
+                    final int[] model3 = new int[model1.length];
+                    for (int i = 0; i < variablesOfInterest.get().length; i++) {
+                        final int index = variablesOfInterest.get()[i] - 1;
+                        if (index >= 0) {
+                            model3[index] = model1[index];
+                        }
+                    }
+                    model1 = model3;
+                }
+
+                for (int i = 0; i < initialAssignmentLength; i++) {
+                    model1[Math.abs(solver.getAssignment().peek(i)) - 1] = 0;
+                }
+
+                final int threadCount = THREAD_COUNT.get(dependencyList);
+                if (threadCount > 1) {
+                    final int[] core = computeInParallel(dependencyList, model1, threadCount);
+                    for (int i = 0; i < core.length; i++) {
+                        if (core[i] != 0) {
+                            solver.getAssignment().add(core[i]);
+                        }
+                    }
+                    return solver.createResult(solver.getAssignment().toAssignment());
+                }
+
+                final int[] modelBuffer = new int[model1.length];
+                for (int i = 0; i < model1.length; i++) {
+                    final int varX = model1[i];
+                    if (varX != 0) {
+                        checkCancel();
+                        solver.getAssignment().add(-varX);
+                        Result<Boolean> hasSolution = solver.hasSolution();
+                        if (hasSolution.valueEquals(false)) {
+                            solver.getAssignment().replaceLast(varX);
+                        } else if (hasSolution.isEmpty()) {
+                            solver.getAssignment().remove();
+                        } else if (hasSolution.valueEquals(true)) {
+                            solver.getAssignment().remove();
+                            BooleanSolution.removeConflictsInplace(model1, solver.fillSolution(modelBuffer));
+                            solver.shuffleOrder(random);
+                        }
                     }
                 }
-                model1 = model3;
             }
 
-            for (int i = 0; i < initialAssignmentLength; i++) {
-                model1[Math.abs(solver.getAssignment().peek(i)) - 1] = 0;
+            return solver.createResult(solver.getAssignment().toAssignment());
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+    }
+
+    /**
+     * Tests all candidate literals of the given model with multiple solvers. Each
+     * worker tests the candidates of its own partition. Models found by any worker
+     * are published to a shared bit set of remaining candidates, such that all
+     * workers can skip candidates that are already known to be non-core. As every
+     * remaining candidate is tested exactly, the result does not depend on the
+     * thread schedule.
+     *
+     * @param dependencyList the dependency list
+     * @param model1         a model of the formula, in which all variables that
+     *                       are not of interest are set to zero
+     * @param threadCount    the number of workers
+     * @return an array containing the core literal for each core variable and zero
+     *         otherwise
+     */
+    private int[] computeInParallel(List<Object> dependencyList, int[] model1, int threadCount) {
+        final AtomicLongArray candidates = new AtomicLongArray((model1.length + 63) >>> 6);
+        for (int i = 0; i < model1.length; i++) {
+            if (model1[i] != 0) {
+                candidates.getAndAccumulate(i >>> 6, 1L << i, (a, b) -> a | b);
             }
+        }
+        final int[] core = new int[model1.length];
+        final long seed = RANDOM_SEED.get(dependencyList);
 
-            for (int i = 0; i < model1.length; i++) {
-                final int varX = model1[i];
-                if (varX != 0) {
-                    checkCancel();
-                    solver.getAssignment().add(-varX);
-                    Result<Boolean> hasSolution = solver.hasSolution();
-                    if (hasSolution.valueEquals(false)) {
-                        solver.getAssignment().replaceLast(varX);
-                    } else if (hasSolution.isEmpty()) {
-                        solver.getAssignment().remove();
-                    } else if (hasSolution.valueEquals(true)) {
-                        solver.getAssignment().remove();
-                        BooleanSolution.removeConflictsInplace(model1, solver.getInternalSolution());
-                        solver.shuffleOrder(random);
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(threadCount);
+            for (int t = 0; t < threadCount; t++) {
+                final int partition = t;
+                futures.add(threadPool.submit(() -> {
+                    final SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+                    try {
+                        final Random random = new Random(seed + partition);
+                        final int[] modelBuffer = new int[model1.length];
+                        solver.setSelectionStrategy(ISelectionStrategy.inverse(model1));
+                        for (int i = partition; i < model1.length; i += threadCount) {
+                            if ((candidates.get(i >>> 6) & (1L << i)) == 0) {
+                                continue;
+                            }
+                            checkCancel();
+                            final int varX = model1[i];
+                            solver.getAssignment().add(-varX);
+                            Result<Boolean> hasSolution = solver.hasSolution();
+                            if (hasSolution.valueEquals(false)) {
+                                solver.getAssignment().replaceLast(varX);
+                                core[i] = varX;
+                            } else if (hasSolution.isEmpty()) {
+                                solver.getAssignment().remove();
+                            } else if (hasSolution.valueEquals(true)) {
+                                solver.getAssignment().remove();
+                                removeCandidates(candidates, model1, solver.fillSolution(modelBuffer));
+                                solver.shuffleOrder(random);
+                            }
+                        }
+                    } finally {
+                        releaseSolver(dependencyList, solver);
                     }
-                }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            threadPool.shutdownNow();
         }
+        return core;
+    }
 
-        return solver.createResult(solver.getAssignment().toAssignment());
+    private static void removeCandidates(AtomicLongArray candidates, int[] model1, int[] model) {
+        for (int i = 0; i < model1.length; i++) {
+            if (model1[i] != 0 && model[i] != model1[i]) {
+                final long mask = ~(1L << i);
+                candidates.getAndAccumulate(i >>> 6, mask, (a, b) -> a & b);
+            }
+        }
     }
 }
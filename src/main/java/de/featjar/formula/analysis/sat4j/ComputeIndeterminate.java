@@ -21,6 +21,7 @@
 package de.featjar.formula.analysis.sat4j;
 
 import de.featjar.base.computation.ComputeConstant;
+import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
@@ -30,12 +31,26 @@ import de.featjar.formula.analysis.bool.ABooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.ClauseExchange;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.IntStream;
 
 /**
- * Finds indeterminate features.
+ * Finds indeterminate features. A variable is indeterminate if the formula
+ * remains satisfiable after removing the variable from all clauses. Instead of
+ * building a new formula for each variable, all modified clauses are added to a
+ * single solver, guarded by a selector variable per variable of interest, which
+ * is then enabled via an assumption. Models found for one variable are reused to
+ * decide other variables. If {@link #THREAD_COUNT} is greater than
+ * one, the variables are distributed among multiple solvers.
  *
  * @author Sebastian Krieter
  */
@@ -43,9 +58,10 @@ public class ComputeIndeterminate extends ASAT4JAnalysis.Solution<BooleanAssignm
 
     protected static final Dependency<BooleanAssignment> VARIABLES_OF_INTEREST =
             Dependency.newDependency(BooleanAssignment.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
 
     public ComputeIndeterminate(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()));
+        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()), Computations.of(1));
     }
 
     protected ComputeIndeterminate(ComputeIndeterminate other) {
@@ -56,36 +72,115 @@ public class ComputeIndeterminate extends ASAT4JAnalysis.Solution<BooleanAssignm
     public Result<BooleanAssignment> compute(List<Object> dependencyList, Progress progress) {
         BooleanClauseList clauseList = BOOLEAN_CLAUSE_LIST.get(dependencyList);
         ABooleanAssignment variablesOfInterest = VARIABLES_OF_INTEREST.get(dependencyList);
+        int threadCount = THREAD_COUNT.get(dependencyList);
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(String.valueOf(threadCount));
+        }
 
-        ABooleanAssignment variables = variablesOfInterest.isEmpty()
-                ? new BooleanAssignment(
-                        IntStream.rangeClosed(1, clauseList.getVariableCount()).toArray())
-                : variablesOfInterest;
+        int[] variables = variablesOfInterest.isEmpty()
+                ? IntStream.rangeClosed(1, clauseList.getVariableCount()).toArray()
+                : variablesOfInterest.get();
 
-        final ExpandableIntegerList resultList = new ExpandableIntegerList();
+        final int variableCount = clauseList.getVariableCount();
+        final BooleanClauseList selectorClauseList = new BooleanClauseList(variableCount + variables.length);
+        selectorClauseList.addAll(clauseList.getAll());
+
+        final ExpandableIntegerList candidates = new ExpandableIntegerList();
+        final int[] selectors = new int[variables.length];
         variableLoop:
-        for (final int variable : variables.get()) {
-            BooleanClauseList modClauseList = new BooleanClauseList(clauseList.getVariableCount());
+        for (int i = 0; i < variables.length; i++) {
+            final int variable = variables[i];
+            final int selector = variableCount + i + 1;
+            final List<BooleanClause> selectorClauses = new ArrayList<>();
             for (final BooleanClause clause : clauseList.getAll()) {
-                final int[] newLiterals = clause.removeAllVariables(variable);
-                if (newLiterals.length > 0) {
-                    modClauseList.add(new BooleanClause(newLiterals));
-                } else {
-                    continue variableLoop;
+                if (clause.containsAnyVariable(variable)) {
+                    final int[] newLiterals = clause.removeAllVariables(variable);
+                    if (newLiterals.length > 0) {
+                        final int[] guardedLiterals = Arrays.copyOf(newLiterals, newLiterals.length + 1);
+                        guardedLiterals[newLiterals.length] = -selector;
+                        selectorClauses.add(new BooleanClause(guardedLiterals));
+                    } else {
+                        continue variableLoop;
+                    }
                 }
             }
-            final SAT4JSolutionSolver modSolver = new SAT4JSolutionSolver(modClauseList);
+            selectorClauseList.addAll(selectorClauses);
+            selectors[candidates.size()] = selector;
+            candidates.add(variable);
+        }
 
-            final Result<Boolean> hasSolution = modSolver.hasSolution();
-            if (hasSolution.valueEquals(Boolean.FALSE)) {
-            } else if (hasSolution.isEmpty()) {
-                // reportTimeout();
-            } else if (hasSolution.valueEquals(Boolean.TRUE)) {
-                resultList.add(variable);
-            } else {
-                throw new AssertionError(hasSolution);
+        progress.setTotalSteps(candidates.size());
+        final boolean[] indeterminate = new boolean[candidates.size()];
+        if (threadCount == 1 || candidates.size() < 2) {
+            checkVariables(dependencyList, selectorClauseList, null, selectors, indeterminate, 0, 1, progress);
+        } else {
+            final int partitionCount = Math.min(threadCount, candidates.size());
+            final ClauseExchange clauseExchange = new ClauseExchange();
+            final ExecutorService threadPool = Executors.newFixedThreadPool(partitionCount);
+            try {
+                final List<Future<?>> futures = new ArrayList<>(partitionCount);
+                for (int i = 0; i < partitionCount; i++) {
+                    final int partition = i;
+                    futures.add(threadPool.submit(() -> checkVariables(
+                            dependencyList,
+                            selectorClauseList,
+                            clauseExchange,
+                            selectors,
+                            indeterminate,
+                            partition,
+                            partitionCount,
+                            progress)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.empty(e);
+            } catch (ExecutionException e) {
+                return Result.empty(e.getCause());
+            } finally {
+                threadPool.shutdownNow();
+            }
+        }
+
+        final int[] candidateVariables = candidates.toArray();
+        final ExpandableIntegerList resultList = new ExpandableIntegerList();
+        for (int i = 0; i < indeterminate.length; i++) {
+            if (indeterminate[i]) {
+                resultList.add(candidateVariables[i]);
             }
         }
         return Result.of(new BooleanAssignment(resultList.toIntStream().toArray()));
     }
+
+    private void checkVariables(
+            List<Object> dependencyList,
+            BooleanClauseList selectorClauseList,
+            ClauseExchange clauseExchange,
+            int[] selectors,
+            boolean[] indeterminate,
+            int partition,
+            int partitionCount,
+            Progress progress) {
+        final SAT4JSolutionSolver solver = newSolver(selectorClauseList);
+        solver.setTimeout(SAT_TIMEOUT.get(dependencyList));
+        if (clauseExchange != null) {
+            solver.setClauseExchange(clauseExchange);
+        }
+        final List<int[]> queries = new ArrayList<>();
+        for (int i = partition; i < indeterminate.length; i += partitionCount) {
+            queries.add(new int[] {selectors[i]});
+        }
+        checkCancel();
+        final byte[] results = solver.hasSolutions(queries, true);
+        for (int i = partition, j = 0; i < indeterminate.length; i += partitionCount, j++) {
+            indeterminate[i] = results[j] == SAT4JSolver.SATISFIABLE;
+        }
+        synchronized (progress) {
+            for (int i = 0; i < results.length; i++) {
+                progress.incrementCurrentStep();
+            }
+        }
+    }
 }
@@ -20,11 +20,14 @@
  */
 package de.featjar.formula.analysis.sat4j;
 
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JPortfolioSolver;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
 import java.util.ArrayList;
 import java.util.List;
@@ -35,14 +38,16 @@ import java.util.List;
  * is implied by the current formula, it is marked as redundant and is removed
  * from it. Otherwise it is kept as part of the formula for the
  * remaining analysis. Clauses are added in the same order a they appear in the
- * given clauses list.
+ * given clauses list. If {@link #PORTFOLIO_SIZE} is greater than one, each
+ * check is decided by a {@link SAT4JPortfolioSolver}.
  *
  * @author Sebastian Krieter
  */
 public class ComputeRedundantClauses extends ASAT4JAnalysis.Solution<BooleanClauseList> {
+    public static final Dependency<Integer> PORTFOLIO_SIZE = Dependency.newDependency(Integer.class);
 
     public ComputeRedundantClauses(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList);
+        super(booleanClauseList, Computations.of(1));
     }
 
     protected ComputeRedundantClauses(ComputeRedundantClauses other) {
@@ -52,22 +57,57 @@ public class ComputeRedundantClauses extends ASAT4JAnalysis.Solution<BooleanClau
     @Override
     public Result<BooleanClauseList> compute(List<Object> dependencyList, Progress progress) {
         BooleanClauseList clauseList = BOOLEAN_CLAUSE_LIST.get(dependencyList);
+        int portfolioSize = PORTFOLIO_SIZE.get(dependencyList);
+        if (portfolioSize > 1) {
+            return computeWithPortfolio(dependencyList, clauseList, portfolioSize);
+        }
         SAT4JSolutionSolver solver = initializeSolver(dependencyList, true);
         final ArrayList<BooleanClause> result = new ArrayList<>();
 
-        for (BooleanClause clause : clauseList) {
-            checkCancel();
+        try {
+            for (BooleanClause clause : clauseList) {
+                checkCancel();
+
+                final int group = solver.getClauseList().newGroup();
+                solver.getClauseList().addToGroup(group, clause.inverse().get());
+                final boolean redundant = solver.hasSolution().valueEquals(Boolean.FALSE);
+                solver.getClauseList().retractGroup(group);
+                if (redundant) {
+                    result.add(clause);
+                } else {
+                    solver.getClauseList().add(clause);
+                }
+            }
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+
+        return Result.of(new BooleanClauseList(result, clauseList.size()));
+    }
+
+    private Result<BooleanClauseList> computeWithPortfolio(
+            List<Object> dependencyList, BooleanClauseList clauseList, int portfolioSize) {
+        final int[] assumptions = ASSUMED_ASSIGNMENT.get(dependencyList).get();
+        final ArrayList<BooleanClause> result = new ArrayList<>();
+        try (SAT4JPortfolioSolver solver = new SAT4JPortfolioSolver(
+                new BooleanClauseList(clauseList.getVariableCount()),
+                portfolioSize,
+                RANDOM_SEED.get(dependencyList))) {
+            solver.addClauses(ASSUMED_CLAUSE_LIST.get(dependencyList).getAll());
+            solver.setTimeout(SAT_TIMEOUT.get(dependencyList));
+
+            for (BooleanClause clause : clauseList) {
+                checkCancel();
 
-            solver.getClauseList().add(clause.inverse());
-            if (solver.isTrivialContradictionFound()) {
-                solver.getClauseList().remove();
-                result.add(clause);
-            } else if (solver.hasSolution().valueEquals(Boolean.FALSE)) {
-                solver.getClauseList().remove();
-                result.add(clause);
-            } else {
-                solver.getClauseList().remove();
-                solver.getClauseList().add(clause);
+                final int group = solver.newGroup();
+                solver.addToGroup(group, clause.inverse().get());
+                final boolean redundant = solver.hasSolution(assumptions).valueEquals(Boolean.FALSE);
+                solver.retractGroup(group);
+                if (redundant) {
+                    result.add(clause);
+                } else {
+                    solver.addClause(clause);
+                }
             }
         }
 
@@ -24,6 +24,7 @@ import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
 import java.util.List;
 
 public class ComputeSatisfiableSAT4J extends ASAT4JAnalysis.Solution<Boolean> {
@@ -38,6 +39,11 @@ public class ComputeSatisfiableSAT4J extends ASAT4JAnalysis.Solution<Boolean> {
 
     @Override
     public Result<Boolean> compute(List<Object> dependencyList, Progress progress) {
-        return initializeSolver(dependencyList).hasSolution();
+        SAT4JSolver solver = initializeSolver(dependencyList);
+        try {
+            return solver.hasSolution();
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
     }
 }
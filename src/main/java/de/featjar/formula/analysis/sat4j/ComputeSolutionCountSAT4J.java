@@ -20,18 +20,47 @@
  */
 package de.featjar.formula.analysis.sat4j;
 
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
-import de.featjar.formula.analysis.bool.BooleanSolution;
-import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
+import de.featjar.formula.analysis.sat4j.counting.ComponentCounter;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator.BlockingStrategy;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Counts solutions. By default, the solutions are counted exactly by a
+ * {@link ComponentCounter}, which does not enumerate them. If {@link #ENUMERATE}
+ * is set or {@link BlockingStrategy#PROJECTION} is used, the solutions are
+ * enumerated instead. With {@link BlockingStrategy#PROJECTION}, the number of
+ * distinct solutions projected onto the {@link #PROJECTION} variables is
+ * counted. With {@link BlockingStrategy#DECISIONS}, the count is equal to
+ * {@link BlockingStrategy#FULL}, but the blocking clauses are shorter.
+ *
+ * @author Sebastian Krieter
+ */
 public class ComputeSolutionCountSAT4J extends ASAT4JAnalysis.Solution<BigInteger> {
+    public static final Dependency<BlockingStrategy> BLOCKING_STRATEGY =
+            Dependency.newDependency(BlockingStrategy.class);
+    public static final Dependency<BooleanAssignment> PROJECTION = Dependency.newDependency(BooleanAssignment.class);
+    public static final Dependency<Boolean> ENUMERATE = Dependency.newDependency(Boolean.class);
+    public static final Dependency<Long> CACHE_MEMORY_LIMIT = Dependency.newDependency(Long.class);
+
     public ComputeSolutionCountSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList);
+        super(
+                booleanClauseList,
+                Computations.of(BlockingStrategy.FULL),
+                Computations.of(new BooleanAssignment()),
+                Computations.of(Boolean.FALSE),
+                Computations.of(ComponentCounter.DEFAULT_CACHE_MEMORY_LIMIT));
     }
 
     protected ComputeSolutionCountSAT4J(ComputeSolutionCountSAT4J other) {
@@ -40,16 +69,27 @@ public class ComputeSolutionCountSAT4J extends ASAT4JAnalysis.Solution<BigIntege
 
     @Override
     public Result<BigInteger> compute(List<Object> dependencyList, Progress progress) {
-        SAT4JSolver solver = initializeSolver(dependencyList);
-        BigInteger solutionCount = BigInteger.ZERO;
-        Result<Boolean> hasSolution = solver.hasSolution();
-        while (hasSolution.equals(Result.of(true))) {
-            solutionCount = solutionCount.add(BigInteger.ONE);
-            progress.incrementCurrentStep();
-            BooleanSolution solution = solver.getSolution();
-            solver.getClauseList().add(solution.toClause().negate());
-            hasSolution = solver.hasSolution();
+        if (!ENUMERATE.get(dependencyList) && BLOCKING_STRATEGY.get(dependencyList) != BlockingStrategy.PROJECTION) {
+            return countExactly(dependencyList);
         }
-        return solver.createResult(solutionCount, "result is a lower bound");
+        SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+        try {
+            SAT4JSolutionSpliterator spliterator = new SAT4JSolutionSpliterator(solver, Long.MAX_VALUE, true);
+            spliterator.setBlockingStrategy(
+                    BLOCKING_STRATEGY.get(dependencyList), PROJECTION.get(dependencyList).get());
+            spliterator.forEachRemaining(solution -> progress.incrementCurrentStep());
+            return solver.createResult(BigInteger.valueOf(spliterator.getCount()), "result is a lower bound");
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+    }
+
+    private Result<BigInteger> countExactly(List<Object> dependencyList) {
+        BooleanClauseList clauseList = BOOLEAN_CLAUSE_LIST.get(dependencyList);
+        List<BooleanClause> clauses = new ArrayList<>(clauseList.getAll());
+        clauses.addAll(ASSUMED_CLAUSE_LIST.get(dependencyList).getAll());
+        ComponentCounter counter = new ComponentCounter(new BooleanClauseList(clauses, clauseList.getVariableCount()));
+        counter.setCacheMemoryLimit(CACHE_MEMORY_LIMIT.get(dependencyList));
+        return counter.count(SAT_TIMEOUT.get(dependencyList), ASSUMED_ASSIGNMENT.get(dependencyList).get());
     }
 }
@@ -25,6 +25,7 @@ import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
 import java.util.List;
 
 public class ComputeSolutionSAT4J extends ASAT4JAnalysis.Solution<BooleanSolution> {
@@ -40,6 +41,11 @@ public class ComputeSolutionSAT4J extends ASAT4JAnalysis.Solution<BooleanSolutio
 
     @Override
     public Result<BooleanSolution> compute(List<Object> dependencyList, Progress progress) {
-        return initializeSolver(dependencyList).findSolution();
+        SAT4JSolver solver = initializeSolver(dependencyList);
+        try {
+            return solver.findSolution();
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSource;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator.BlockingStrategy;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Enumerates solutions lazily. In contrast to {@link ComputeSolutionsSAT4J},
+ * the result is a {@link SAT4JSolutionSource}, whose spliterators compute each
+ * solution only when it is requested by their consumer. Each spliterator
+ * initializes its own solver, which is released when the spliterator is
+ * exhausted or closed. Thus, the result holds no enumeration state and can be
+ * traversed repeatedly.
+ */
+public class ComputeSolutionStreamSAT4J extends ASAT4JAnalysis.Solution<SAT4JSolutionSource> {
+    public static final Dependency<ISelectionStrategy.Strategy> SELECTION_STRATEGY =
+            Dependency.newDependency(ISelectionStrategy.Strategy.class);
+    public static final Dependency<Long> LIMIT = Dependency.newDependency(Long.class);
+    public static final Dependency<Boolean> FORBID_DUPLICATES = Dependency.newDependency(Boolean.class);
+    public static final Dependency<BlockingStrategy> BLOCKING_STRATEGY =
+            Dependency.newDependency(BlockingStrategy.class);
+    public static final Dependency<BooleanAssignment> PROJECTION = Dependency.newDependency(BooleanAssignment.class);
+
+    public ComputeSolutionStreamSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
+        super(
+                booleanClauseList,
+                Computations.of(ISelectionStrategy.Strategy.ORIGINAL),
+                Computations.of(Long.MAX_VALUE),
+                Computations.of(true),
+                Computations.of(BlockingStrategy.FULL),
+                Computations.of(new BooleanAssignment()));
+    }
+
+    protected ComputeSolutionStreamSAT4J(ComputeSolutionStreamSAT4J other) {
+        super(other);
+    }
+
+    @Override
+    public Result<SAT4JSolutionSource> compute(List<Object> dependencyList, Progress progress) {
+        return Result.of(new SAT4JSolutionSource(() -> newSpliterator(dependencyList)));
+    }
+
+    private SAT4JSolutionSpliterator newSpliterator(List<Object> dependencyList) {
+        SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+        Random random = ComputeSolutionsSAT4J.setSelectionStrategy(
+                solver, SELECTION_STRATEGY.get(dependencyList), RANDOM_SEED.get(dependencyList));
+        SAT4JSolutionSpliterator spliterator = new SAT4JSolutionSpliterator(
+                solver,
+                LIMIT.get(dependencyList),
+                FORBID_DUPLICATES.get(dependencyList),
+                random,
+                () -> releaseSolver(dependencyList, solver));
+        spliterator.setBlockingStrategy(
+                BLOCKING_STRATEGY.get(dependencyList), PROJECTION.get(dependencyList).get());
+        return spliterator;
+    }
+}
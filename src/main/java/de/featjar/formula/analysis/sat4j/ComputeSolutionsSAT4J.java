@@ -25,12 +25,15 @@ import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
 import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.bool.BooleanSolutionList;
 import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
 import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy.Strategy;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator.BlockingStrategy;
 import java.util.List;
 import java.util.Random;
 
@@ -39,13 +42,18 @@ public class ComputeSolutionsSAT4J extends ASAT4JAnalysis.Solution<BooleanSoluti
             Dependency.newDependency(ISelectionStrategy.Strategy.class);
     public static final Dependency<Integer> LIMIT = Dependency.newDependency(Integer.class);
     public static final Dependency<Boolean> FORBID_DUPLICATES = Dependency.newDependency(Boolean.class);
+    public static final Dependency<BlockingStrategy> BLOCKING_STRATEGY =
+            Dependency.newDependency(BlockingStrategy.class);
+    public static final Dependency<BooleanAssignment> PROJECTION = Dependency.newDependency(BooleanAssignment.class);
 
     public ComputeSolutionsSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
         super(
                 booleanClauseList,
                 Computations.of(ISelectionStrategy.Strategy.ORIGINAL),
                 Computations.of(Integer.MAX_VALUE),
-                Computations.of(true));
+                Computations.of(true),
+                Computations.of(BlockingStrategy.FULL),
+                Computations.of(new BooleanAssignment()));
     }
 
     protected ComputeSolutionsSAT4J(ComputeSolutionsSAT4J other) {
@@ -55,40 +63,48 @@ public class ComputeSolutionsSAT4J extends ASAT4JAnalysis.Solution<BooleanSoluti
     @Override
     public Result<BooleanSolutionList> compute(List<Object> dependencyList, Progress progress) {
         SAT4JSolutionSolver solver = (SAT4JSolutionSolver) initializeSolver(dependencyList);
-        int limit = LIMIT.get(dependencyList);
-        boolean forbid = FORBID_DUPLICATES.get(dependencyList);
-        final Strategy strategy = SELECTION_STRATEGY.get(dependencyList);
-        Random random = null;
+        try {
+            int limit = LIMIT.get(dependencyList);
+            boolean forbid = FORBID_DUPLICATES.get(dependencyList);
+            Random random = setSelectionStrategy(
+                    solver, SELECTION_STRATEGY.get(dependencyList), RANDOM_SEED.get(dependencyList));
+            BooleanSolutionList solutionList = new BooleanSolutionList();
+            SAT4JSolutionSpliterator spliterator =
+                    new SAT4JSolutionSpliterator(solver, limit, forbid, random, () -> {});
+            spliterator.setBlockingStrategy(
+                    BLOCKING_STRATEGY.get(dependencyList), PROJECTION.get(dependencyList).get());
+            spliterator.forEachRemaining(solutionList::add);
+            return solver.createResult(solutionList, "result is a subset");
+        } finally {
+            releaseSolver(dependencyList, solver);
+        }
+    }
+
+    /**
+     * Sets the selection strategy of a solver for enumerating solutions.
+     *
+     * @param solver     the solver
+     * @param strategy   the strategy
+     * @param randomSeed the seed for random strategies
+     * @return the generator used for shuffling the variable order after each
+     *         solution or {@code null}, if the order should not be shuffled
+     */
+    static Random setSelectionStrategy(SAT4JSolutionSolver solver, Strategy strategy, long randomSeed) {
         switch (strategy) {
             case FAST_RANDOM:
-                random = new Random(RANDOM_SEED.get(dependencyList));
+                Random random = new Random(randomSeed);
                 solver.setSelectionStrategy(ISelectionStrategy.random(random));
-                break;
+                return random;
             case NEGATIVE:
                 solver.setSelectionStrategy(ISelectionStrategy.negative());
-                break;
+                return null;
             case ORIGINAL:
-                break;
+                return null;
             case POSITIVE:
                 solver.setSelectionStrategy(ISelectionStrategy.positive());
-                break;
+                return null;
             default:
-                break;
-        }
-        BooleanSolutionList solutionList = new BooleanSolutionList();
-        while (solutionList.size() < limit) {
-            Result<BooleanSolution> solution = solver.findSolution();
-            if (solution.isEmpty()) {
-                break;
-            }
-            solutionList.add(solution.get());
-            if (forbid) {
-                solver.getClauseList().add(solution.get().toClause().inverse());
-            }
-            if (strategy == Strategy.FAST_RANDOM) {
-                solver.shuffleOrder(random);
-            }
+                return null;
         }
-        return solver.createResult(solutionList, "result is a subset");
     }
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.Dependency;
+import de.featjar.base.computation.IComputation;
+import de.featjar.base.computation.Progress;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import de.featjar.formula.analysis.sat4j.counting.ComponentCounter;
+import de.featjar.formula.analysis.sat4j.counting.DecisionDNNF;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Samples solutions uniformly at random. The formula is compiled once into a
+ * {@link DecisionDNNF}, from which all solutions are drawn without further
+ * solver calls. Solutions are drawn independently of each other, so the
+ * sample may contain duplicates. The sample is empty if the formula has no
+ * solution.
+ */
+public class ComputeUniformSolutionsSAT4J extends ASAT4JAnalysis.Solution<BooleanSolutionList> {
+    public static final Dependency<Integer> LIMIT = Dependency.newDependency(Integer.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
+    public static final Dependency<Long> CACHE_MEMORY_LIMIT = Dependency.newDependency(Long.class);
+
+    public ComputeUniformSolutionsSAT4J(IComputation<BooleanClauseList> booleanClauseList) {
+        super(
+                booleanClauseList,
+                Computations.of(1000),
+                Computations.of(1),
+                Computations.of(ComponentCounter.DEFAULT_CACHE_MEMORY_LIMIT));
+    }
+
+    protected ComputeUniformSolutionsSAT4J(ComputeUniformSolutionsSAT4J other) {
+        super(other);
+    }
+
+    @Override
+    public Result<BooleanSolutionList> compute(List<Object> dependencyList, Progress progress) {
+        BooleanClauseList clauseList = BOOLEAN_CLAUSE_LIST.get(dependencyList);
+        List<BooleanClause> clauses = new ArrayList<>(clauseList.getAll());
+        clauses.addAll(ASSUMED_CLAUSE_LIST.get(dependencyList).getAll());
+        ComponentCounter counter = new ComponentCounter(new BooleanClauseList(clauses, clauseList.getVariableCount()));
+        counter.setCacheMemoryLimit(CACHE_MEMORY_LIMIT.get(dependencyList));
+        Random random = new Random(RANDOM_SEED.get(dependencyList));
+        return counter.compile(SAT_TIMEOUT.get(dependencyList), ASSUMED_ASSIGNMENT.get(dependencyList).get())
+                .map(dnnf -> dnnf.sample(LIMIT.get(dependencyList), random, THREAD_COUNT.get(dependencyList)));
+    }
+}
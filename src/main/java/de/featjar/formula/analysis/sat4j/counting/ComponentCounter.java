@@ -0,0 +1,552 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.counting;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.ISolver;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the solutions of a CNF exactly. The counter is a DPLL search that
+ * splits the remaining formula into independent components after each
+ * decision. The counts of independent components are multiplied and the count
+ * of each component is cached, so components that occur repeatedly in the
+ * search tree are counted only once. The cache evicts the least recently used
+ * components when its estimated memory consumption exceeds a limit. The
+ * search tree can also be {@link #compile(Duration, int...) compiled} into a
+ * {@link DecisionDNNF} for uniform sampling.
+ */
+public class ComponentCounter {
+
+    /**
+     * Default limit for the estimated memory consumption of the component cache
+     * in bytes.
+     */
+    public static final long DEFAULT_CACHE_MEMORY_LIMIT = 256L << 20;
+
+    private static final long ENTRY_OVERHEAD = 96;
+
+    private static final class TimeoutException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private TimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class ComponentKey {
+        private final int[] elements;
+        private final int hashCode;
+
+        private ComponentKey(int[] elements) {
+            this.elements = elements;
+            hashCode = Arrays.hashCode(elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ComponentKey && Arrays.equals(elements, ((ComponentKey) obj).elements);
+        }
+    }
+
+    private final int variableCount;
+    private final int[][] clauses;
+    private final int[][] occurrences;
+    private final boolean emptyClauseFound;
+
+    private final byte[] values;
+    private final int[] trueCounts;
+    private final int[] falseCounts;
+    private final int[] trail;
+    private int trailSize;
+
+    private final int[] variableStamps;
+    private final int[] clauseStamps;
+    private final int[] variableQueue;
+    private final int[] clauseQueue;
+    private int stamp;
+
+    private final LinkedHashMap<ComponentKey, Object> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheMemoryLimit = DEFAULT_CACHE_MEMORY_LIMIT;
+    private long cacheMemory;
+    private long deadline;
+    private boolean compiling;
+
+    /**
+     * Creates a new counter for the given clauses. Tautological clauses are
+     * ignored and duplicate literals are removed.
+     *
+     * @param clauseList the clauses
+     */
+    public ComponentCounter(BooleanClauseList clauseList) {
+        variableCount = clauseList.getVariableCount();
+        final List<int[]> clauseArrays = new ArrayList<>(clauseList.size());
+        boolean emptyClause = false;
+        for (final BooleanClause clause : clauseList.getAll()) {
+            final int[] literals = normalize(clause.get());
+            if (literals != null) {
+                emptyClause |= literals.length == 0;
+                clauseArrays.add(literals);
+            }
+        }
+        emptyClauseFound = emptyClause;
+        clauses = clauseArrays.toArray(new int[0][]);
+
+        final int[] occurrenceCounts = new int[2 * variableCount + 2];
+        for (final int[] clause : clauses) {
+            for (final int literal : clause) {
+                occurrenceCounts[index(literal)]++;
+            }
+        }
+        occurrences = new int[occurrenceCounts.length][];
+        for (int i = 0; i < occurrences.length; i++) {
+            occurrences[i] = new int[occurrenceCounts[i]];
+        }
+        Arrays.fill(occurrenceCounts, 0);
+        for (int i = 0; i < clauses.length; i++) {
+            for (final int literal : clauses[i]) {
+                final int index = index(literal);
+                occurrences[index][occurrenceCounts[index]++] = i;
+            }
+        }
+
+        values = new byte[variableCount + 1];
+        trueCounts = new int[clauses.length];
+        falseCounts = new int[clauses.length];
+        trail = new int[variableCount];
+        variableStamps = new int[variableCount + 1];
+        clauseStamps = new int[clauses.length];
+        variableQueue = new int[variableCount];
+        clauseQueue = new int[clauses.length];
+    }
+
+    private int[] normalize(int[] literals) {
+        final int[] sortedLiterals = Arrays.stream(literals).filter(l -> l != 0).sorted().toArray();
+        for (final int literal : sortedLiterals) {
+            if (Math.abs(literal) > variableCount) {
+                throw new IllegalArgumentException(String.valueOf(literal));
+            }
+            if (Arrays.binarySearch(sortedLiterals, -literal) >= 0) {
+                return null;
+            }
+        }
+        int size = 0;
+        for (int i = 0; i < sortedLiterals.length; i++) {
+            final int literal = sortedLiterals[i];
+            if (size == 0 || sortedLiterals[size - 1] != literal) {
+                sortedLiterals[size++] = literal;
+            }
+        }
+        return Arrays.copyOf(sortedLiterals, size);
+    }
+
+    private static int index(int literal) {
+        return literal > 0 ? literal << 1 : (-literal << 1) + 1;
+    }
+
+    public long getCacheMemoryLimit() {
+        return cacheMemoryLimit;
+    }
+
+    /**
+     * Sets the limit for the estimated memory consumption of the component
+     * cache. Least recently used components are evicted when the limit is
+     * exceeded.
+     *
+     * @param cacheMemoryLimit the limit in bytes
+     */
+    public void setCacheMemoryLimit(long cacheMemoryLimit) {
+        if (cacheMemoryLimit < 0) {
+            throw new IllegalArgumentException(String.valueOf(cacheMemoryLimit));
+        }
+        this.cacheMemoryLimit = cacheMemoryLimit;
+        evict();
+    }
+
+    /**
+     * Returns the number of components that are currently cached.
+     *
+     * @return the number of cached components
+     */
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Returns the estimated memory consumption of the component cache.
+     *
+     * @return the estimated memory consumption in bytes
+     */
+    public long getCacheMemory() {
+        return cacheMemory;
+    }
+
+    /**
+     * Counts the solutions that contain all given literals. Cached components
+     * are kept between calls.
+     *
+     * @param timeout     the maximum duration of the count, zero for no limit
+     * @param assumptions the assumed literals
+     * @return the number of solutions or an empty result, if the timeout
+     *         occurred
+     */
+    public Result<BigInteger> count(Duration timeout, int... assumptions) {
+        start(false, timeout);
+        try {
+            return Result.of(propagateRoot(assumptions) ? countComponents(getAllVariables()) : BigInteger.ZERO);
+        } catch (TimeoutException e) {
+            return Result.empty(ISolver.getTimeoutProblem(null));
+        } finally {
+            backtrack(0);
+        }
+    }
+
+    /**
+     * Compiles the solutions that contain all given literals into a
+     * {@link DecisionDNNF}. Compilation performs the same search as
+     * {@link #count(Duration, int...)}, but keeps the search tree. Components
+     * that are evicted from the cache are compiled again when they reoccur.
+     *
+     * @param timeout     the maximum duration of the compilation, zero for no
+     *                    limit
+     * @param assumptions the assumed literals
+     * @return the compiled formula or an empty result, if the timeout occurred
+     */
+    public Result<DecisionDNNF> compile(Duration timeout, int... assumptions) {
+        start(true, timeout);
+        try {
+            final DecisionDNNF.Branch root = propagateRoot(assumptions) ? compileBranch(getAllVariables(), 0) : null;
+            return Result.of(new DecisionDNNF(variableCount, root));
+        } catch (TimeoutException e) {
+            return Result.empty(ISolver.getTimeoutProblem(null));
+        } finally {
+            backtrack(0);
+        }
+    }
+
+    /**
+     * Clears the cache if it contains entries of the other search mode, as the
+     * counter caches numbers and the compiler caches decision nodes.
+     */
+    private void start(boolean compiling, Duration timeout) {
+        if (this.compiling != compiling) {
+            cache.clear();
+            cacheMemory = 0;
+            this.compiling = compiling;
+        }
+        deadline = timeout.isZero() ? 0 : System.nanoTime() + timeout.toNanos();
+    }
+
+    private boolean propagateRoot(int... assumptions) {
+        if (emptyClauseFound) {
+            return false;
+        }
+        for (final int assumption : assumptions) {
+            if (!assignAndPropagate(assumption)) {
+                return false;
+            }
+        }
+        for (final int[] clause : clauses) {
+            if (clause.length == 1 && !assignAndPropagate(clause[0])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int[] getAllVariables() {
+        final int[] variables = new int[variableCount];
+        for (int i = 0; i < variableCount; i++) {
+            variables[i] = i + 1;
+        }
+        return variables;
+    }
+
+    /**
+     * Splits the unassigned variables into independent components. Variables
+     * that occur in no unsatisfied clause are free.
+     *
+     * @param variables  the variables to split
+     * @param components receives the variables and clauses of each component
+     * @return the free variables
+     */
+    private int[] decompose(int[] variables, List<int[][]> components) {
+        final int currentStamp = ++stamp;
+        final int[] freeVariables = new int[variables.length];
+        int freeVariableCount = 0;
+        for (final int variable : variables) {
+            if (values[variable] != 0 || variableStamps[variable] == currentStamp) {
+                continue;
+            }
+            variableStamps[variable] = currentStamp;
+            variableQueue[0] = variable;
+            int variableSize = 1;
+            int clauseSize = 0;
+            for (int i = 0; i < variableSize; i++) {
+                final int currentVariable = variableQueue[i];
+                for (int sign = 0; sign < 2; sign++) {
+                    for (final int clause : occurrences[(currentVariable << 1) + sign]) {
+                        if (trueCounts[clause] == 0 && clauseStamps[clause] != currentStamp) {
+                            clauseStamps[clause] = currentStamp;
+                            clauseQueue[clauseSize++] = clause;
+                            for (final int literal : clauses[clause]) {
+                                final int otherVariable = Math.abs(literal);
+                                if (values[otherVariable] == 0 && variableStamps[otherVariable] != currentStamp) {
+                                    variableStamps[otherVariable] = currentStamp;
+                                    variableQueue[variableSize++] = otherVariable;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+            if (clauseSize == 0) {
+                freeVariables[freeVariableCount++] = variable;
+            } else {
+                final int[] componentVariables = Arrays.copyOf(variableQueue, variableSize);
+                final int[] componentClauses = Arrays.copyOf(clauseQueue, clauseSize);
+                Arrays.sort(componentVariables);
+                Arrays.sort(componentClauses);
+                components.add(new int[][] {componentVariables, componentClauses});
+            }
+        }
+        return Arrays.copyOf(freeVariables, freeVariableCount);
+    }
+
+    /**
+     * Multiplies the counts of all independent components. Each free variable
+     * doubles the count.
+     */
+    private BigInteger countComponents(int[] variables) {
+        final List<int[][]> components = new ArrayList<>();
+        BigInteger count = BigInteger.ONE.shiftLeft(decompose(variables, components).length);
+        for (final int[][] component : components) {
+            count = count.multiply(countComponent(component[0], component[1]));
+            if (count.signum() == 0) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private BigInteger countComponent(int[] variables, int[] componentClauses) {
+        final ComponentKey key = getKey(variables, componentClauses);
+        final BigInteger cachedCount = (BigInteger) cache.get(key);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        checkTimeout();
+
+        final int variable = selectVariable(variables, componentClauses);
+        BigInteger count = BigInteger.ZERO;
+        for (final int literal : new int[] {variable, -variable}) {
+            final int mark = trailSize;
+            if (assignAndPropagate(literal)) {
+                count = count.add(countComponents(variables));
+            }
+            backtrack(mark);
+        }
+
+        putIntoCache(key, count);
+        return count;
+    }
+
+    /**
+     * Compiles the literals assigned since {@code mark} and the independent
+     * components of the remaining variables into a branch.
+     *
+     * @return the branch or {@code null}, if it has no solution
+     */
+    private DecisionDNNF.Branch compileBranch(int[] variables, int mark) {
+        final List<int[][]> components = new ArrayList<>();
+        final int[] freeVariables = decompose(variables, components);
+        final DecisionDNNF.Decision[] decisions = new DecisionDNNF.Decision[components.size()];
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] = compileComponent(components.get(i)[0], components.get(i)[1]);
+            if (decisions[i] == null) {
+                return null;
+            }
+        }
+        return new DecisionDNNF.Branch(Arrays.copyOfRange(trail, mark, trailSize), freeVariables, decisions);
+    }
+
+    /**
+     * Compiles a component into a decision node.
+     *
+     * @return the decision node or {@code null}, if the component has no
+     *         solution
+     */
+    private DecisionDNNF.Decision compileComponent(int[] variables, int[] componentClauses) {
+        final ComponentKey key = getKey(variables, componentClauses);
+        if (cache.containsKey(key)) {
+            return (DecisionDNNF.Decision) cache.get(key);
+        }
+        checkTimeout();
+
+        final int variable = selectVariable(variables, componentClauses);
+        final DecisionDNNF.Branch[] branches = new DecisionDNNF.Branch[2];
+        for (int i = 0; i < 2; i++) {
+            final int mark = trailSize;
+            if (assignAndPropagate(i == 0 ? variable : -variable)) {
+                branches[i] = compileBranch(variables, mark);
+            }
+            backtrack(mark);
+        }
+
+        final DecisionDNNF.Decision decision =
+                branches[0] == null && branches[1] == null ? null : new DecisionDNNF.Decision(branches[0], branches[1]);
+        putIntoCache(key, decision);
+        return decision;
+    }
+
+    private static ComponentKey getKey(int[] variables, int[] componentClauses) {
+        final int[] keyElements = new int[variables.length + componentClauses.length + 1];
+        System.arraycopy(variables, 0, keyElements, 0, variables.length);
+        keyElements[variables.length] = -1;
+        System.arraycopy(componentClauses, 0, keyElements, variables.length + 1, componentClauses.length);
+        return new ComponentKey(keyElements);
+    }
+
+    private void checkTimeout() {
+        if (deadline != 0 && System.nanoTime() > deadline) {
+            throw new TimeoutException();
+        }
+    }
+
+    private void putIntoCache(ComponentKey key, Object value) {
+        cache.put(key, value);
+        cacheMemory += getEstimatedMemory(key, getCount(value));
+        evict();
+    }
+
+    /**
+     * Selects the unassigned variable with the most occurrences in the
+     * unsatisfied clauses of a component.
+     */
+    private int selectVariable(int[] variables, int[] componentClauses) {
+        final int[] scores = new int[variables.length];
+        for (final int clause : componentClauses) {
+            for (final int literal : clauses[clause]) {
+                final int variable = Math.abs(literal);
+                if (values[variable] == 0) {
+                    scores[Arrays.binarySearch(variables, variable)]++;
+                }
+            }
+        }
+        int bestIndex = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+        return variables[bestIndex];
+    }
+
+    private boolean assignAndPropagate(int literal) {
+        final int start = trailSize;
+        if (!assign(literal)) {
+            return false;
+        }
+        for (int i = start; i < trailSize; i++) {
+            for (final int clause : occurrences[index(-trail[i])]) {
+                if (trueCounts[clause] == 0) {
+                    final int[] literals = clauses[clause];
+                    final int remaining = literals.length - falseCounts[clause];
+                    if (remaining == 0) {
+                        return false;
+                    } else if (remaining == 1) {
+                        for (final int unitLiteral : literals) {
+                            if (values[Math.abs(unitLiteral)] == 0) {
+                                assign(unitLiteral);
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean assign(int literal) {
+        final int variable = Math.abs(literal);
+        final byte value = (byte) (literal > 0 ? 1 : -1);
+        if (values[variable] != 0) {
+            return values[variable] == value;
+        }
+        values[variable] = value;
+        trail[trailSize++] = literal;
+        for (final int clause : occurrences[index(literal)]) {
+            trueCounts[clause]++;
+        }
+        for (final int clause : occurrences[index(-literal)]) {
+            falseCounts[clause]++;
+        }
+        return true;
+    }
+
+    private void backtrack(int mark) {
+        while (trailSize > mark) {
+            final int literal = trail[--trailSize];
+            values[Math.abs(literal)] = 0;
+            for (final int clause : occurrences[index(literal)]) {
+                trueCounts[clause]--;
+            }
+            for (final int clause : occurrences[index(-literal)]) {
+                falseCounts[clause]--;
+            }
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<ComponentKey, Object>> iterator = cache.entrySet().iterator();
+        while (cacheMemory > cacheMemoryLimit && iterator.hasNext()) {
+            final Map.Entry<ComponentKey, Object> entry = iterator.next();
+            cacheMemory -= getEstimatedMemory(entry.getKey(), getCount(entry.getValue()));
+            iterator.remove();
+        }
+    }
+
+    private static BigInteger getCount(Object cachedValue) {
+        if (cachedValue instanceof BigInteger) {
+            return (BigInteger) cachedValue;
+        }
+        return cachedValue == null ? BigInteger.ZERO : ((DecisionDNNF.Decision) cachedValue).count;
+    }
+
+    private static long getEstimatedMemory(ComponentKey key, BigInteger count) {
+        return ENTRY_OVERHEAD + 4L * key.elements.length + (count.bitLength() >>> 3);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.counting;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A formula compiled into decision-DNNF by a {@link ComponentCounter}. Each
+ * decision node splits a component on a variable into two branches. Each
+ * branch consists of the literals implied by the decision, free variables,
+ * and independent sub-components. Every node knows its number of solutions, so
+ * solutions can be sampled uniformly at random by walking from the root to the
+ * leaves and choosing each branch with a probability proportional to its
+ * number of solutions. Sampling does not call a solver and takes time linear
+ * in the number of variables. Components that occur repeatedly during
+ * compilation are shared, so the structure is a directed acyclic graph.
+ */
+public class DecisionDNNF {
+
+    static final class Decision {
+        final Branch positive;
+        final Branch negative;
+        final BigInteger count;
+
+        Decision(Branch positive, Branch negative) {
+            this.positive = positive;
+            this.negative = negative;
+            count = (positive == null ? BigInteger.ZERO : positive.count)
+                    .add(negative == null ? BigInteger.ZERO : negative.count);
+        }
+    }
+
+    static final class Branch {
+        final int[] impliedLiterals;
+        final int[] freeVariables;
+        final Decision[] components;
+        final BigInteger count;
+
+        Branch(int[] impliedLiterals, int[] freeVariables, Decision[] components) {
+            this.impliedLiterals = impliedLiterals;
+            this.freeVariables = freeVariables;
+            this.components = components;
+            BigInteger count = BigInteger.ONE.shiftLeft(freeVariables.length);
+            for (final Decision component : components) {
+                count = count.multiply(component.count);
+            }
+            this.count = count;
+        }
+    }
+
+    /**
+     * Number of solutions that are drawn with the same random generator by
+     * {@link #sample(int, Random, int)}.
+     */
+    public static final int SAMPLE_BATCH_SIZE = 64;
+
+    private final int variableCount;
+    private final Branch root;
+
+    DecisionDNNF(int variableCount, Branch root) {
+        this.variableCount = variableCount;
+        this.root = root;
+    }
+
+    public int getVariableCount() {
+        return variableCount;
+    }
+
+    /**
+     * Returns the number of solutions of the compiled formula.
+     *
+     * @return the number of solutions
+     */
+    public BigInteger getSolutionCount() {
+        return root == null ? BigInteger.ZERO : root.count;
+    }
+
+    /**
+     * Draws a solution uniformly at random.
+     *
+     * @param random the random generator
+     * @return the solution or an empty result, if the formula has no solution
+     */
+    public Result<BooleanSolution> sample(Random random) {
+        if (root == null) {
+            return Result.empty();
+        }
+        final int[] solution = new int[variableCount];
+        final List<Branch> branches = new ArrayList<>();
+        branches.add(root);
+        while (!branches.isEmpty()) {
+            final Branch branch = branches.remove(branches.size() - 1);
+            for (final int literal : branch.impliedLiterals) {
+                solution[Math.abs(literal) - 1] = literal;
+            }
+            for (final int variable : branch.freeVariables) {
+                solution[variable - 1] = random.nextBoolean() ? variable : -variable;
+            }
+            for (final Decision component : branch.components) {
+                branches.add(choose(component, random));
+            }
+        }
+        return Result.of(new BooleanSolution(solution, false));
+    }
+
+    /**
+     * Draws multiple solutions uniformly at random and independently of each
+     * other. The solutions are drawn in batches of {@link #SAMPLE_BATCH_SIZE},
+     * which are distributed over multiple threads. Each batch uses its own random
+     * generator, which is seeded by the given generator, so the result only
+     * depends on the given generator and not on the thread count.
+     *
+     * @param count       the number of solutions
+     * @param random      the random generator
+     * @param threadCount the maximum number of threads
+     * @return the solutions, which are empty if the formula has no solution
+     */
+    public BooleanSolutionList sample(int count, Random random, int threadCount) {
+        final BooleanSolutionList solutions = new BooleanSolutionList(variableCount);
+        if (root == null || count <= 0) {
+            return solutions;
+        }
+        final int batchCount = (count + SAMPLE_BATCH_SIZE - 1) / SAMPLE_BATCH_SIZE;
+        final long[] seeds = new long[batchCount];
+        for (int i = 0; i < batchCount; i++) {
+            seeds[i] = random.nextLong();
+        }
+        final int poolSize = Math.max(1, Math.min(threadCount, batchCount));
+        if (poolSize == 1) {
+            for (int i = 0; i < batchCount; i++) {
+                sampleBatch(getBatchSize(count, i), new Random(seeds[i]), solutions);
+            }
+            return solutions;
+        }
+        final ExecutorService threadPool = Executors.newFixedThreadPool(poolSize);
+        try {
+            final List<Future<BooleanSolutionList>> futures = new ArrayList<>(batchCount);
+            for (int i = 0; i < batchCount; i++) {
+                final int batchSize = getBatchSize(count, i);
+                final long seed = seeds[i];
+                futures.add(threadPool.submit(() -> {
+                    final BooleanSolutionList batch = new BooleanSolutionList(variableCount);
+                    sampleBatch(batchSize, new Random(seed), batch);
+                    return batch;
+                }));
+            }
+            for (Future<BooleanSolutionList> future : futures) {
+                future.get().getAll().forEach(solutions::add);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            threadPool.shutdownNow();
+        }
+        return solutions;
+    }
+
+    private static int getBatchSize(int count, int batch) {
+        return Math.min(SAMPLE_BATCH_SIZE, count - batch * SAMPLE_BATCH_SIZE);
+    }
+
+    private void sampleBatch(int count, Random random, BooleanSolutionList solutions) {
+        for (int i = 0; i < count; i++) {
+            solutions.add(sample(random).get());
+        }
+    }
+
+    private static Branch choose(Decision decision, Random random) {
+        if (decision.negative == null) {
+            return decision.positive;
+        }
+        if (decision.positive == null) {
+            return decision.negative;
+        }
+        return nextBigInteger(decision.count, random).compareTo(decision.positive.count) < 0
+                ? decision.positive
+                : decision.negative;
+    }
+
+    private static BigInteger nextBigInteger(BigInteger bound, Random random) {
+        final int bitLength = bound.bitLength();
+        if (bitLength < Long.SIZE) {
+            final long longBound = bound.longValue();
+            long value;
+            do {
+                value = random.nextLong() >>> (Long.SIZE - bitLength);
+            } while (value >= longBound);
+            return BigInteger.valueOf(value);
+        }
+        BigInteger value;
+        do {
+            value = new BigInteger(bitLength, random);
+        } while (value.compareTo(bound) >= 0);
+        return value;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Exchanges learned clauses between solvers for the same formula (see
+ * {@link SAT4JSolver#setClauseExchange(ClauseExchange)}). Unit and binary
+ * clauses are always shared, longer clauses only if their literal block
+ * distance (i.e., the number of distinct decision levels of their literals) is
+ * at most {@link #getMaximumLBD()}.
+ * <p>
+ * Clauses are stored in a lock-free ring buffer. Each solver reads all clauses
+ * published since its last import. Clauses that are overwritten before a solver
+ * imports them are skipped, as sharing is only a heuristic and does not affect
+ * the correctness of any result.
+ */
+public class ClauseExchange {
+
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    public static final int DEFAULT_MAXIMUM_LBD = 4;
+
+    private static final class SharedClause {
+        private final long index;
+        private final int source;
+        private final int[] literals;
+
+        private SharedClause(long index, int source, int[] literals) {
+            this.index = index;
+            this.source = source;
+            this.literals = literals;
+        }
+    }
+
+    private final AtomicReferenceArray<SharedClause> buffer;
+    private final int mask;
+    private final int maximumLBD;
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final AtomicInteger participantCount = new AtomicInteger();
+
+    public ClauseExchange() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAXIMUM_LBD);
+    }
+
+    /**
+     * Creates a new clause exchange.
+     *
+     * @param capacity   the maximum number of clauses kept in the buffer, is
+     *                   rounded up to the next power of two
+     * @param maximumLBD the maximum literal block distance of shared clauses with
+     *                   more than two literals
+     */
+    public ClauseExchange(int capacity, int maximumLBD) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        final int size = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+        buffer = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        this.maximumLBD = maximumLBD;
+    }
+
+    public int getMaximumLBD() {
+        return maximumLBD;
+    }
+
+    /**
+     * Returns the number of clauses that were published to this exchange.
+     *
+     * @return the number of clauses
+     */
+    public long getExportedCount() {
+        return writeIndex.get();
+    }
+
+    int register() {
+        return participantCount.getAndIncrement();
+    }
+
+    long getWriteIndex() {
+        return writeIndex.get();
+    }
+
+    /**
+     * Publishes a learned clause, if it is short enough.
+     *
+     * @param source   the id of the publishing solver
+     * @param literals the literals of the clause, must not be modified afterwards
+     * @param lbd      the literal block distance of the clause
+     * @return {@code true} if the clause was published
+     */
+    boolean export(int source, int[] literals, int lbd) {
+        if (literals.length > 2 && lbd > maximumLBD) {
+            return false;
+        }
+        final long index = writeIndex.getAndIncrement();
+        buffer.set((int) (index & mask), new SharedClause(index, source, literals));
+        return true;
+    }
+
+    /**
+     * Passes all clauses that were published by other solvers since the given
+     * position to the given consumer. The consumer must not modify the clauses.
+     *
+     * @param target   the id of the importing solver
+     * @param position the position after the last imported clause
+     * @param consumer the consumer
+     * @return the position after the last imported clause
+     */
+    long importClauses(int target, long position, Consumer<int[]> consumer) {
+        final long end = writeIndex.get();
+        long index = Math.max(position, end - buffer.length());
+        for (; index < end; index++) {
+            final SharedClause clause = buffer.get((int) (index & mask));
+            if (clause == null || clause.index < index) {
+                // not yet written, retry on next import
+                break;
+            }
+            if (clause.index == index && clause.source != target) {
+                consumer.accept(clause.literals);
+            }
+        }
+        return index;
+    }
+}
@@ -33,7 +33,11 @@ import java.util.function.Supplier;
 import org.sat4j.core.VecInt;
 
 /**
- * ...
+ * The assumptions of a {@link SAT4JSolver}. Literals are kept in a stack,
+ * which is passed to the solver. Additionally, the position of each
+ * variable within the stack is indexed, so looking up, setting, and removing
+ * the value of a variable does not scan the stack. Literals that were added
+ * after a {@link #mark() mark} can be removed by {@link #rollback(int)}.
  *
  * @author Sebastian Krieter
  * @author Elias Kuiter
@@ -41,24 +45,101 @@ import org.sat4j.core.VecInt;
 public class SAT4JAssignment implements IAssignment<Integer, Boolean>, Supplier<int[]> {
     protected final VecInt integers;
 
+    /**
+     * Position of each variable in {@link #integers} plus one, or zero if the
+     * variable is not contained. If a variable is contained multiple times, its
+     * first position is stored.
+     */
+    private int[] positions = new int[0];
+
+    private boolean duplicatesAdded;
+
     public SAT4JAssignment() {
         this.integers = new VecInt();
     }
 
     public SAT4JAssignment(ABooleanAssignment assignment) {
         this.integers = new VecInt(assignment.get());
+        for (int i = 0; i < integers.size(); i++) {
+            index(i);
+        }
+    }
+
+    private void index(int position) {
+        final int variable = Math.abs(integers.unsafeGet(position));
+        if (variable == 0) {
+            return;
+        }
+        if (variable >= positions.length) {
+            positions = Arrays.copyOf(positions, Math.max(variable + 1, positions.length << 1));
+        }
+        final int indexedPosition = positions[variable];
+        if (indexedPosition != position + 1) {
+            if (indexedPosition == 0 || indexedPosition > position + 1) {
+                positions[variable] = position + 1;
+            }
+            if (indexedPosition != 0) {
+                duplicatesAdded = true;
+            }
+        }
+    }
+
+    /**
+     * Removes a position from the index. If the variable is contained at another
+     * position below {@code limit}, this position is indexed instead.
+     */
+    private void unindex(int position, int limit) {
+        final int variable = Math.abs(integers.unsafeGet(position));
+        if (variable != 0 && positions[variable] == position + 1) {
+            positions[variable] = 0;
+            if (duplicatesAdded) {
+                for (int i = 0; i < limit; i++) {
+                    if (i != position && Math.abs(integers.unsafeGet(i)) == variable) {
+                        positions[variable] = i + 1;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int getPosition(int variable) {
+        return variable < positions.length ? positions[variable] - 1 : -1;
     }
 
     public VecInt getIntegers() {
         return integers;
     }
 
+    /**
+     * Returns the current size of the assignment, which can be passed to
+     * {@link #rollback(int)} to remove all literals added afterwards.
+     *
+     * @return the mark
+     */
+    public int mark() {
+        return integers.size();
+    }
+
+    /**
+     * Removes all literals that were added after the given mark.
+     *
+     * @param mark the mark returned by {@link #mark()}
+     */
+    public void rollback(int mark) {
+        for (int i = integers.size() - 1; i >= mark; i--) {
+            unindex(i, i);
+        }
+        integers.shrinkTo(mark);
+    }
+
     public void clear() {
-        integers.clear();
+        rollback(0);
+        duplicatesAdded = false;
     }
 
     public void clear(int newSize) {
-        integers.shrinkTo(newSize);
+        rollback(newSize);
     }
 
     public void ensureSize(int size) {
@@ -66,21 +147,40 @@ public class SAT4JAssignment implements IAssignment<Integer, Boolean>, Supplier<
     }
 
     public int remove() {
-        final int topElement = integers.get(integers.size());
+        final int topElement = integers.last();
+        unindex(integers.size() - 1, integers.size() - 1);
         integers.pop();
         return topElement;
     }
 
+    /**
+     * Removes the literal at the given position. The last literal is moved to
+     * this position, so the order of the remaining literals is not preserved.
+     *
+     * @param i the position
+     */
     public void remove(int i) {
+        final int last = integers.size() - 1;
+        if (i == last) {
+            remove();
+            return;
+        }
+        unindex(last, last);
+        unindex(i, last);
         integers.delete(i);
+        index(i);
     }
 
     public void add(int var) {
         integers.push(var);
+        index(integers.size() - 1);
     }
 
     public void addAll(int[] vars) {
-        integers.pushAll(new VecInt(vars));
+        integers.ensure(integers.size() + vars.length);
+        for (final int var : vars) {
+            add(var);
+        }
     }
 
     public void addAll(ABooleanAssignment assignment) {
@@ -88,11 +188,13 @@ public class SAT4JAssignment implements IAssignment<Integer, Boolean>, Supplier<
     }
 
     public void replaceLast(int var) {
-        integers.pop().unsafePush(var);
+        set(integers.size() - 1, var);
     }
 
     public void set(int index, int var) {
+        unindex(index, integers.size());
         integers.set(index, var);
+        index(index);
     }
 
     public int[] get() {
@@ -116,13 +218,8 @@ public class SAT4JAssignment implements IAssignment<Integer, Boolean>, Supplier<
     }
 
     public Result<Boolean> getValue(int variable) {
-        for (int i = 0; i < integers.size(); i++) {
-            final int l = integers.unsafeGet(i);
-            if (Math.abs(l) == variable) {
-                return Result.of(l > 0);
-            }
-        }
-        return Result.empty();
+        final int position = getPosition(variable);
+        return position >= 0 ? Result.of(integers.unsafeGet(position) > 0) : Result.empty();
     }
 
     @Override
@@ -131,23 +228,20 @@ public class SAT4JAssignment implements IAssignment<Integer, Boolean>, Supplier<
     }
 
     public void setValue(int variable, boolean value) {
-        for (int i = 0; i < integers.size(); i++) {
-            final int l = integers.unsafeGet(i);
-            if (Math.abs(l) == variable) {
-                integers.set(i, value ? l : -l);
-                return;
-            }
+        final int position = getPosition(variable);
+        if (position >= 0) {
+            integers.set(position, value ? variable : -variable);
+        } else {
+            add(value ? variable : -variable);
         }
-        integers.push(value ? variable : -variable);
     }
 
     public void removeValue(int variable) {
-        for (int i = 0; i < integers.size(); i++) {
-            final int l = integers.unsafeGet(i);
-            if (Math.abs(l) == variable) {
-                integers.delete(i);
-                return;
-            }
+        final int position = getPosition(variable);
+        if (position == integers.size() - 1) {
+            remove();
+        } else if (position >= 0) {
+            remove(position);
         }
     }
 
@@ -33,18 +33,36 @@ import org.sat4j.specs.IConstr;
  * ... This class breaks the Liskov principle, as it only allows appending
  * clauses at the end (i.e., implementing an assumption stack) and does not
  * allow for meaningful cloning due to being tied to a solver instance.
+ * <p>
+ * Clauses added after a {@link #checkpoint() checkpoint} can be removed in one
+ * call by {@link #rollback(int)}. As SAT4J discards all learned clauses when a
+ * clause is removed, temporary clauses that are added and removed frequently
+ * should be put into a {@link #newGroup() clause group} instead. A group is
+ * identified by an activation variable, which is added negatively to each of
+ * its clauses and assumed by the solver as long as the group is active.
+ * {@link #retractGroup(int) Retracting} a group permanently satisfies its
+ * clauses without removing any clause from the solver, so learned clauses are
+ * kept. Group clauses are not contained in this list.
  *
  * @author Sebastian Krieter
  * @author Elias Kuiter
  */
 public class SAT4JClauseList extends BooleanClauseList {
     protected final SAT4JSolver solver;
-    protected final LinkedList<IConstr> addedConstraints = new LinkedList<>();
+    protected IConstr[] addedConstraints = new IConstr[16];
+    protected int addedConstraintCount;
+    protected final int baseSize;
+
+    private final LinkedHashMap<String, Integer> checkpoints = new LinkedHashMap<>();
+    private final VecInt activeGroups = new VecInt();
+    private final BitSet activationVariables = new BitSet();
+    private int firstActivationVariable;
 
     public SAT4JClauseList(SAT4JSolver solver, BooleanClauseList other) {
         super(other);
         this.solver = solver;
         assignments.forEach(this::addConstraint);
+        baseSize = assignments.size();
     }
 
     @Override
@@ -64,11 +82,17 @@ public class SAT4JClauseList extends BooleanClauseList {
     }
 
     protected void addConstraint(int... integers) {
+        if (addedConstraintCount == addedConstraints.length) {
+            addedConstraints = Arrays.copyOf(addedConstraints, addedConstraintCount << 1);
+        }
+        IConstr constraint;
         try {
-            addedConstraints.add(solver.internalSolver.addClause(new VecInt(Arrays.copyOf(integers, integers.length))));
+            constraint = solver.internalSolver.addClause(new VecInt(Arrays.copyOf(integers, integers.length)));
         } catch (ContradictionException e) {
+            constraint = null;
             solver.trivialContradictionFound = true;
         }
+        addedConstraints[addedConstraintCount++] = constraint;
     }
 
     @Override
@@ -83,19 +107,9 @@ public class SAT4JClauseList extends BooleanClauseList {
 
     @Override
     public void addAll(Collection<? extends BooleanClause> clauses) {
-        final ArrayList<IConstr> constraints = new ArrayList<>();
         for (final BooleanClause clause : clauses) {
-            try {
-                constraints.add(
-                        solver.internalSolver.addClause(new VecInt(Arrays.copyOf(clause.get(), clause.size()))));
-            } catch (ContradictionException e) {
-                for (final IConstr constraint : constraints) {
-                    solver.internalSolver.removeConstr(constraint);
-                }
-                solver.trivialContradictionFound = true;
-            }
+            addConstraint(clause.get());
         }
-        addedConstraints.addAll(constraints);
         super.addAll(clauses);
     }
 
@@ -106,16 +120,188 @@ public class SAT4JClauseList extends BooleanClauseList {
 
     @Override
     public Result<BooleanClause> remove() {
-        if (addedConstraints.size() > 0) {
-            final IConstr lastConstraint = addedConstraints.pop();
-            solver.internalSolver.removeConstr(lastConstraint);
+        if (addedConstraintCount > 0) {
+            final IConstr lastConstraint = addedConstraints[--addedConstraintCount];
+            addedConstraints[addedConstraintCount] = null;
+            if (lastConstraint != null) {
+                solver.internalSolver.removeConstr(lastConstraint);
+            }
         }
         return super.remove();
     }
 
+    /**
+     * Returns the current size of this list, which can be passed to
+     * {@link #rollback(int)} to remove all clauses added afterwards.
+     *
+     * @return the checkpoint
+     */
+    public int checkpoint() {
+        return assignments.size();
+    }
+
+    /**
+     * Stores the current size of this list under a name. Replaces any checkpoint
+     * with the same name.
+     *
+     * @param name the name of the checkpoint
+     */
+    public void checkpoint(String name) {
+        checkpoints.put(Objects.requireNonNull(name), assignments.size());
+    }
+
+    /**
+     * Removes all clauses that were added after the given checkpoint. Named
+     * checkpoints that lie after the given checkpoint are discarded.
+     *
+     * @param checkpoint the checkpoint returned by {@link #checkpoint()}
+     */
+    public void rollback(int checkpoint) {
+        if (checkpoint < baseSize || checkpoint > assignments.size()) {
+            throw new IllegalArgumentException(String.valueOf(checkpoint));
+        }
+        while (assignments.size() > checkpoint) {
+            remove();
+        }
+        checkpoints.values().removeIf(size -> size > checkpoint);
+    }
+
+    /**
+     * Removes all clauses that were added after the named checkpoint.
+     *
+     * @param name the name of the checkpoint
+     * @throws IllegalArgumentException if no checkpoint with this name exists
+     */
+    public void rollback(String name) {
+        final Integer checkpoint = checkpoints.get(name);
+        if (checkpoint == null) {
+            throw new IllegalArgumentException("No checkpoint named " + name);
+        }
+        rollback(checkpoint);
+    }
+
+    /**
+     * Creates a new variable that does not occur in any clause, such as an
+     * auxiliary variable of an encoding. Variables must be created this way once
+     * clause groups are used, as groups draw their activation variables from the
+     * same range.
+     *
+     * @return the new variable
+     */
+    public int newVariable() {
+        return solver.internalSolver.nextFreeVarId(true);
+    }
+
+    /**
+     * Creates a new active clause group.
+     *
+     * @return the activation variable of the group
+     */
+    public int newGroup() {
+        final int activationVariable = solver.internalSolver.nextFreeVarId(true);
+        if (firstActivationVariable == 0) {
+            firstActivationVariable = activationVariable;
+        }
+        activationVariables.set(activationVariable);
+        activeGroups.push(activationVariable);
+        return activationVariable;
+    }
+
+    /**
+     * Adds a clause to an active clause group.
+     *
+     * @param group    the activation variable of the group
+     * @param integers the literals of the clause
+     * @throws IllegalArgumentException if the group is not active
+     */
+    public void addToGroup(int group, int... integers) {
+        if (!activeGroups.contains(group)) {
+            throw new IllegalArgumentException("Group is not active: " + group);
+        }
+        final VecInt clause = new VecInt(integers.length + 1);
+        for (final int literal : integers) {
+            clause.push(literal);
+        }
+        clause.push(-group);
+        try {
+            solver.internalSolver.addClause(clause);
+        } catch (ContradictionException e) {
+            // cannot occur, as the activation literal is unassigned
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Retracts an active clause group, such that its clauses are satisfied from
+     * now on. The activation variable must not be used afterwards.
+     *
+     * @param group the activation variable of the group
+     */
+    public void retractGroup(int group) {
+        final int index = activeGroups.indexOf(group);
+        if (index >= 0) {
+            activeGroups.delete(index);
+            try {
+                solver.internalSolver.addClause(new VecInt(new int[] {-group}));
+            } catch (ContradictionException e) {
+                solver.trivialContradictionFound = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the activation variables of all active groups, which the solver
+     * assumes in addition to its assignment.
+     *
+     * @return the activation variables
+     */
+    public VecInt getActiveGroups() {
+        return activeGroups;
+    }
+
+    /**
+     * Returns the smallest activation variable or zero, if no group was created.
+     * All variables of the formula are smaller than this variable.
+     *
+     * @return the first activation variable
+     */
+    public int getFirstActivationVariable() {
+        return firstActivationVariable;
+    }
+
+    /**
+     * Returns whether a literal belongs to an activation variable of a group.
+     *
+     * @param literal the literal
+     * @return {@code true} if the literal is an activation literal
+     */
+    public boolean isActivationLiteral(int literal) {
+        return activationVariables.get(Math.abs(literal));
+    }
+
+    /**
+     * Removes all clauses that were added after the construction of this list
+     * and retracts all active groups.
+     */
+    public void reset() {
+        while (assignments.size() > baseSize) {
+            remove();
+        }
+        checkpoints.clear();
+        retractGroups();
+    }
+
+    private void retractGroups() {
+        while (activeGroups.size() > 0) {
+            retractGroup(activeGroups.last());
+        }
+    }
+
     @Override
     public void clear() {
-        while (addedConstraints.size() > 0) remove();
+        while (addedConstraintCount > 0) remove();
         super.clear();
+        checkpoints.clear();
+        retractGroups();
     }
 }
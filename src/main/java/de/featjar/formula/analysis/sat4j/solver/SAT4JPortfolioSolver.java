@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.sat4j.minisat.restarts.ArminRestarts;
+import org.sat4j.minisat.restarts.LubyRestarts;
+import org.sat4j.minisat.restarts.MiniSATRestarts;
+
+/**
+ * Decides queries by racing several differently configured solvers for the
+ * same formula. Each query is passed to all solvers in parallel. The first
+ * solver that decides the query provides the result and all other solvers are
+ * interrupted.
+ * <p>
+ * The first solver uses the default configuration of
+ * {@link SAT4JSolutionSolver}. The other solvers cycle through the negative,
+ * positive, and random selection strategy with Luby, Armin, and MiniSAT
+ * restarts, respectively, and use a variable order that is shuffled with their
+ * own seed. Learned clauses are shared via a {@link ClauseExchange}.
+ */
+public class SAT4JPortfolioSolver implements AutoCloseable {
+
+    private static final long INTERRUPT_INTERVAL_MS = 10;
+
+    private final List<SAT4JSolutionSolver> solvers;
+    private final ExecutorService threadPool;
+
+    private int lastWinner = -1;
+
+    /**
+     * Creates a new portfolio.
+     *
+     * @param clauseList    the formula
+     * @param portfolioSize the number of solvers, each of which runs in its own
+     *                      thread
+     * @param randomSeed    the seed for diversifying the solvers
+     */
+    public SAT4JPortfolioSolver(BooleanClauseList clauseList, int portfolioSize, long randomSeed) {
+        if (portfolioSize < 1) {
+            throw new IllegalArgumentException(String.valueOf(portfolioSize));
+        }
+        final ClauseExchange clauseExchange = new ClauseExchange();
+        solvers = new ArrayList<>(portfolioSize);
+        for (int i = 0; i < portfolioSize; i++) {
+            final SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
+            configure(solver, i, randomSeed);
+            if (portfolioSize > 1) {
+                solver.setClauseExchange(clauseExchange);
+            }
+            solvers.add(solver);
+        }
+        threadPool = portfolioSize > 1 ? Executors.newFixedThreadPool(portfolioSize) : null;
+    }
+
+    private static void configure(SAT4JSolutionSolver solver, int index, long randomSeed) {
+        if (index == 0) {
+            return;
+        }
+        final Random random = new Random(randomSeed + index);
+        solver.shuffleOrder(random);
+        switch (index % 3) {
+            case 1:
+                solver.setSelectionStrategy(ISelectionStrategy.negative());
+                solver.setRestartStrategy(new LubyRestarts());
+                break;
+            case 2:
+                solver.setSelectionStrategy(ISelectionStrategy.positive());
+                solver.setRestartStrategy(new ArminRestarts());
+                break;
+            default:
+                solver.setSelectionStrategy(ISelectionStrategy.random(random));
+                solver.setRestartStrategy(new MiniSATRestarts());
+                break;
+        }
+    }
+
+    public int size() {
+        return solvers.size();
+    }
+
+    public void setTimeout(Duration timeout) {
+        solvers.forEach(s -> s.setTimeout(timeout));
+    }
+
+    public boolean isTrivialContradictionFound() {
+        return solvers.get(0).isTrivialContradictionFound();
+    }
+
+    /**
+     * Adds a clause to the formula of all solvers.
+     *
+     * @param clause the clause
+     */
+    public void addClause(BooleanClause clause) {
+        solvers.forEach(s -> s.getClauseList().add(clause));
+    }
+
+    /**
+     * Adds clauses to the formula of all solvers.
+     *
+     * @param clauses the clauses
+     */
+    public void addClauses(Collection<BooleanClause> clauses) {
+        solvers.forEach(s -> s.getClauseList().addAll(clauses));
+    }
+
+    /**
+     * Removes the last added clause from the formula of all solvers.
+     */
+    public void removeClause() {
+        solvers.forEach(s -> s.getClauseList().remove());
+    }
+
+    /**
+     * Creates a new active clause group in all solvers (see
+     * {@link SAT4JClauseList#newGroup()}). As all solvers receive the same
+     * modifications, they use the same activation variable for the group.
+     *
+     * @return the activation variable of the group
+     */
+    public int newGroup() {
+        final int group = solvers.get(0).getClauseList().newGroup();
+        for (int i = 1; i < solvers.size(); i++) {
+            if (solvers.get(i).getClauseList().newGroup() != group) {
+                throw new IllegalStateException("Solvers use different activation variables");
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Adds a clause to an active clause group of all solvers.
+     *
+     * @param group    the activation variable of the group
+     * @param integers the literals of the clause
+     */
+    public void addToGroup(int group, int... integers) {
+        solvers.forEach(s -> s.getClauseList().addToGroup(group, integers));
+    }
+
+    /**
+     * Retracts an active clause group of all solvers.
+     *
+     * @param group the activation variable of the group
+     */
+    public void retractGroup(int group) {
+        solvers.forEach(s -> s.getClauseList().retractGroup(group));
+    }
+
+    /**
+     * Decides whether the formula is satisfiable under the given assumptions.
+     *
+     * @param assumptions the assumed literals
+     * @return the result of the first solver that decided the query or an empty
+     *         result if all solvers reached the timeout
+     */
+    public Result<Boolean> hasSolution(int... assumptions) {
+        if (threadPool == null) {
+            lastWinner = 0;
+            return solvers.get(0).hasSolution(assumptions);
+        }
+        lastWinner = -1;
+        final CompletionService<Result<Boolean>> completionService = new ExecutorCompletionService<>(threadPool);
+        final List<Future<Result<Boolean>>> futures = new ArrayList<>(solvers.size());
+        for (SAT4JSolutionSolver solver : solvers) {
+            final int[] query = Arrays.copyOf(assumptions, assumptions.length);
+            futures.add(completionService.submit(() -> solver.hasSolution(query)));
+        }
+        Result<Boolean> result = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                final Future<Result<Boolean>> future = completionService.take();
+                final Result<Boolean> solverResult = future.get();
+                if (solverResult.isPresent()) {
+                    lastWinner = futures.indexOf(future);
+                    return solverResult;
+                } else if (result == null) {
+                    result = solverResult;
+                }
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            interruptAll(futures);
+        }
+    }
+
+    /**
+     * Finds a solution of the formula under the given assumptions.
+     *
+     * @param assumptions the assumed literals
+     * @return the solution found by the first solver that decided the query, an
+     *         empty result if the formula is unsatisfiable, or an empty result
+     *         with a problem if all solvers reached the timeout
+     */
+    public Result<BooleanSolution> findSolution(int... assumptions) {
+        final Result<Boolean> hasSolution = hasSolution(assumptions);
+        return hasSolution.isPresent()
+                ? hasSolution.get() ? Result.of(solvers.get(lastWinner).getSolution()) : Result.empty()
+                : Result.empty(hasSolution.getProblems());
+    }
+
+    /**
+     * Interrupts all solvers that are still running and waits until they have
+     * stopped. A solver might not have started its search when it is first
+     * interrupted, so it is interrupted repeatedly.
+     */
+    private void interruptAll(List<Future<Result<Boolean>>> futures) {
+        boolean interrupted = false;
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<Result<Boolean>> future = futures.get(i);
+            while (!future.isDone()) {
+                solvers.get(i).interrupt();
+                try {
+                    future.get(INTERRUPT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | TimeoutException e) {
+                    // check again
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (threadPool != null) {
+            threadPool.shutdownNow();
+        }
+    }
+}
@@ -20,7 +20,6 @@
  */
 package de.featjar.formula.analysis.sat4j.solver;
 
-import de.featjar.base.computation.ResourcePool;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
@@ -35,14 +34,11 @@ import de.featjar.formula.analysis.sat4j.solver.strategy.UniformRandomSelectionS
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.sat4j.minisat.SolverFactory;
 import org.sat4j.minisat.core.IOrder;
+import org.sat4j.minisat.core.RestartStrategy;
 import org.sat4j.minisat.core.Solver;
 import org.sat4j.minisat.orders.NegativeLiteralSelectionStrategy;
 import org.sat4j.minisat.orders.PositiveLiteralSelectionStrategy;
@@ -57,30 +53,53 @@ import org.sat4j.minisat.orders.VarOrderHeap;
 public class SAT4JSolutionSolver extends SAT4JSolver {
     protected final int[] order;
     protected ISelectionStrategy strategy;
+    private boolean restartStrategyChanged;
 
+    /**
+     * Decides the satisfiability of each problem in parallel. Like
+     * {@link #hasSolution(de.featjar.formula.analysis.bool.ABooleanAssignment)},
+     * only the literals of a problem are assumed and the global assignment of the
+     * generated solvers is ignored.
+     *
+     * @param solverGenerator creates a new solver for each thread
+     * @param problems        the literals to assume for each problem
+     * @return the result of each problem, which is empty if a timeout occurred or
+     *         the computation failed
+     */
     public static List<Result<Boolean>> parallelSolve(
             Supplier<SAT4JSolutionSolver> solverGenerator, List<BooleanClause> problems) {
         final int threadCount = Runtime.getRuntime().availableProcessors() - 1;
-        ResourcePool<SAT4JSolutionSolver> solverPool = new ResourcePool<>(solverGenerator, threadCount);
-        ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
-
-        List<Future<Result<Boolean>>> futureResults = new ArrayList<>(problems.size());
-        for (BooleanClause booleanClause : problems) {
-            futureResults.add(threadPool.submit(() -> solverPool
-                    .use(solver -> {
-                        return solver.hasSolution(booleanClause);
-                    })
-                    .unwrap()));
+        final List<int[]> queries =
+                problems.stream().map(BooleanClause::get).collect(Collectors.toList());
+        final byte[] results;
+        try {
+            results = hasSolutions(
+                    () -> {
+                        final SAT4JSolutionSolver solver = solverGenerator.get();
+                        solver.getAssignment().clear();
+                        return solver;
+                    },
+                    queries,
+                    false,
+                    threadCount);
+        } catch (RuntimeException e) {
+            return problems.stream().map(p -> Result.<Boolean>empty(e)).collect(Collectors.toList());
         }
-        return futureResults.stream()
-                .map(future -> {
-                    try {
-                        return future.get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        return Result.<Boolean>empty(e);
-                    }
-                })
-                .collect(Collectors.toList());
+        final List<Result<Boolean>> resultList = new ArrayList<>(results.length);
+        for (byte result : results) {
+            switch (result) {
+                case SATISFIABLE:
+                    resultList.add(Result.of(Boolean.TRUE));
+                    break;
+                case UNSATISFIABLE:
+                    resultList.add(Result.of(Boolean.FALSE));
+                    break;
+                default:
+                    resultList.add(Result.empty(de.featjar.formula.analysis.ISolver.getTimeoutProblem(null)));
+                    break;
+            }
+        }
+        return resultList;
     }
 
     public SAT4JSolutionSolver(BooleanClauseList clauseList) {
@@ -96,6 +115,20 @@ public class SAT4JSolutionSolver extends SAT4JSolver {
         return (Solver<?>) SolverFactory.newDefault();
     }
 
+    @Override
+    public void reset() {
+        super.reset();
+        setOrderFix();
+        if (strategy.strategy() != ISelectionStrategy.Strategy.ORIGINAL) {
+            setSelectionStrategy(ISelectionStrategy.original());
+        }
+    }
+
+    @Override
+    public boolean isResettable() {
+        return !restartStrategyChanged && super.isResettable();
+    }
+
     public int[] getOrder() {
         return order;
     }
@@ -133,6 +166,17 @@ public class SAT4JSolutionSolver extends SAT4JSolver {
         ((Solver<?>) internalSolver).getOrder().init();
     }
 
+    /**
+     * Sets the restart policy of the internal solver. Afterwards, this solver
+     * cannot be {@link #isResettable() reset} to its initial state.
+     *
+     * @param restartStrategy the restart policy
+     */
+    public void setRestartStrategy(RestartStrategy restartStrategy) {
+        restartStrategyChanged = true;
+        ((Solver<?>) internalSolver).setRestartStrategy(restartStrategy);
+    }
+
     public void setSelectionStrategy(ISelectionStrategy strategy) {
         this.strategy = strategy;
         switch (strategy.strategy()) {
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Enumerates the solutions of a formula on demand. Each call of
+ * {@link #spliterator()} starts a new enumeration with its own solver. Thus, in
+ * contrast to a {@link SAT4JSolutionSpliterator}, a solution source holds no
+ * enumeration state and can be traversed any number of times.
+ */
+public class SAT4JSolutionSource {
+
+    private final Supplier<SAT4JSolutionSpliterator> spliteratorFactory;
+
+    /**
+     * Creates a new solution source.
+     *
+     * @param spliteratorFactory creates a new spliterator with its own solver for
+     *                           each enumeration
+     */
+    public SAT4JSolutionSource(Supplier<SAT4JSolutionSpliterator> spliteratorFactory) {
+        this.spliteratorFactory = spliteratorFactory;
+    }
+
+    /**
+     * Starts a new enumeration. The returned spliterator must be traversed
+     * completely or {@link SAT4JSolutionSpliterator#close() closed} to release its
+     * solver.
+     *
+     * @return a spliterator over all solutions
+     */
+    public SAT4JSolutionSpliterator spliterator() {
+        return spliteratorFactory.get();
+    }
+
+    /**
+     * Starts a new enumeration. Closing the stream releases its solver.
+     *
+     * @return a sequential stream of all solutions
+     */
+    public Stream<BooleanSolution> stream() {
+        return spliterator().stream();
+    }
+}
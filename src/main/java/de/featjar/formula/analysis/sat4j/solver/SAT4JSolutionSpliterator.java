@@ -0,0 +1,377 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Enumerates the solutions of a solver one by one. The next solution is only
+ * computed when a consumer requests it, so solutions are neither computed in
+ * advance nor kept after they are passed to the consumer. Enumeration stops
+ * when the limit is reached, no further solution exists, or the solver reaches
+ * its timeout. Afterwards, the spliterator is {@link #close() closed}.
+ * <p>
+ * Duplicates are forbidden by adding a blocking clause for each solution. The
+ * {@link BlockingStrategy} determines the literals of these clauses. The
+ * blocking clauses are compacted periodically by merging clauses that only
+ * differ in the sign of a single literal, so the solver does not slow down as
+ * the number of enumerated solutions grows. The blocking clauses are kept in a
+ * {@link SAT4JClauseList#newGroup() clause group}, which is retracted and
+ * replaced by a group of the compacted clauses, so no clause is removed from
+ * the solver and learned clauses are kept.
+ */
+public class SAT4JSolutionSpliterator implements Spliterator<BooleanSolution>, AutoCloseable {
+
+    /**
+     * Determines the literals of the blocking clause that is added for each
+     * solution.
+     */
+    public enum BlockingStrategy {
+        /**
+         * Blocks all literals of a solution.
+         */
+        FULL,
+        /**
+         * Blocks the literals of the projection variables. Thus, only solutions
+         * that differ in at least one projection variable are enumerated.
+         */
+        PROJECTION,
+        /**
+         * Blocks the decision literals of the solver and the assumptions. These
+         * literals imply the remaining literals of the solution by unit
+         * propagation, so the blocking clause excludes only this solution, but
+         * is usually much shorter than a full blocking clause.
+         */
+        DECISIONS
+    }
+
+    /**
+     * Number of blocking clauses after which the first compaction takes place.
+     * Afterwards, a compaction takes place whenever the number of blocking
+     * clauses has doubled.
+     */
+    public static final int INITIAL_COMPACTION_THRESHOLD = 1024;
+
+    private final SAT4JSolutionSolver solver;
+    private final long limit;
+    private final boolean forbidDuplicates;
+    private final Random random;
+    private final Runnable onClose;
+
+    private BlockingStrategy blockingStrategy = BlockingStrategy.FULL;
+    private int[] projection = new int[0];
+    private List<int[]> blockingClauses = new ArrayList<>();
+    private int blockingGroup;
+    private int compactionThreshold = INITIAL_COMPACTION_THRESHOLD;
+
+    private long count;
+    private boolean timeoutOccurred;
+    private boolean closed;
+
+    /**
+     * Creates a new spliterator.
+     *
+     * @param solver           the solver
+     * @param limit            the maximum number of solutions
+     * @param forbidDuplicates whether a blocking clause is added for each
+     *                         solution
+     * @param random           if not {@code null}, the variable order of the
+     *                         solver is shuffled with this generator after each
+     *                         solution
+     * @param onClose          is called once when the spliterator is closed
+     */
+    public SAT4JSolutionSpliterator(
+            SAT4JSolutionSolver solver, long limit, boolean forbidDuplicates, Random random, Runnable onClose) {
+        this.solver = solver;
+        this.limit = limit;
+        this.forbidDuplicates = forbidDuplicates;
+        this.random = random;
+        this.onClose = onClose;
+    }
+
+    public SAT4JSolutionSpliterator(SAT4JSolutionSolver solver, long limit, boolean forbidDuplicates) {
+        this(solver, limit, forbidDuplicates, null, () -> {});
+    }
+
+    /**
+     * Sets the literals of the blocking clauses. Has to be called before the
+     * first solution is requested.
+     *
+     * @param blockingStrategy the blocking strategy
+     * @param projection       the projection variables, only used by
+     *                         {@link BlockingStrategy#PROJECTION}
+     */
+    public void setBlockingStrategy(BlockingStrategy blockingStrategy, int... projection) {
+        this.blockingStrategy = Objects.requireNonNull(blockingStrategy);
+        this.projection = Objects.requireNonNull(projection);
+        solver.setDecisionRecording(blockingStrategy == BlockingStrategy.DECISIONS);
+    }
+
+    public BlockingStrategy getBlockingStrategy() {
+        return blockingStrategy;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super BooleanSolution> action) {
+        if (closed) {
+            return false;
+        }
+        if (count >= limit) {
+            close();
+            return false;
+        }
+        final Result<BooleanSolution> solution = solver.findSolution();
+        if (solution.isEmpty()) {
+            timeoutOccurred = solver.isTimeoutOccurred();
+            close();
+            return false;
+        }
+        count++;
+        if (forbidDuplicates) {
+            addBlockingClause(getBlockingClause(solution.get().get()));
+        }
+        if (random != null) {
+            solver.shuffleOrder(random);
+        }
+        action.accept(solution.get());
+        return true;
+    }
+
+    private int[] getBlockingClause(int[] solution) {
+        switch (blockingStrategy) {
+            case PROJECTION: {
+                final int[] clause = new int[projection.length];
+                int size = 0;
+                for (final int variable : projection) {
+                    final int literal = solution[Math.abs(variable) - 1];
+                    if (literal != 0) {
+                        clause[size++] = -literal;
+                    }
+                }
+                return sort(Arrays.copyOf(clause, size));
+            }
+            case DECISIONS: {
+                final int[] decisions = solver.getLastDecisions();
+                final int[] assumptions = solver.getAssignment().get();
+                final int[] clause = new int[decisions.length + assumptions.length];
+                final boolean[] contained = new boolean[solution.length + 1];
+                int size = 0;
+                for (final int[] literals : new int[][] {decisions, assumptions}) {
+                    for (final int literal : literals) {
+                        final int variable = Math.abs(literal);
+                        if (variable < contained.length && !contained[variable]) {
+                            contained[variable] = true;
+                            clause[size++] = -literal;
+                        }
+                    }
+                }
+                return sort(Arrays.copyOf(clause, size));
+            }
+            case FULL:
+            default: {
+                final int[] clause = new int[solution.length];
+                int size = 0;
+                for (final int literal : solution) {
+                    if (literal != 0) {
+                        clause[size++] = -literal;
+                    }
+                }
+                return Arrays.copyOf(clause, size);
+            }
+        }
+    }
+
+    /**
+     * Adds a blocking clause to the group of blocking clauses. During a
+     * compaction, this group is retracted and the compacted clauses are added to
+     * a new group.
+     */
+    private void addBlockingClause(int[] clause) {
+        final SAT4JClauseList clauseList = solver.getClauseList();
+        if (blockingGroup == 0) {
+            blockingGroup = clauseList.newGroup();
+        }
+        clauseList.addToGroup(blockingGroup, clause);
+        blockingClauses.add(clause);
+        if (blockingClauses.size() >= compactionThreshold) {
+            final List<int[]> compactedClauses = compact(blockingClauses);
+            if (compactedClauses.size() < blockingClauses.size()) {
+                clauseList.retractGroup(blockingGroup);
+                blockingGroup = clauseList.newGroup();
+                for (final int[] compactedClause : compactedClauses) {
+                    clauseList.addToGroup(blockingGroup, compactedClause);
+                }
+                blockingClauses = compactedClauses;
+            }
+            compactionThreshold = Math.max(INITIAL_COMPACTION_THRESHOLD, blockingClauses.size() << 1);
+        }
+    }
+
+    /**
+     * Compacts a list of clauses by repeatedly replacing two clauses that only
+     * differ in the sign of a single literal by their resolvent. The resulting
+     * clauses are equivalent to the given clauses. Each clause must be sorted
+     * by variable.
+     *
+     * @param clauses the clauses
+     * @return the compacted clauses
+     */
+    static List<int[]> compact(List<int[]> clauses) {
+        LinkedHashSet<ClauseKey> currentClauses = new LinkedHashSet<>();
+        for (final int[] clause : clauses) {
+            currentClauses.add(new ClauseKey(clause));
+        }
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            final LinkedHashSet<ClauseKey> nextClauses = new LinkedHashSet<>();
+            final HashSet<ClauseKey> mergedClauses = new HashSet<>();
+            for (final ClauseKey clause : currentClauses) {
+                if (mergedClauses.contains(clause)) {
+                    continue;
+                }
+                final int[] literals = clause.literals;
+                for (int i = 0; i < literals.length; i++) {
+                    final int[] partnerLiterals = Arrays.copyOf(literals, literals.length);
+                    partnerLiterals[i] = -partnerLiterals[i];
+                    final ClauseKey partner = new ClauseKey(partnerLiterals);
+                    if (!mergedClauses.contains(partner) && currentClauses.contains(partner)) {
+                        mergedClauses.add(clause);
+                        mergedClauses.add(partner);
+                        final int[] resolvent = new int[literals.length - 1];
+                        System.arraycopy(literals, 0, resolvent, 0, i);
+                        System.arraycopy(literals, i + 1, resolvent, i, resolvent.length - i);
+                        nextClauses.add(new ClauseKey(resolvent));
+                        changed = true;
+                        break;
+                    }
+                }
+                if (!mergedClauses.contains(clause)) {
+                    nextClauses.add(clause);
+                }
+            }
+            currentClauses = nextClauses;
+        }
+        final List<int[]> compactedClauses = new ArrayList<>(currentClauses.size());
+        for (final ClauseKey clause : currentClauses) {
+            compactedClauses.add(clause.literals);
+        }
+        return compactedClauses;
+    }
+
+    private static int[] sort(int[] literals) {
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = literals[i] > 0 ? literals[i] << 1 : ((-literals[i]) << 1) | 1;
+        }
+        Arrays.sort(literals);
+        for (int i = 0; i < literals.length; i++) {
+            literals[i] = (literals[i] & 1) == 0 ? literals[i] >>> 1 : -(literals[i] >>> 1);
+        }
+        return literals;
+    }
+
+    private static final class ClauseKey {
+        private final int[] literals;
+        private final int hashCode;
+
+        private ClauseKey(int[] literals) {
+            this.literals = literals;
+            hashCode = Arrays.hashCode(literals);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof ClauseKey && Arrays.equals(literals, ((ClauseKey) obj).literals);
+        }
+    }
+
+    @Override
+    public Spliterator<BooleanSolution> trySplit() {
+        return null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return closed ? 0 : limit - count;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+
+    /**
+     * Returns the number of solutions that were passed to consumers so far.
+     *
+     * @return the number of solutions
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns whether the enumeration was stopped by the solver's timeout, such
+     * that the enumerated solutions are only a subset of all solutions.
+     *
+     * @return {@code true} if the timeout occurred
+     */
+    public boolean isTimeoutOccurred() {
+        return timeoutOccurred;
+    }
+
+    /**
+     * Returns a sequential stream of the remaining solutions. Closing the stream
+     * closes this spliterator.
+     *
+     * @return the stream
+     */
+    public Stream<BooleanSolution> stream() {
+        return StreamSupport.stream(this, false).onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            if (blockingStrategy == BlockingStrategy.DECISIONS) {
+                solver.setDecisionRecording(false);
+            }
+            onClose.run();
+        }
+    }
+}
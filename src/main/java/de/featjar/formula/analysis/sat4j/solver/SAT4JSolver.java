@@ -26,12 +26,27 @@ import de.featjar.formula.analysis.bool.ABooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.sat4j.core.LiteralsUtils;
 import org.sat4j.core.VecInt;
+import org.sat4j.minisat.core.ILits;
+import org.sat4j.minisat.core.Solver;
 import org.sat4j.specs.ContradictionException;
+import org.sat4j.specs.IConstr;
 import org.sat4j.specs.ISolver;
+import org.sat4j.specs.ISolverService;
+import org.sat4j.specs.RandomAccessModel;
 import org.sat4j.specs.TimeoutException;
+import org.sat4j.tools.SearchListenerAdapter;
 
 /**
  * Base class for solvers using Sat4J.
@@ -40,6 +55,26 @@ import org.sat4j.specs.TimeoutException;
  * @author Elias Kuiter
  */
 public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver {
+    /**
+     * Result of {@link #hasSolutions(List, boolean)} for an unsatisfiable query.
+     */
+    public static final byte UNSATISFIABLE = 0;
+    /**
+     * Result of {@link #hasSolutions(List, boolean)} for a satisfiable query.
+     */
+    public static final byte SATISFIABLE = 1;
+    /**
+     * Result of {@link #hasSolutions(List, boolean)} for a query that could not be
+     * decided within the timeout.
+     */
+    public static final byte TIMEOUT = 2;
+
+    /**
+     * Maximum number of models that are kept by
+     * {@link #hasSolutions(List, boolean)} to decide subsequent queries.
+     */
+    public static final int SHARED_MODEL_LIMIT = 64;
+
     protected final ISolver internalSolver = newInternalSolver();
     protected final SAT4JClauseList clauseList;
     protected final SAT4JAssignment assignment = new SAT4JAssignment();
@@ -48,6 +83,137 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
 
     protected boolean isTimeoutOccurred;
     protected boolean trivialContradictionFound;
+    protected boolean baseContradictionFound;
+    protected final int baseVariableCount;
+
+    private final VecInt batchAssumptions = new VecInt();
+    private final VecInt groupAssumptions = new VecInt();
+
+    private ClauseExchange clauseExchange;
+    private int clauseExchangeId;
+    private long clauseExchangePosition;
+
+    private SearchObserver searchObserver;
+    private boolean decisionRecording;
+    private final VecInt decisions = new VecInt();
+    private boolean[] decided = new boolean[0];
+    private int[] lastDecisions = new int[0];
+
+    /**
+     * Observes the search of the internal solver. Publishes short learned
+     * clauses to the clause exchange and records the decision literals of the
+     * last found solution. Clauses are only published while no clauses were
+     * added to the base formula, as they might depend on these clauses
+     * otherwise. SAT4J discards all learned clauses when a clause is removed,
+     * so no clause learned from removed clauses is published later.
+     */
+    private class SearchObserver extends SearchListenerAdapter<ISolverService> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void start() {
+            if (decisionRecording) {
+                clearDecisions();
+            }
+        }
+
+        @Override
+        public void assuming(int p) {
+            if (decisionRecording) {
+                final int variable = Math.abs(p);
+                if (variable >= decided.length) {
+                    decided = Arrays.copyOf(decided, Math.max(variable + 1, decided.length << 1));
+                }
+                if (!decided[variable]) {
+                    decided[variable] = true;
+                    decisions.push(p);
+                }
+            }
+        }
+
+        /**
+         * Literals are unassigned in reverse order of their assignment. Thus,
+         * an unassigned decision literal is the last one on the decision stack,
+         * which is truncated to the literal's decision level.
+         */
+        @Override
+        public void backtracking(int p) {
+            if (decisionRecording) {
+                final int variable = Math.abs(p);
+                if (variable < decided.length && decided[variable]) {
+                    int level = decisions.size();
+                    while (level > 0) {
+                        final int decision = decisions.get(--level);
+                        decided[Math.abs(decision)] = false;
+                        if (decision == p) {
+                            break;
+                        }
+                    }
+                    decisions.shrinkTo(level);
+                }
+            }
+        }
+
+        @Override
+        public void solutionFound(int[] model, RandomAccessModel lazyModel) {
+            if (decisionRecording) {
+                lastDecisions = decisions.toArray();
+            }
+        }
+
+        @Override
+        public void learnUnit(int p) {
+            if (isExportAllowed()) {
+                clauseExchange.export(clauseExchangeId, new int[] {p}, 1);
+            }
+        }
+
+        @Override
+        public void learn(IConstr constr) {
+            if (isExportAllowed()) {
+                final int size = constr.size();
+                final int lbd = size > clauseExchange.getMaximumLBD() ? computeLBD(constr) : size;
+                if (size <= 2 || lbd <= clauseExchange.getMaximumLBD()) {
+                    final int[] literals = new int[size];
+                    for (int i = 0; i < size; i++) {
+                        literals[i] = LiteralsUtils.toDimacs(constr.get(i));
+                    }
+                    clauseExchange.export(clauseExchangeId, literals, lbd);
+                }
+            }
+        }
+
+        private boolean isExportAllowed() {
+            return clauseExchange != null
+                    && clauseList.size() == clauseList.baseSize
+                    && clauseList.getFirstActivationVariable() == 0;
+        }
+
+        /**
+         * Counts the distinct decision levels of the literals of a clause. Stops
+         * counting as soon as the maximum literal block distance is exceeded.
+         */
+        private int computeLBD(IConstr constr) {
+            final ILits lits = ((Solver<?>) internalSolver).getVocabulary();
+            final int maximumLBD = clauseExchange.getMaximumLBD();
+            final int[] levels = new int[maximumLBD + 1];
+            int lbd = 0;
+            literalLoop:
+            for (int i = 0; i < constr.size(); i++) {
+                final int level = lits.getLevel(constr.get(i));
+                for (int j = 0; j < lbd; j++) {
+                    if (levels[j] == level) {
+                        continue literalLoop;
+                    }
+                }
+                levels[lbd++] = level;
+                if (lbd > maximumLBD) {
+                    break;
+                }
+            }
+            return lbd;
+        }
+    }
 
     /**
      * Replaces all values in {@code model} that are different in {@code otherModel}
@@ -92,6 +258,8 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
         } catch (ContradictionException ignored) {
             trivialContradictionFound = true;
         }
+        baseContradictionFound = trivialContradictionFound;
+        baseVariableCount = internalSolver.realNumberOfVariables();
     }
 
     protected abstract ISolver newInternalSolver();
@@ -135,10 +303,155 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
         return trivialContradictionFound;
     }
 
+    /**
+     * Stops the currently running satisfiability check of this solver, which
+     * then reports a timeout. May be called from any thread. Has no effect on
+     * subsequent checks.
+     */
+    public void interrupt() {
+        internalSolver.expireTimeout();
+    }
+
+    public ClauseExchange getClauseExchange() {
+        return clauseExchange;
+    }
+
+    /**
+     * Connects this solver to a clause exchange. Afterwards, the solver
+     * publishes short learned clauses to the exchange and imports the clauses
+     * learned by other solvers before each satisfiability check. All solvers
+     * connected to the same exchange must have an equal base formula. Clauses
+     * added to the base formula later on are respected, as learned clauses are
+     * only published while no clauses are added. Imported clauses are
+     * permanently added to the internal solver.
+     *
+     * @param clauseExchange the clause exchange or {@code null} to disconnect
+     *                       this solver
+     * @throws UnsupportedOperationException if the internal solver does not
+     *                                       support clause sharing
+     */
+    public void setClauseExchange(ClauseExchange clauseExchange) {
+        if (clauseExchange != null) {
+            if (!(internalSolver instanceof Solver)) {
+                throw new UnsupportedOperationException("Clause sharing requires a CDCL solver");
+            }
+            installSearchObserver();
+            clauseExchangeId = clauseExchange.register();
+            clauseExchangePosition = clauseExchange.getWriteIndex();
+        }
+        this.clauseExchange = clauseExchange;
+    }
+
+    /**
+     * Enables or disables recording the decision literals of found solutions.
+     * Together with the assumptions, the decision literals of a solution imply
+     * all its other literals by unit propagation. Thus, the negated decision
+     * literals and assumptions form a short clause that excludes exactly this
+     * solution.
+     *
+     * @param decisionRecording whether to record decision literals
+     * @throws UnsupportedOperationException if the internal solver does not
+     *                                       report its decisions
+     * @see #getLastDecisions()
+     */
+    public void setDecisionRecording(boolean decisionRecording) {
+        if (decisionRecording) {
+            if (!(internalSolver instanceof Solver)) {
+                throw new UnsupportedOperationException("Recording decisions requires a CDCL solver");
+            }
+            installSearchObserver();
+        }
+        this.decisionRecording = decisionRecording;
+        clearDecisions();
+        lastDecisions = new int[0];
+    }
+
+    public boolean isDecisionRecording() {
+        return decisionRecording;
+    }
+
+    /**
+     * Returns the decision literals of the last found solution. Requires that
+     * decision recording is enabled. Depending on the internal solver, the
+     * assumptions may be contained as well.
+     *
+     * @return the decision literals of the last found solution
+     */
+    public int[] getLastDecisions() {
+        return lastDecisions;
+    }
+
+    private void installSearchObserver() {
+        if (searchObserver == null) {
+            searchObserver = new SearchObserver();
+            internalSolver.setSearchListener(searchObserver);
+        }
+    }
+
+    private void clearDecisions() {
+        for (int i = 0; i < decisions.size(); i++) {
+            decided[Math.abs(decisions.get(i))] = false;
+        }
+        decisions.clear();
+    }
+
+    private void importSharedClauses() {
+        if (clauseExchange != null && !trivialContradictionFound) {
+            clauseExchangePosition =
+                    clauseExchange.importClauses(clauseExchangeId, clauseExchangePosition, this::addSharedClause);
+        }
+    }
+
+    private void addSharedClause(int[] literals) {
+        if (!trivialContradictionFound) {
+            try {
+                internalSolver.addClause(new VecInt(Arrays.copyOf(literals, literals.length)));
+            } catch (ContradictionException e) {
+                // shared clauses are implied by the base formula
+                trivialContradictionFound = true;
+                baseContradictionFound = true;
+            }
+        }
+    }
+
+    /**
+     * Resets this solver to the state after its construction. Removes all clauses
+     * that were added after construction, clears the assignment, removes the
+     * timeout, disconnects the clause exchange, and disables decision recording.
+     * Some changes of the internal solver cannot be undone (see
+     * {@link #isResettable()}).
+     */
+    public void reset() {
+        clauseList.reset();
+        assignment.clear();
+        setTimeout(Duration.ZERO);
+        globalTimeout = false;
+        isTimeoutOccurred = false;
+        trivialContradictionFound = baseContradictionFound;
+        clauseExchange = null;
+        decisionRecording = false;
+        clearDecisions();
+        lastDecisions = new int[0];
+    }
+
+    /**
+     * Returns whether {@link #reset()} restores the state of this solver after its
+     * construction. This is not the case once variables were created for clause
+     * groups or encodings (see {@link SAT4JClauseList#newGroup()} and
+     * {@link SAT4JClauseList#newVariable()}), as the internal solver keeps these
+     * variables and the clauses of retracted groups. Clauses imported from a
+     * clause exchange are kept as well, but are implied by the base formula.
+     *
+     * @return {@code true} if this solver can be reset to its initial state
+     */
+    public boolean isResettable() {
+        return internalSolver.realNumberOfVariables() == baseVariableCount;
+    }
+
     public Result<BooleanSolution> findSolution() {
         final Result<Boolean> hasSolution = hasSolution();
         return hasSolution.isPresent()
-                ? hasSolution().get() ? Result.of(getSolution()) : Result.empty()
+                ? hasSolution.get() ? Result.of(getSolution()) : Result.empty()
                 : Result.empty(hasSolution.getProblems());
     }
 
@@ -147,13 +460,14 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
     }
 
     protected Result<Boolean> hasSolution(VecInt integers) {
+        importSharedClauses();
         if (trivialContradictionFound) {
             return Result.of(Boolean.FALSE);
         }
 
         try {
             FeatJAR.log().debug("calling SAT4J");
-            if (internalSolver.isSatisfiable(integers, globalTimeout)) {
+            if (internalSolver.isSatisfiable(withActiveGroups(integers), globalTimeout)) {
                 FeatJAR.log().debug("has solution");
                 return Result.of(Boolean.TRUE);
             } else {
@@ -167,6 +481,26 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
         }
     }
 
+    /**
+     * Appends the activation variables of all active clause groups to the given
+     * assumptions.
+     */
+    private VecInt withActiveGroups(VecInt integers) {
+        final VecInt activeGroups = clauseList.getActiveGroups();
+        if (activeGroups.isEmpty()) {
+            return integers;
+        }
+        groupAssumptions.clear();
+        groupAssumptions.ensure(integers.size() + activeGroups.size());
+        for (int i = 0; i < integers.size(); i++) {
+            groupAssumptions.unsafePush(integers.unsafeGet(i));
+        }
+        for (int i = 0; i < activeGroups.size(); i++) {
+            groupAssumptions.unsafePush(activeGroups.unsafeGet(i));
+        }
+        return groupAssumptions;
+    }
+
     public Result<Boolean> hasSolution() {
         return hasSolution(assignment.getIntegers());
     }
@@ -179,13 +513,197 @@ public abstract class SAT4JSolver implements de.featjar.formula.analysis.ISolver
         return hasSolution(new VecInt(assignment.get()));
     }
 
+    /**
+     * Decides the satisfiability of multiple queries. Each query is an array of
+     * literals that is assumed in addition to the global assignment of this
+     * solver. All queries share one assumption buffer and no {@link Result} is
+     * created per query.
+     *
+     * @param queries     the assumptions for each query
+     * @param shareModels whether models found for previous queries should be used
+     *                    to decide subsequent queries without calling the solver
+     * @return an array containing {@link #SATISFIABLE}, {@link #UNSATISFIABLE}, or
+     *         {@link #TIMEOUT} for each query
+     */
+    public byte[] hasSolutions(List<int[]> queries, boolean shareModels) {
+        final byte[] results = new byte[queries.size()];
+        if (trivialContradictionFound) {
+            return results;
+        }
+        final VecInt globalAssumptions = assignment.getIntegers();
+        final int[][] models = shareModels ? new int[SHARED_MODEL_LIMIT][] : null;
+        int modelCount = 0;
+        queryLoop:
+        for (int i = 0; i < results.length; i++) {
+            final int[] query = queries.get(i);
+            if (shareModels) {
+                modelLoop:
+                for (int j = Math.min(modelCount, SHARED_MODEL_LIMIT) - 1; j >= 0; j--) {
+                    final int[] model = models[j];
+                    for (int k = 0; k < query.length; k++) {
+                        final int l = query[k];
+                        if (model[Math.abs(l) - 1] != l) {
+                            continue modelLoop;
+                        }
+                    }
+                    results[i] = SATISFIABLE;
+                    continue queryLoop;
+                }
+            }
+            final VecInt activeGroups = clauseList.getActiveGroups();
+            batchAssumptions.clear();
+            batchAssumptions.ensure(globalAssumptions.size() + query.length + activeGroups.size());
+            for (int k = 0; k < globalAssumptions.size(); k++) {
+                batchAssumptions.unsafePush(globalAssumptions.unsafeGet(k));
+            }
+            for (int k = 0; k < query.length; k++) {
+                batchAssumptions.unsafePush(query[k]);
+            }
+            for (int k = 0; k < activeGroups.size(); k++) {
+                batchAssumptions.unsafePush(activeGroups.unsafeGet(k));
+            }
+            importSharedClauses();
+            if (trivialContradictionFound) {
+                break;
+            }
+            try {
+                if (internalSolver.isSatisfiable(batchAssumptions, globalTimeout)) {
+                    results[i] = SATISFIABLE;
+                    if (shareModels) {
+                        models[modelCount++ % SHARED_MODEL_LIMIT] = internalSolver.model();
+                    }
+                } else {
+                    results[i] = UNSATISFIABLE;
+                }
+            } catch (final TimeoutException e) {
+                isTimeoutOccurred = true;
+                results[i] = TIMEOUT;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Decides the satisfiability of multiple queries using multiple solvers in
+     * parallel. The queries are split into contiguous blocks, each of which is
+     * decided by a separate solver via {@link #hasSolutions(List, boolean)}. Thus,
+     * the global assignment of each generated solver is assumed for its queries.
+     * The solvers share short learned clauses via a {@link ClauseExchange}. After
+     * deciding its queries, each solver is disconnected from the exchange and
+     * {@link SAT4JSolverPool#release(SAT4JSolver) released}, which returns it to
+     * the shared pool if it was acquired from there.
+     *
+     * @param solverGenerator creates a new solver for each thread, all of which
+     *                        must have an equal base formula
+     * @param queries         the assumptions for each query
+     * @param shareModels     whether models should be shared between queries of
+     *                        the same solver
+     * @param threadCount     the number of threads
+     * @return an array containing {@link #SATISFIABLE}, {@link #UNSATISFIABLE}, or
+     *         {@link #TIMEOUT} for each query
+     */
+    public static byte[] hasSolutions(
+            Supplier<? extends SAT4JSolver> solverGenerator,
+            List<int[]> queries,
+            boolean shareModels,
+            int threadCount) {
+        final int size = queries.size();
+        final int partitionCount = Math.max(1, Math.min(threadCount, size));
+        if (partitionCount == 1) {
+            final SAT4JSolver solver = solverGenerator.get();
+            try {
+                return solver.hasSolutions(queries, shareModels);
+            } finally {
+                SAT4JSolverPool.getInstance().release(solver);
+            }
+        }
+        final byte[] results = new byte[size];
+        final ClauseExchange clauseExchange = new ClauseExchange();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(partitionCount);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(partitionCount);
+            for (int i = 0; i < partitionCount; i++) {
+                final int from = (int) ((long) size * i / partitionCount);
+                final int to = (int) ((long) size * (i + 1) / partitionCount);
+                futures.add(threadPool.submit(() -> {
+                    final SAT4JSolver solver = solverGenerator.get();
+                    try {
+                        solver.setClauseExchange(clauseExchange);
+                        final byte[] partialResults = solver.hasSolutions(queries.subList(from, to), shareModels);
+                        System.arraycopy(partialResults, 0, results, from, partialResults.length);
+                    } finally {
+                        solver.setClauseExchange(null);
+                        SAT4JSolverPool.getInstance().release(solver);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            threadPool.shutdownNow();
+        }
+        return results;
+    }
+
     public BooleanSolution getSolution() {
-        int[] internalSolution = getInternalSolution();
-        final int[] sortedIntegers = new int[internalSolution.length];
-        Arrays.stream(internalSolution)
-                .filter(integer -> integer != 0)
-                .forEach(integer -> sortedIntegers[Math.abs(integer) - 1] = integer);
-        return new BooleanSolution(sortedIntegers, false);
+        return new BooleanSolution(fillSolution(new int[getSolutionLength()]), false);
+    }
+
+    /**
+     * Returns the number of variables in a solution of this solver, which excludes
+     * the activation variables of clause groups.
+     */
+    private int getSolutionLength() {
+        final int variableCount = internalSolver.realNumberOfVariables();
+        final int firstActivationVariable = clauseList.getFirstActivationVariable();
+        return firstActivationVariable > 0 ? Math.min(firstActivationVariable - 1, variableCount) : variableCount;
+    }
+
+    /**
+     * Writes the last model found by this solver into the given array, such that
+     * {@code solution[i]} contains the literal of variable {@code i + 1} or zero,
+     * if the variable is unknown to the solver. Variables greater than the length
+     * of the array are ignored. In contrast to {@link #getInternalSolution()}, the
+     * model is read without allocating a new array.
+     *
+     * @param solution the array to write into
+     * @return the given array
+     */
+    public int[] fillSolution(int[] solution) {
+        final int length = Math.min(solution.length, internalSolver.realNumberOfVariables());
+        for (int i = 0; i < length; i++) {
+            solution[i] = internalSolver.model(i + 1) ? i + 1 : -(i + 1);
+        }
+        Arrays.fill(solution, length, solution.length, 0);
+        return solution;
+    }
+
+    /**
+     * Writes the last model found by this solver into the given bit set, such that
+     * bit {@code i} is set if and only if variable {@code i + 1} is positive in
+     * the model.
+     *
+     * @param solution the bit set to write into
+     * @return the given bit set
+     */
+    public BitSet fillSolution(BitSet solution) {
+        solution.clear();
+        final int length = getSolutionLength();
+        for (int i = 0; i < length; i++) {
+            if (internalSolver.model(i + 1)) {
+                solution.set(i);
+            }
+        }
+        return solution;
     }
 
     public int[] getInternalSolution() {
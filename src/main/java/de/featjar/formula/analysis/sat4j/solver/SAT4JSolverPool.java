@@ -0,0 +1,217 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import de.featjar.base.FeatJAR;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caches initialized solvers for clause lists, such that subsequent analyses on
+ * the same formula do not need to add all clauses to a new solver again. A
+ * solver is {@link #acquire(Class, BooleanClauseList, Function) acquired} for a
+ * clause list and must be {@link #release(SAT4JSolver) released} after use.
+ * Released solvers are {@link SAT4JSolver#reset() reset} to their base formula
+ * and handed out again for an equal clause list. Solvers that cannot be reset
+ * to their initial state (see {@link SAT4JSolver#isResettable()}) are discarded.
+ * The number of idle solvers is bounded; the least recently used ones are
+ * discarded first.
+ */
+public class SAT4JSolverPool {
+
+    public static final int DEFAULT_CAPACITY = 2 * Runtime.getRuntime().availableProcessors();
+
+    private static final SAT4JSolverPool instance = new SAT4JSolverPool(DEFAULT_CAPACITY);
+
+    public static SAT4JSolverPool getInstance() {
+        return instance;
+    }
+
+    private static final class Key {
+        private final Class<?> solverClass;
+        private final BooleanClauseList clauseList;
+        private final int hashCode;
+
+        private Key(Class<?> solverClass, BooleanClauseList clauseList) {
+            this.solverClass = solverClass;
+            this.clauseList = clauseList;
+            int hash = 31 * solverClass.hashCode() + clauseList.getVariableCount();
+            for (BooleanClause clause : clauseList.getAll()) {
+                hash = 31 * hash + Arrays.hashCode(clause.get());
+            }
+            hashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            if (hashCode != other.hashCode || solverClass != other.solverClass) {
+                return false;
+            }
+            if (clauseList == other.clauseList) {
+                return true;
+            }
+            if (clauseList.getVariableCount() != other.clauseList.getVariableCount()
+                    || clauseList.size() != other.clauseList.size()) {
+                return false;
+            }
+            final List<BooleanClause> clauses = clauseList.getAll();
+            final List<BooleanClause> otherClauses = other.clauseList.getAll();
+            for (int i = 0; i < clauses.size(); i++) {
+                if (!Arrays.equals(clauses.get(i).get(), otherClauses.get(i).get())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final int capacity;
+    private final LinkedHashMap<Key, ArrayDeque<SAT4JSolver>> idleSolvers = new LinkedHashMap<>(16, 0.75f, true);
+    private final IdentityHashMap<SAT4JSolver, Key> usedSolvers = new IdentityHashMap<>();
+    private int idleCount;
+
+    /**
+     * Creates a new solver pool.
+     *
+     * @param capacity the maximum number of idle solvers kept by this pool
+     */
+    public SAT4JSolverPool(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(String.valueOf(capacity));
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns a solver of the given type for the given clause list. If the pool
+     * contains an idle solver for an equal clause list, it is returned. Otherwise,
+     * a new solver is created with the given factory.
+     *
+     * @param <T>           the type of the solver
+     * @param solverClass   the type of the solver
+     * @param clauseList    the base formula of the solver
+     * @param solverFactory creates a new solver for a clause list
+     * @return a solver for the given clause list
+     */
+    public <T extends SAT4JSolver> T acquire(
+            Class<? extends T> solverClass,
+            BooleanClauseList clauseList,
+            Function<BooleanClauseList, ? extends T> solverFactory) {
+        final Key key = new Key(solverClass, clauseList);
+        synchronized (this) {
+            final ArrayDeque<SAT4JSolver> solvers = idleSolvers.get(key);
+            if (solvers != null) {
+                final SAT4JSolver solver = solvers.pop();
+                if (solvers.isEmpty()) {
+                    idleSolvers.remove(key);
+                }
+                idleCount--;
+                usedSolvers.put(solver, key);
+                return solverClass.cast(solver);
+            }
+        }
+        final T solver = solverFactory.apply(clauseList);
+        if (solver.getClass() == solverClass) {
+            synchronized (this) {
+                usedSolvers.put(solver, new Key(solverClass, new BooleanClauseList(clauseList)));
+            }
+        }
+        return solver;
+    }
+
+    /**
+     * Returns a solver to this pool. Solvers that were not acquired from this
+     * pool or cannot be reset to their initial state are ignored.
+     *
+     * @param solver the solver
+     */
+    public void release(SAT4JSolver solver) {
+        final Key key;
+        synchronized (this) {
+            key = usedSolvers.remove(solver);
+        }
+        if (key == null || capacity == 0) {
+            return;
+        }
+        try {
+            solver.reset();
+        } catch (RuntimeException e) {
+            FeatJAR.log().warning("Could not reset solver: %s", e.getMessage());
+            return;
+        }
+        if (!solver.isResettable()) {
+            return;
+        }
+        synchronized (this) {
+            idleSolvers.computeIfAbsent(key, k -> new ArrayDeque<>()).push(solver);
+            idleCount++;
+            final Iterator<Map.Entry<Key, ArrayDeque<SAT4JSolver>>> iterator =
+                    idleSolvers.entrySet().iterator();
+            while (idleCount > capacity && iterator.hasNext()) {
+                final ArrayDeque<SAT4JSolver> solvers = iterator.next().getValue();
+                while (idleCount > capacity && !solvers.isEmpty()) {
+                    solvers.removeLast();
+                    idleCount--;
+                }
+                if (solvers.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Discards all idle solvers.
+     */
+    public synchronized void clear() {
+        idleSolvers.clear();
+        idleCount = 0;
+    }
+
+    /**
+     * Returns the number of idle solvers in this pool.
+     *
+     * @return the number of idle solvers
+     */
+    public synchronized int getIdleCount() {
+        return idleCount;
+    }
+}
@@ -21,14 +21,19 @@
 package de.featjar.formula.analysis.sat4j.solver;
 
 import de.featjar.formula.analysis.bool.ABooleanAssignment;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 /**
  * Uses a sample of configurations to achieve a phase selection that corresponds
  * to a uniform distribution of configurations in the configuration space.
+ * <p>
+ * A sample is compatible if it contains no negation of a set literal. For each
+ * variable, bitmaps store which samples contain the variable positively or
+ * negatively. The compatible samples are kept as a bitmap for each number of
+ * set literals, so setting a literal intersects two bitmaps and unsetting the
+ * last set literal only reverts to the previous bitmap. Once no compatible
+ * sample is left, setting further literals is free.
  *
  * @author Sebastian Krieter
  */
@@ -36,34 +41,68 @@ public class SampleDistribution extends ALiteralDistribution {
 
     private static final long serialVersionUID = -3902620512089122369L;
 
-    private final ArrayList<ABooleanAssignment> samples = new ArrayList<>();
-    private int startIndex;
+    private final int sampleCount;
+    private final int wordCount;
+    private final long[][] positiveSamples;
+    private final long[][] negativeSamples;
 
     private final byte[] model;
+    private final int[] setLiterals;
+    private long[][] compatibleSamples;
+    private final int[] compatibleCounts;
+    private int level;
 
     public SampleDistribution(List<ABooleanAssignment> sample) {
-        samples.addAll(sample);
-        startIndex = 0;
-        model = new byte[sample.get(0).size()];
+        sampleCount = sample.size();
+        wordCount = (sampleCount + 63) >>> 6;
+        final int variableCount = sample.get(0).size();
+        positiveSamples = new long[variableCount][wordCount];
+        negativeSamples = new long[variableCount][wordCount];
+        for (int i = 0; i < sampleCount; i++) {
+            final int[] literals = sample.get(i).get();
+            for (int j = 0; j < variableCount; j++) {
+                if (literals[j] > 0) {
+                    positiveSamples[j][i >>> 6] |= 1L << i;
+                } else if (literals[j] < 0) {
+                    negativeSamples[j][i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        model = new byte[variableCount];
+        setLiterals = new int[variableCount];
+        compatibleCounts = new int[variableCount + 1];
+        compatibleSamples = new long[Math.min(variableCount + 1, 16)][];
+        compatibleSamples[0] = new long[wordCount];
+        for (int i = 0; i < sampleCount; i++) {
+            compatibleSamples[0][i >>> 6] |= 1L << i;
+        }
+        compatibleCounts[0] = sampleCount;
     }
 
     @Override
     public void reset() {
         Arrays.fill(model, (byte) 0);
-        startIndex = 0;
+        level = 0;
     }
 
+    /**
+     * Unsets a variable. If it is the last set variable, the previous bitmap of
+     * compatible samples is restored. Otherwise, the bitmaps of all subsequently
+     * set literals are recomputed.
+     */
     @Override
     public void unset(int var) {
         final int index = var - 1;
-        final byte sign = model[index];
-        if (sign != 0) {
+        if (index < model.length && model[index] != 0) {
             model[index] = 0;
-            final int literal = sign > 0 ? var : -var;
-            for (int i = 0; i < startIndex; i++) {
-                if (samples.get(i).get()[index] == -literal) {
-                    Collections.swap(samples, i--, --startIndex);
-                }
+            int position = level - 1;
+            while (Math.abs(setLiterals[position]) != var) {
+                position--;
+            }
+            final int[] subsequentLiterals = Arrays.copyOfRange(setLiterals, position + 1, level);
+            level = position;
+            for (final int literal : subsequentLiterals) {
+                push(literal);
             }
         }
     }
@@ -71,34 +110,82 @@ public class SampleDistribution extends ALiteralDistribution {
     @Override
     public void set(int literal) {
         final int index = Math.abs(literal) - 1;
-        if (model[index] == 0) {
+        if (index < model.length && model[index] == 0) {
             model[index] = (byte) (literal > 0 ? 1 : -1);
-            for (int i = startIndex; i < samples.size(); i++) {
-                if (samples.get(i).get()[index] == -literal) {
-                    Collections.swap(samples, i, startIndex++);
-                }
-            }
+            push(literal);
         }
     }
 
+    /**
+     * Computes the compatible samples for the next level by removing all samples
+     * that contain the negation of the given literal.
+     */
+    private void push(int literal) {
+        setLiterals[level] = literal;
+        final int count = compatibleCounts[level];
+        level++;
+        if (count == 0) {
+            compatibleCounts[level] = 0;
+            return;
+        }
+        if (level >= compatibleSamples.length) {
+            compatibleSamples = Arrays.copyOf(compatibleSamples, Math.min(model.length + 1, level << 1));
+        }
+        if (compatibleSamples[level] == null) {
+            compatibleSamples[level] = new long[wordCount];
+        }
+        final long[] previous = compatibleSamples[level - 1];
+        final long[] current = compatibleSamples[level];
+        final long[] conflicting = literal > 0 ? negativeSamples[literal - 1] : positiveSamples[-literal - 1];
+        int newCount = 0;
+        for (int i = 0; i < wordCount; i++) {
+            final long word = previous[i] & ~conflicting[i];
+            current[i] = word;
+            newCount += Long.bitCount(word);
+        }
+        compatibleCounts[level] = newCount;
+    }
+
     @Override
     public int getRandomLiteral(int var) {
-        if (samples.size() > (startIndex + 1)) {
-            return (random.nextInt((samples.size() - startIndex) + 2) < (getPositiveCount(var - 1) + 1)) ? var : -var;
+        final int compatibleCount = compatibleCounts[level];
+        if (compatibleCount > 1 && var <= model.length) {
+            return (random.nextInt(compatibleCount + 2) < (getPositiveCount(var - 1) + 1)) ? var : -var;
         } else {
             return random.nextBoolean() ? var : -var;
         }
     }
 
+    /**
+     * Returns the number of compatible samples that contain the variable with
+     * the given index positively.
+     *
+     * @param index the index of the variable
+     * @return the number of compatible samples
+     */
     public int getPositiveCount(int index) {
+        if (compatibleCounts[level] == 0) {
+            return 0;
+        }
+        final long[] compatible = compatibleSamples[level];
+        final long[] positive = positiveSamples[index];
         int sum = 0;
-        for (final ABooleanAssignment l : samples.subList(startIndex, samples.size())) {
-            sum += (~l.get()[index]) >>> 31;
+        for (int i = 0; i < wordCount; i++) {
+            sum += Long.bitCount(compatible[i] & positive[i]);
         }
         return sum;
     }
 
+    /**
+     * Returns the number of samples that contain no negation of a set literal.
+     *
+     * @return the number of compatible samples
+     */
+    public int getCompatibleCount() {
+        return compatibleCounts[level];
+    }
+
     public int getTotalCount() {
-        return samples.size() + startIndex;
+        return sampleCount;
     }
 }
@@ -53,7 +53,7 @@ public class FixedOrderHeap extends VarOrderHeap {
         for (int i = 1; i < nlength; i++) {
             assert i > 0;
             assert i <= this.lits.nVars() : "" + this.lits.nVars() + "/" + i;
-            final int x = order[i - 1];
+            final int x = i <= order.length ? order[i - 1] : i;
             activity[x] = 0.0;
             if (lits.belongsToPool(x)) {
                 heap.insert(x);
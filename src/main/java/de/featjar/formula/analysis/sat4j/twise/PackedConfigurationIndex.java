@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.twise;
+
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import java.util.Arrays;
+
+/**
+ * Column-oriented index of a list of configurations. For each literal, the
+ * index stores a bitmap with one bit per configuration that contains the
+ * literal. Thus, checking whether an interaction is covered by any
+ * configuration amounts to intersecting the bitmaps of its literals word by
+ * word.
+ * <p>
+ * Bitmaps are allocated lazily and grow on demand, such that configurations
+ * can be added and extended incrementally. This class is not thread-safe;
+ * concurrent reads are safe as long as the index is not modified.
+ */
+public class PackedConfigurationIndex {
+
+    private static final long[] EMPTY = new long[0];
+
+    private final int variableCount;
+    private final long[][] bitmaps;
+    private final int[] counts;
+    private int size;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param variableCount the number of variables of all configurations
+     */
+    public PackedConfigurationIndex(int variableCount) {
+        this.variableCount = variableCount;
+        bitmaps = new long[2 * variableCount][];
+        Arrays.fill(bitmaps, EMPTY);
+        counts = new int[2 * variableCount];
+    }
+
+    /**
+     * Appends a configuration to this index.
+     *
+     * @param configuration the literals of the configuration, with zero for
+     *                      unassigned variables
+     * @return the index of the added configuration
+     */
+    public int add(int[] configuration) {
+        final int configurationIndex = size;
+        add(configuration, configurationIndex);
+        size = configurationIndex + 1;
+        return configurationIndex;
+    }
+
+    /**
+     * Adds all literals of a configuration to the configuration with the given
+     * index.
+     *
+     * @param configuration      the literals of the configuration, with zero for
+     *                           unassigned variables
+     * @param configurationIndex the index of the configuration
+     */
+    public void add(int[] configuration, int configurationIndex) {
+        for (int literal : configuration) {
+            if (literal != 0) {
+                set(literal, configurationIndex);
+            }
+        }
+    }
+
+    /**
+     * Adds a literal to the configuration with the given index.
+     *
+     * @param literal            the literal
+     * @param configurationIndex the index of the configuration
+     */
+    public void set(int literal, int configurationIndex) {
+        final int vertexIndex = ModalImplicationGraph.getVertexIndex(literal);
+        final int wordIndex = configurationIndex >>> 6;
+        long[] bitmap = bitmaps[vertexIndex];
+        if (wordIndex >= bitmap.length) {
+            bitmap = Arrays.copyOf(bitmap, Math.max(wordIndex + 1, 2 * bitmap.length));
+            bitmaps[vertexIndex] = bitmap;
+        }
+        final long bit = 1L << configurationIndex;
+        if ((bitmap[wordIndex] & bit) == 0) {
+            bitmap[wordIndex] |= bit;
+            counts[vertexIndex]++;
+        }
+        if (configurationIndex >= size) {
+            size = configurationIndex + 1;
+        }
+    }
+
+    /**
+     * Checks whether the configuration with the given index contains a literal.
+     *
+     * @param literal            the literal
+     * @param configurationIndex the index of the configuration
+     * @return {@code true} if the configuration contains the literal, {@code false} otherwise
+     */
+    public boolean contains(int literal, int configurationIndex) {
+        final long[] bitmap = bitmaps[ModalImplicationGraph.getVertexIndex(literal)];
+        final int wordIndex = configurationIndex >>> 6;
+        return wordIndex < bitmap.length && (bitmap[wordIndex] & (1L << configurationIndex)) != 0;
+    }
+
+    /**
+     * Checks whether at least one configuration contains all given literals.
+     *
+     * @param literals the literals of the interaction
+     * @return {@code true} if the interaction is covered, {@code false} otherwise
+     */
+    public boolean isCovered(int... literals) {
+        switch (literals.length) {
+            case 0:
+                return size > 0;
+            case 1:
+                return counts[ModalImplicationGraph.getVertexIndex(literals[0])] > 0;
+            case 2:
+                return isCovered(
+                        bitmaps[ModalImplicationGraph.getVertexIndex(literals[0])],
+                        bitmaps[ModalImplicationGraph.getVertexIndex(literals[1])]);
+            case 3:
+                return isCovered(
+                        bitmaps[ModalImplicationGraph.getVertexIndex(literals[0])],
+                        bitmaps[ModalImplicationGraph.getVertexIndex(literals[1])],
+                        bitmaps[ModalImplicationGraph.getVertexIndex(literals[2])]);
+            default:
+                final long[][] selectedBitmaps = new long[literals.length][];
+                int wordCount = Integer.MAX_VALUE;
+                for (int i = 0; i < literals.length; i++) {
+                    final long[] bitmap = bitmaps[ModalImplicationGraph.getVertexIndex(literals[i])];
+                    selectedBitmaps[i] = bitmap;
+                    wordCount = Math.min(wordCount, bitmap.length);
+                }
+                for (int w = 0; w < wordCount; w++) {
+                    long word = selectedBitmaps[0][w];
+                    for (int i = 1; i < selectedBitmaps.length && word != 0; i++) {
+                        word &= selectedBitmaps[i][w];
+                    }
+                    if (word != 0) {
+                        return true;
+                    }
+                }
+                return false;
+        }
+    }
+
+    private static boolean isCovered(long[] bitmap1, long[] bitmap2) {
+        final int wordCount = Math.min(bitmap1.length, bitmap2.length);
+        for (int w = 0; w < wordCount; w++) {
+            if ((bitmap1[w] & bitmap2[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isCovered(long[] bitmap1, long[] bitmap2, long[] bitmap3) {
+        final int wordCount = Math.min(Math.min(bitmap1.length, bitmap2.length), bitmap3.length);
+        for (int w = 0; w < wordCount; w++) {
+            if ((bitmap1[w] & bitmap2[w] & bitmap3[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of configurations in this index.
+     *
+     * @return the number of configurations
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of variables of all configurations.
+     *
+     * @return the number of variables
+     */
+    public int getVariableCount() {
+        return variableCount;
+    }
+}
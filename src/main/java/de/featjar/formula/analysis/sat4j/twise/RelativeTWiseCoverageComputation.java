@@ -25,7 +25,6 @@ import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
-import de.featjar.base.data.ExpandableIntegerList;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanSolution;
@@ -50,7 +49,6 @@ public class RelativeTWiseCoverageComputation extends AComputation<CoverageStati
 
     public class Environment {
         private final CoverageStatistic statistic = new CoverageStatistic(t);
-        private final ExpandableIntegerList[] selectedIndexedSolutions = new ExpandableIntegerList[t];
         private final int[] literals = new int[t];
 
         public CoverageStatistic getStatistic() {
@@ -70,8 +68,8 @@ public class RelativeTWiseCoverageComputation extends AComputation<CoverageStati
         super(other);
     }
 
-    private ArrayList<ExpandableIntegerList> indexedSolutions;
-    private ArrayList<ExpandableIntegerList> indexedReferenceSolutions;
+    private PackedConfigurationIndex indexedSolutions;
+    private PackedConfigurationIndex indexedReferenceSolutions;
     private ArrayList<Environment> statisticList = new ArrayList<>();
     private int t;
 
@@ -98,16 +96,8 @@ public class RelativeTWiseCoverageComputation extends AComputation<CoverageStati
                                         ? literals[combo.elementIndices[k]]
                                         : -literals[combo.elementIndices[k]];
                             }
-                            if (TWiseCoverageComputationUtils.isCovered(
-                                    indexedReferenceSolutions,
-                                    t,
-                                    combo.environment.literals,
-                                    combo.environment.selectedIndexedSolutions)) {
-                                if (TWiseCoverageComputationUtils.isCovered(
-                                        indexedSolutions,
-                                        t,
-                                        combo.environment.literals,
-                                        combo.environment.selectedIndexedSolutions)) {
+                            if (indexedReferenceSolutions.isCovered(combo.environment.literals)) {
+                                if (indexedSolutions.isCovered(combo.environment.literals)) {
                                     combo.environment.statistic.incNumberOfCoveredConditions();
                                 } else {
                                     combo.environment.statistic.incNumberOfUncoveredConditions();
@@ -124,23 +114,13 @@ public class RelativeTWiseCoverageComputation extends AComputation<CoverageStati
     }
 
     private void initIndexedLists(BooleanSolutionList sample, BooleanSolutionList referenceSample, final int size) {
-        final int indexedListSize = 2 * size;
-        indexedSolutions = new ArrayList<>(indexedListSize);
-        indexedReferenceSolutions = new ArrayList<>(indexedListSize);
-        for (int i = indexedListSize; i >= 0; --i) {
-            indexedSolutions.add(new ExpandableIntegerList());
-            indexedReferenceSolutions.add(new ExpandableIntegerList());
-        }
-        addConfigurations(sample, indexedSolutions);
-        addConfigurations(referenceSample, indexedReferenceSolutions);
-    }
-
-    private void addConfigurations(
-            BooleanSolutionList sample, final ArrayList<ExpandableIntegerList> indexedSolutions) {
-        int configurationIndex = 0;
+        indexedSolutions = new PackedConfigurationIndex(size);
+        indexedReferenceSolutions = new PackedConfigurationIndex(size);
         for (BooleanSolution configuration : sample) {
-            TWiseCoverageComputationUtils.addConfigurations(
-                    indexedSolutions, configuration.get(), configurationIndex++);
+            indexedSolutions.add(configuration.get());
+        }
+        for (BooleanSolution configuration : referenceSample) {
+            indexedReferenceSolutions.add(configuration.get());
         }
     }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.twise;
+
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Index of configurations that can be read and extended by multiple threads
+ * at the same time (e.g., by the workers of {@link YASA}). The bitmaps are split into chunks of
+ * {@link #CHUNK_SIZE} configurations. Chunks are never copied, so a literal
+ * is added by an atomic update of a single word and a lookup only reads
+ * words. A lock is only taken when a new chunk is needed.
+ */
+class SharedConfigurationIndex extends PackedConfigurationIndex {
+    private static final int CHUNK_WORDS = 16;
+    private static final int CHUNK_SIZE = CHUNK_WORDS << 6;
+
+    private final int vertexCount;
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    SharedConfigurationIndex(int variableCount) {
+        super(variableCount);
+        vertexCount = 2 * variableCount;
+    }
+
+    @Override
+    public int add(int[] configuration) {
+        final int configurationIndex = size.getAndIncrement();
+        add(configuration, configurationIndex);
+        return configurationIndex;
+    }
+
+    @Override
+    public void set(int literal, int configurationIndex) {
+        final int chunkIndex = configurationIndex / CHUNK_SIZE;
+        AtomicLongArray[] currentChunks = chunks;
+        if (chunkIndex >= currentChunks.length) {
+            currentChunks = grow(chunkIndex + 1);
+        }
+        final AtomicLongArray chunk = currentChunks[chunkIndex];
+        final int wordIndex = getWordIndex(literal, configurationIndex);
+        final long bit = 1L << configurationIndex;
+        if ((chunk.get(wordIndex) & bit) == 0) {
+            chunk.getAndAccumulate(wordIndex, bit, (word, newBit) -> word | newBit);
+        }
+        if (size.get() <= configurationIndex) {
+            size.accumulateAndGet(configurationIndex + 1, Math::max);
+        }
+    }
+
+    @Override
+    public boolean contains(int literal, int configurationIndex) {
+        final int chunkIndex = configurationIndex / CHUNK_SIZE;
+        final AtomicLongArray[] currentChunks = chunks;
+        if (chunkIndex >= currentChunks.length) {
+            return false;
+        }
+        final long word = currentChunks[chunkIndex].get(getWordIndex(literal, configurationIndex));
+        return (word & (1L << configurationIndex)) != 0;
+    }
+
+    @Override
+    public boolean isCovered(int... literals) {
+        if (literals.length == 0) {
+            return size.get() > 0;
+        }
+        for (final AtomicLongArray chunk : chunks) {
+            for (int w = 0; w < CHUNK_WORDS; w++) {
+                long word = -1L;
+                for (int i = 0; i < literals.length && word != 0; i++) {
+                    word &= chunk.get(ModalImplicationGraph.getVertexIndex(literals[i]) * CHUNK_WORDS + w);
+                }
+                if (word != 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    private static int getWordIndex(int literal, int configurationIndex) {
+        return ModalImplicationGraph.getVertexIndex(literal) * CHUNK_WORDS
+                + ((configurationIndex >>> 6) & (CHUNK_WORDS - 1));
+    }
+
+    private synchronized AtomicLongArray[] grow(int chunkCount) {
+        AtomicLongArray[] currentChunks = chunks;
+        if (chunkCount > currentChunks.length) {
+            final AtomicLongArray[] newChunks = Arrays.copyOf(currentChunks, chunkCount);
+            for (int i = currentChunks.length; i < chunkCount; i++) {
+                newChunks[i] = new AtomicLongArray(vertexCount * CHUNK_WORDS);
+            }
+            chunks = newChunks;
+            currentChunks = newChunks;
+        }
+        return currentChunks;
+    }
+}
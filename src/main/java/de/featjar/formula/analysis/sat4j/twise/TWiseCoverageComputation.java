@@ -24,7 +24,6 @@ import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
-import de.featjar.base.data.ExpandableIntegerList;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.RuntimeContradictionException;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
@@ -60,7 +59,6 @@ public class TWiseCoverageComputation extends ASAT4JAnalysis<CoverageStatistic>
         private final SAT4JSolutionSolver solver = initializeSolver(dependencyList);
         private final ModalImplicationGraph.Visitor visitor =
                 MIG.get(dependencyList).getVisitor();
-        private final ExpandableIntegerList[] selectedIndexedSolutions = new ExpandableIntegerList[t];
         private final int[] literals = new int[t];
 
         public CoverageStatistic getStatistic() {
@@ -81,18 +79,27 @@ public class TWiseCoverageComputation extends ASAT4JAnalysis<CoverageStatistic>
         super(other);
     }
 
-    private ArrayList<ExpandableIntegerList> indexedSolutions;
-    private ArrayList<ExpandableIntegerList> indexedRandomSolutions;
+    private PackedConfigurationIndex indexedSolutions;
+    private PackedConfigurationIndex indexedRandomSolutions;
     private ArrayList<Environment> statisticList = new ArrayList<>();
 
     private List<Object> dependencyList;
     private int t;
 
+    /**
+     * Whether a combination may be considered valid if the MIG cannot imply the
+     * complement of any of its literals. As the MIG is built without the assumed
+     * assignment and clauses, this only holds if there are no assumptions.
+     */
+    private boolean useValidMIG;
+
     @Override
     public Result<CoverageStatistic> compute(List<Object> dependencyList, Progress progress) {
         this.dependencyList = dependencyList;
         BooleanSolutionList sample = SAMPLE.get(dependencyList);
         t = T.get(dependencyList);
+        useValidMIG = ASSUMED_ASSIGNMENT.get(dependencyList).isEmpty()
+                && ASSUMED_CLAUSE_LIST.get(dependencyList).isEmpty();
 
         if (!sample.isEmpty()) {
             final int size = sample.get(0).get().size();
@@ -100,35 +107,35 @@ public class TWiseCoverageComputation extends ASAT4JAnalysis<CoverageStatistic>
             final int[] literals = TWiseCoverageComputationUtils.getFilteredLiterals(size, FILTER.get(dependencyList));
             final boolean[][] masks = TWiseCoverageComputationUtils.getMasks(t);
 
-            LexicographicIterator.stream(t, literals.length, this::createStatistic)
-                    .forEach(combo -> {
-                        for (boolean[] mask : masks) {
-                            for (int k = 0; k < mask.length; k++) {
-                                combo.environment.literals[k] = mask[k]
-                                        ? literals[combo.elementIndices[k]]
-                                        : -literals[combo.elementIndices[k]];
-                            }
-                            if (TWiseCoverageComputationUtils.isCovered(
-                                    indexedSolutions,
-                                    t,
-                                    combo.environment.literals,
-                                    combo.environment.selectedIndexedSolutions)) {
-                                combo.environment.statistic.incNumberOfCoveredConditions();
-                            } else if (isCombinationInvalidMIG(combo.environment)) {
-                                combo.environment.statistic.incNumberOfInvalidConditions();
-                            } else if (TWiseCoverageComputationUtils.isCovered(
-                                    indexedRandomSolutions,
-                                    t,
-                                    combo.environment.literals,
-                                    combo.environment.selectedIndexedSolutions)) {
-                                combo.environment.statistic.incNumberOfUncoveredConditions();
-                            } else if (isCombinationInvalidSAT(combo.environment)) {
-                                combo.environment.statistic.incNumberOfInvalidConditions();
-                            } else {
-                                combo.environment.statistic.incNumberOfUncoveredConditions();
+            try {
+                LexicographicIterator.stream(t, literals.length, this::createStatistic)
+                        .forEach(combo -> {
+                            for (boolean[] mask : masks) {
+                                for (int k = 0; k < mask.length; k++) {
+                                    combo.environment.literals[k] = mask[k]
+                                            ? literals[combo.elementIndices[k]]
+                                            : -literals[combo.elementIndices[k]];
+                                }
+                                if (indexedSolutions.isCovered(combo.environment.literals)) {
+                                    combo.environment.statistic.incNumberOfCoveredConditions();
+                                } else if (isCombinationInvalidMIG(combo.environment)) {
+                                    combo.environment.statistic.incNumberOfInvalidConditions();
+                                } else if (indexedRandomSolutions.isCovered(combo.environment.literals)) {
+                                    combo.environment.statistic.incNumberOfUncoveredConditions();
+                                } else if (isCombinationValidMIG(combo.environment)) {
+                                    combo.environment.statistic.incNumberOfUncoveredConditions();
+                                } else if (isCombinationInvalidSAT(combo.environment)) {
+                                    combo.environment.statistic.incNumberOfInvalidConditions();
+                                } else {
+                                    combo.environment.statistic.incNumberOfUncoveredConditions();
+                                }
                             }
-                        }
-                    });
+                        });
+            } finally {
+                for (Environment environment : statisticList) {
+                    releaseSolver(dependencyList, environment.solver);
+                }
+            }
         }
         return Result.ofOptional(statisticList.stream() //
                 .map(Environment::getStatistic) //
@@ -136,33 +143,26 @@ public class TWiseCoverageComputation extends ASAT4JAnalysis<CoverageStatistic>
     }
 
     private void initIndexedLists(BooleanSolutionList sample, final int size) {
-        final int indexedListSize = 2 * size;
-        indexedSolutions = new ArrayList<>(indexedListSize);
-        indexedRandomSolutions = new ArrayList<>(indexedListSize);
-        for (int i = indexedListSize; i >= 0; --i) {
-            indexedSolutions.add(new ExpandableIntegerList());
-            indexedRandomSolutions.add(new ExpandableIntegerList());
-        }
-        addConfigurations(sample, indexedSolutions);
-        addRandomConfigurations(initializeSolver(dependencyList), new Random(RANDOM_SEED.get(dependencyList)), (int)
-                Math.ceil(30 * Math.log(size)));
-    }
-
-    private void addConfigurations(
-            BooleanSolutionList sample, final ArrayList<ExpandableIntegerList> indexedSolutions) {
-        int configurationIndex = 0;
+        indexedSolutions = new PackedConfigurationIndex(size);
+        indexedRandomSolutions = new PackedConfigurationIndex(size);
         for (BooleanSolution configuration : sample) {
-            TWiseCoverageComputationUtils.addConfigurations(
-                    indexedSolutions, configuration.get(), configurationIndex++);
+            indexedSolutions.add(configuration.get());
+        }
+        final SAT4JSolutionSolver solver = initializeSolver(dependencyList);
+        try {
+            addRandomConfigurations(solver, new Random(RANDOM_SEED.get(dependencyList)), (int)
+                    Math.ceil(30 * Math.log(size)));
+        } finally {
+            releaseSolver(dependencyList, solver);
         }
     }
 
     private void addRandomConfigurations(SAT4JSolutionSolver solver, Random random, int limit) {
         solver.setSelectionStrategy(ISelectionStrategy.random(random));
+        final int[] solution = new int[indexedRandomSolutions.getVariableCount()];
         for (int j = 0; j < limit; j++) {
             if (solver.hasSolution().valueEquals(Boolean.TRUE)) {
-                TWiseCoverageComputationUtils.addConfigurations(
-                        indexedRandomSolutions, solver.getInternalSolution(), j);
+                indexedRandomSolutions.add(solver.fillSolution(solution));
                 solver.shuffleOrder(random);
             } else {
                 break;
@@ -189,13 +189,17 @@ public class TWiseCoverageComputation extends ASAT4JAnalysis<CoverageStatistic>
         return false;
     }
 
+    private boolean isCombinationValidMIG(Environment env) {
+        return useValidMIG && !env.visitor.canImplyComplement(env.literals);
+    }
+
     private boolean isCombinationInvalidSAT(Environment env) {
-        final int orgAssignmentLength = env.solver.getAssignment().size();
+        final int orgAssignmentLength = env.solver.getAssignment().mark();
         try {
             env.solver.getAssignment().addAll(env.literals);
             return env.solver.hasSolution().valueEquals(Boolean.FALSE);
         } finally {
-            env.solver.getAssignment().clear(orgAssignmentLength);
+            env.solver.getAssignment().rollback(orgAssignmentLength);
         }
     }
 
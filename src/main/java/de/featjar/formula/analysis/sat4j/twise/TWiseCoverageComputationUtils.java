@@ -20,12 +20,8 @@
  */
 package de.featjar.formula.analysis.sat4j.twise;
 
-import de.featjar.base.data.ExpandableIntegerList;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanSolution;
-import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
-import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * Common functions for t-wise coverage calculation.
@@ -57,57 +53,4 @@ public interface TWiseCoverageComputationUtils {
         }
         return literals;
     }
-
-    static void addConfigurations(
-            final ArrayList<ExpandableIntegerList> indexedSolutions, int[] configuration, int configurationIndex) {
-        for (int i = 0; i < configuration.length; i++) {
-            final int literal = configuration[i];
-            if (literal != 0) {
-                indexedSolutions
-                        .get(ModalImplicationGraph.getVertexIndex(literal))
-                        .add(configurationIndex);
-            }
-        }
-    }
-
-    static boolean isCovered(
-            ArrayList<ExpandableIntegerList> indexedSolutions,
-            int t,
-            int[] literals,
-            ExpandableIntegerList[] selectedIndexedSolutions) {
-        if (t < 2) {
-            return !indexedSolutions
-                    .get(ModalImplicationGraph.getVertexIndex(literals[0]))
-                    .isEmpty();
-        }
-        for (int i = 0; i < t; i++) {
-            final ExpandableIntegerList indexedSolution =
-                    indexedSolutions.get(ModalImplicationGraph.getVertexIndex(literals[i]));
-            if (indexedSolution.size() == 0) {
-                return false;
-            }
-            selectedIndexedSolutions[i] = indexedSolution;
-        }
-        Arrays.sort(selectedIndexedSolutions, (a, b) -> a.size() - b.size());
-        final int[] ix = new int[t - 1];
-
-        final ExpandableIntegerList i0 = selectedIndexedSolutions[0];
-        final int[] ia0 = i0.toArray();
-        loop:
-        for (int i = 0; i < i0.size(); i++) {
-            int id0 = ia0[i];
-            for (int j = 1; j < t; j++) {
-                final ExpandableIntegerList i1 = selectedIndexedSolutions[j];
-                int binarySearch = Arrays.binarySearch(i1.toArray(), ix[j - 1], i1.size(), id0);
-                if (binarySearch < 0) {
-                    ix[j - 1] = -binarySearch - 1;
-                    continue loop;
-                } else {
-                    ix[j - 1] = binarySearch;
-                }
-            }
-            return true;
-        }
-        return false;
-    }
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.twise;
+
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.RuntimeContradictionException;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.combinations.LexicographicIterator;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import java.util.Arrays;
+
+/**
+ * Tracks the t-wise coverage of a growing sample. Configurations are added one
+ * by one and only the interactions contained in each new configuration are
+ * enumerated, such that the number of covered interactions and the marginal
+ * gain of each configuration are available without recomputing the coverage
+ * of the whole sample.
+ * <p>
+ * The number of invalid interactions is computed once on the first call to
+ * {@link #getStatistic()} and cached afterwards, as adding valid
+ * configurations never changes it. Thus, all added configurations must be
+ * valid. This class is not thread-safe.
+ */
+public class TWiseCoverageTracker {
+
+    private final int t;
+    private final BooleanClauseList clauseList;
+    private final ModalImplicationGraph mig;
+    private final int[] variables;
+    private final boolean[] includedVariables;
+    private final long interactionCount;
+
+    private final PackedConfigurationIndex index;
+    private final int[] literals;
+    private final int[] configurationLiterals;
+    private final int[] solution;
+
+    private long[] marginalGains = new long[16];
+    private long coveredCount;
+    private long invalidCount = -1;
+
+    /**
+     * Creates a tracker for an empty sample.
+     *
+     * @param t          the interaction strength
+     * @param clauseList the formula, used to detect invalid interactions
+     * @param mig        the modal implication graph of the formula
+     * @param filter     variables that are ignored
+     */
+    public TWiseCoverageTracker(
+            int t, BooleanClauseList clauseList, ModalImplicationGraph mig, BooleanAssignment filter) {
+        this.t = t;
+        this.clauseList = clauseList;
+        this.mig = mig;
+        final int variableCount = clauseList.getVariableCount();
+        variables = TWiseCoverageComputationUtils.getFilteredLiterals(variableCount, filter);
+        includedVariables = new boolean[variableCount + 1];
+        for (int variable : variables) {
+            includedVariables[variable] = true;
+        }
+        interactionCount = binomial(variables.length, t) << t;
+        index = new PackedConfigurationIndex(variableCount);
+        literals = new int[t];
+        configurationLiterals = new int[variables.length];
+        solution = new int[variableCount];
+    }
+
+    /**
+     * Adds a configuration to the sample.
+     *
+     * @param configuration the configuration
+     * @return the number of interactions that are covered by this configuration,
+     *         but by no configuration added before
+     */
+    public long add(BooleanSolution configuration) {
+        final int[] configurationArray = configuration.get();
+        int literalCount = 0;
+        for (int i = 0; i < configurationArray.length; i++) {
+            final int literal = configurationArray[i];
+            if (literal != 0 && includedVariables[Math.abs(literal)]) {
+                configurationLiterals[literalCount++] = literal;
+            }
+        }
+        long gain = 0;
+        if (literalCount >= t) {
+            gain = LexicographicIterator.stream(t, literalCount)
+                    .filter(combo -> {
+                        for (int k = 0; k < t; k++) {
+                            literals[k] = configurationLiterals[combo.elementIndices[k]];
+                        }
+                        return !index.isCovered(literals);
+                    })
+                    .count();
+        }
+        final int configurationIndex = index.add(configurationArray);
+        if (configurationIndex == marginalGains.length) {
+            marginalGains = Arrays.copyOf(marginalGains, 2 * marginalGains.length);
+        }
+        marginalGains[configurationIndex] = gain;
+        coveredCount += gain;
+        return gain;
+    }
+
+    /**
+     * Returns the number of interactions that were newly covered when the
+     * configuration with the given index was added.
+     *
+     * @param configurationIndex the index of the configuration in the order of
+     *                           addition
+     * @return the marginal gain of the configuration
+     */
+    public long getMarginalGain(int configurationIndex) {
+        if (configurationIndex < 0 || configurationIndex >= index.size()) {
+            throw new IndexOutOfBoundsException(configurationIndex);
+        }
+        return marginalGains[configurationIndex];
+    }
+
+    /**
+     * Returns the number of configurations in the sample.
+     *
+     * @return the sample size
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Returns the number of interactions covered by the sample.
+     *
+     * @return the number of covered interactions
+     */
+    public long getCoveredCount() {
+        return coveredCount;
+    }
+
+    /**
+     * Returns the coverage statistic of the current sample. On the first call,
+     * all interactions that are not covered are checked for validity.
+     *
+     * @return the coverage statistic
+     */
+    public CoverageStatistic getStatistic() {
+        if (invalidCount < 0) {
+            invalidCount = countInvalidInteractions();
+        }
+        final CoverageStatistic statistic = new CoverageStatistic(t);
+        statistic.setNumberOfCoveredConditions(coveredCount);
+        statistic.setNumberOfInvalidConditions(invalidCount);
+        statistic.setNumberOfUncoveredConditions(interactionCount - coveredCount - invalidCount);
+        return statistic;
+    }
+
+    private long countInvalidInteractions() {
+        if (variables.length < t) {
+            return 0;
+        }
+        final SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
+        final PackedConfigurationIndex solverSolutions = new PackedConfigurationIndex(clauseList.getVariableCount());
+        final ModalImplicationGraph.Visitor visitor = mig.getVisitor();
+        final boolean[][] masks = TWiseCoverageComputationUtils.getMasks(t);
+        return LexicographicIterator.stream(t, variables.length)
+                .mapToLong(combo -> {
+                    long invalid = 0;
+                    for (boolean[] mask : masks) {
+                        for (int k = 0; k < t; k++) {
+                            final int variable = variables[combo.elementIndices[k]];
+                            literals[k] = mask[k] ? variable : -variable;
+                        }
+                        if (!index.isCovered(literals)
+                                && !solverSolutions.isCovered(literals)
+                                && isInvalid(solver, visitor, solverSolutions)) {
+                            invalid++;
+                        }
+                    }
+                    return invalid;
+                })
+                .sum();
+    }
+
+    private boolean isInvalid(
+            SAT4JSolutionSolver solver,
+            ModalImplicationGraph.Visitor visitor,
+            PackedConfigurationIndex solverSolutions) {
+        try {
+            visitor.propagate(literals);
+        } catch (RuntimeContradictionException e) {
+            return true;
+        } finally {
+            visitor.reset();
+        }
+        if (!visitor.canImplyComplement(literals)) {
+            return false;
+        }
+        final int orgAssignmentLength = solver.getAssignment().mark();
+        try {
+            solver.getAssignment().addAll(literals);
+            final Result<Boolean> hasSolution = solver.hasSolution();
+            if (hasSolution.valueEquals(Boolean.TRUE)) {
+                solverSolutions.add(solver.fillSolution(solution));
+            }
+            return hasSolution.valueEquals(Boolean.FALSE);
+        } finally {
+            solver.getAssignment().rollback(orgAssignmentLength);
+        }
+    }
+
+    private static long binomial(int n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+}
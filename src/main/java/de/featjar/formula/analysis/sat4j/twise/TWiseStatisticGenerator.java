@@ -35,11 +35,8 @@ import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
@@ -66,15 +63,15 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
         super(other);
     }
 
-    private List<BitSet> sampleConfigs;
-    private List<BitSet> randomConfigs;
+    private PackedConfigurationIndex sampleIndex;
+    private PackedConfigurationIndex randomIndex;
 
     public static final int GLOBAL_SOLUTION_LIMIT = 10_000;
     private Random random;
     private int randomSolutionCount = 0;
 
-    private boolean isCombinationValidSAT(SAT4JSolutionSolver solver, int[] literals) {
-        final int orgAssignmentLength = solver.getAssignment().size();
+    private boolean isCombinationValidSAT(SAT4JSolutionSolver solver, int[] literals, int[] solution) {
+        final int orgAssignmentLength = solver.getAssignment().mark();
         try {
             solver.getAssignment().addAll(literals);
             Result<Boolean> hasSolution = solver.hasSolution();
@@ -82,35 +79,25 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
                 if (randomSolutionCount < GLOBAL_SOLUTION_LIMIT) {
                     synchronized (this) {
                         if (randomSolutionCount < GLOBAL_SOLUTION_LIMIT) {
-                            randomConfigs.add(convertToBitSet(solver.getInternalSolution()));
                             randomSolutionCount++;
+                        } else {
+                            return true;
                         }
                     }
+                    randomIndex.add(solver.fillSolution(solution));
                     solver.shuffleOrder(random);
                 }
             } else {
                 return false;
             }
         } finally {
-            solver.getAssignment().clear(orgAssignmentLength);
+            solver.getAssignment().rollback(orgAssignmentLength);
         }
         return true;
     }
 
     long[] covered, uncovered, invalid;
 
-    private static BitSet convertToBitSet(BooleanSolution configuration) {
-        return convertToBitSet(configuration.get());
-    }
-
-    private static BitSet convertToBitSet(int[] configuration) {
-        final BitSet config = new BitSet(configuration.length);
-        for (int i = 0; i < configuration.length; i++) {
-            config.set(i, configuration[i] > 0);
-        }
-        return config;
-    }
-
     @Override
     public Result<CoverageStatistic> compute(List<Object> dependencyList, Progress progress) {
         random = new Random(RANDOM_SEED.get(dependencyList));
@@ -118,12 +105,13 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
         BooleanAssignment deadCoreFeatures = CORE.get(dependencyList);
         int t = T.get(dependencyList);
 
-        sampleConfigs =
-                sample.stream().map(TWiseStatisticGenerator::convertToBitSet).collect(Collectors.toList());
-        randomConfigs = new ArrayList<>();
-
-        if (!sampleConfigs.isEmpty()) {
+        if (!sample.isEmpty()) {
             final int n = sample.get(0).get().size();
+            sampleIndex = new PackedConfigurationIndex(n);
+            for (BooleanSolution configuration : sample) {
+                sampleIndex.add(configuration.get());
+            }
+            randomIndex = new SharedConfigurationIndex(n);
             final int t2 = (n < t) ? n : t;
             final int n2 = n - t2 + 1;
             final int pow = (int) Math.pow(2, t2);
@@ -140,8 +128,6 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
             covered = new long[pow];
             uncovered = new long[pow];
 
-            int[] sampleIndex0 = IntStream.range(0, sampleConfigs.size()).toArray();
-            int[] randomIndex0 = IntStream.range(0, GLOBAL_SOLUTION_LIMIT).toArray();
             IntStream.range(0, pow) //
                     .parallel() //
                     .forEach(maskIndex -> {
@@ -150,20 +136,8 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
                             mask[j] = (maskIndex >> j & 1) == 0;
                         }
 
-                        int[][] sampleIndex = new int[t2][];
-                        sampleIndex[0] = sampleIndex0;
-                        for (int i = 1; i < sampleIndex.length; i++) {
-                            sampleIndex[i] = new int[sampleConfigs.size()];
-                        }
-                        int[][] randomIndex = new int[t2][];
-                        randomIndex[0] = randomIndex0;
-                        for (int i = 1; i < randomIndex.length; i++) {
-                            randomIndex[i] = new int[GLOBAL_SOLUTION_LIMIT];
-                        }
-
+                        final int[] solution = new int[n];
                         int[] literals = new int[t2];
-                        int liSample = 0;
-                        int liRandom = 0;
 
                         final int[] c = new int[t2];
                         for (int i = 0; i < t2; i++) {
@@ -172,80 +146,72 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
                         int i = 0;
 
                         SAT4JSolutionSolver solver = initializeSolver(dependencyList);
-                        boolean addSolutions = true;
-
-                        combinationLoop:
-                        while (true) {
-
-                            liRandom = Math.min(liRandom, i);
-                            liSample = Math.min(liSample, i);
-
-                            for (int k = 0; k < t2; k++) {
-                                int literal = mask[k] ? (c[k] + 1) : -(c[k] + 1);
-                                if (deadCoreFeatures.containsAnyVariable(Math.abs(literal))) {
-                                    i = k;
-                                    for (; i >= 0; i--) {
-                                        final int ci = ++c[i];
-                                        if (ci < (n2 + i)) {
-                                            break;
+                        try {
+                            boolean addSolutions = true;
+
+                            combinationLoop:
+                            while (true) {
+
+                                for (int k = 0; k < t2; k++) {
+                                    int literal = mask[k] ? (c[k] + 1) : -(c[k] + 1);
+                                    if (deadCoreFeatures.containsAnyVariable(Math.abs(literal))) {
+                                        i = k;
+                                        for (; i >= 0; i--) {
+                                            final int ci = ++c[i];
+                                            if (ci < (n2 + i)) {
+                                                break;
+                                            }
                                         }
+                                        if (i == -1) {
+                                            break combinationLoop;
+                                        }
+                                        for (int j = i + 1; j < t2; j++) {
+                                            c[j] = c[j - 1] + 1;
+                                        }
+                                        continue combinationLoop;
                                     }
-                                    if (i == -1) {
-                                        break combinationLoop;
-                                    }
-                                    for (int j = i + 1; j < t2; j++) {
-                                        c[j] = c[j - 1] + 1;
-                                    }
-                                    continue combinationLoop;
+                                    literals[k] = literal;
                                 }
-                                literals[k] = literal;
-                            }
-
-                            final int t3 = t2 - 1;
-
-                            d:
-                            {
-                                int curRandomSolutionCount = randomSolutionCount;
 
-                                extracted(mask, randomIndex, c, t3, randomConfigs, liRandom, curRandomSolutionCount);
-                                liRandom = i;
+                                final int t3 = t2 - 1;
 
-                                if (!findConfig(
-                                        c[t3], mask[t3], randomIndex[t3], randomConfigs, curRandomSolutionCount)) {
-                                    if (addSolutions && curRandomSolutionCount >= GLOBAL_SOLUTION_LIMIT) {
-                                        addSolutions = false;
-                                        solver.setSelectionStrategy(ISelectionStrategy.original());
+                                d:
+                                {
+                                    if (!randomIndex.isCovered(literals)) {
+                                        if (addSolutions && randomSolutionCount >= GLOBAL_SOLUTION_LIMIT) {
+                                            addSolutions = false;
+                                            solver.setSelectionStrategy(ISelectionStrategy.original());
+                                        }
+                                        if (!isCombinationValidSAT(solver, literals, solution)) {
+                                            invalid[maskIndex]++;
+                                            break d;
+                                        }
                                     }
-                                    if (!isCombinationValidSAT(solver, literals)) {
-                                        invalid[maskIndex]++;
-                                        break d;
+
+                                    if (sampleIndex.isCovered(literals)) {
+                                        covered[maskIndex]++;
+                                    } else {
+                                        uncovered[maskIndex]++;
                                     }
                                 }
 
-                                extracted(mask, sampleIndex, c, t3, sampleConfigs, liSample, sampleConfigs.size());
-                                liSample = i;
-
-                                if (findConfig(c[t3], mask[t3], sampleIndex[t3], sampleConfigs, sampleConfigs.size())) {
-                                    covered[maskIndex]++;
-                                } else {
-                                    uncovered[maskIndex]++;
+                                i = t3;
+                                for (; i >= 0; i--) {
+                                    final int ci = ++c[i];
+                                    if (ci < (n2 + i)) {
+                                        break;
+                                    }
                                 }
-                            }
 
-                            i = t3;
-                            for (; i >= 0; i--) {
-                                final int ci = ++c[i];
-                                if (ci < (n2 + i)) {
+                                if (i == -1) {
                                     break;
                                 }
+                                for (int j = i + 1; j < t2; j++) {
+                                    c[j] = c[j - 1] + 1;
+                                }
                             }
-
-                            if (i == -1) {
-                                break;
-                            }
-                            for (int j = i + 1; j < t2; j++) {
-                                c[j] = c[j - 1] + 1;
-                            }
+                        } finally {
+                            releaseSolver(dependencyList, solver);
                         }
                     });
 
@@ -268,53 +234,6 @@ public class TWiseStatisticGenerator extends ASAT4JAnalysis<CoverageStatistic> {
         return Result.of(statistic);
     }
 
-    private void extracted(
-            boolean[] mask,
-            int[][] sampleIndex,
-            final int[] c,
-            final int t3,
-            List<BitSet> configurations,
-            int ci,
-            int configLength) {
-        for (int k = ci; k < t3; k++) {
-            final int index = c[k];
-            final boolean maskValue = mask[k];
-            int[] sampleIndex1 = sampleIndex[k];
-            int[] sampleIndex2 = sampleIndex[k + 1];
-
-            int sindex2 = 0;
-            for (int sindex1 : sampleIndex1) {
-                if (sindex1 == -1) {
-                    break;
-                }
-                if (sindex1 >= configLength) {
-                    break;
-                }
-                BitSet bitSet = configurations.get(sindex1);
-                if (bitSet.get(index) == maskValue) {
-                    sampleIndex2[sindex2++] = sindex1;
-                }
-            }
-            if (sindex2 < sampleIndex2.length) {
-                sampleIndex2[sindex2] = -1;
-            }
-        }
-    }
-
-    private boolean findConfig(
-            int index, boolean maskValue, int[] sampleIndexK, List<BitSet> configurations, int configLength) {
-        for (int l = 0; l < sampleIndexK.length; l++) {
-            int sindexK = sampleIndexK[l];
-            if (sindexK == -1 || sindexK >= configLength) {
-                break;
-            }
-            if (configurations.get(sindexK).get(index) == maskValue) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     @Override
     protected SAT4JSolver newSolver(BooleanClauseList clauseList) {
         SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
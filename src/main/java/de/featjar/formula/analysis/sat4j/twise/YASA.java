@@ -24,7 +24,6 @@ import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.Dependency;
 import de.featjar.base.computation.IComputation;
 import de.featjar.base.computation.Progress;
-import de.featjar.base.data.ExpandableIntegerList;
 import de.featjar.base.data.Result;
 import de.featjar.formula.analysis.RuntimeContradictionException;
 import de.featjar.formula.analysis.RuntimeTimeoutException;
@@ -36,7 +35,6 @@ import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.bool.BooleanSolutionList;
-import de.featjar.formula.analysis.combinations.BinomialCalculator;
 import de.featjar.formula.analysis.combinations.LexicographicIterator;
 import de.featjar.formula.analysis.combinations.LexicographicIterator.Combination;
 import de.featjar.formula.analysis.mig.solver.MIGBuilder;
@@ -53,13 +51,26 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 /**
  * YASA sampling algorithm. Generates configurations for a given propositional
- * formula such that t-wise feature coverage is achieved.
+ * formula such that t-wise feature coverage is achieved. If
+ * {@link #THREAD_COUNT} is greater than one, the combination space is
+ * partitioned among multiple workers, each using its own solver. All workers
+ * extend the same partial configurations. In this case, the resulting sample may
+ * differ between runs, as it depends on the order in which workers extend
+ * configurations.
  *
  * @author Sebastian Krieter
  */
@@ -81,6 +92,7 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
             Dependency.newDependency(ABooleanAssignmentList.class);
 
     public static final Dependency<ModalImplicationGraph> MIG = Dependency.newDependency(ModalImplicationGraph.class);
+    public static final Dependency<Integer> THREAD_COUNT = Dependency.newDependency(Integer.class);
 
     public YASA(IComputation<BooleanClauseList> booleanClauseList) {
         super(
@@ -90,7 +102,8 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
                 Computations.of(Integer.MAX_VALUE),
                 Computations.of(1),
                 Computations.of(new BooleanAssignmentList()),
-                new MIGBuilder(booleanClauseList));
+                new MIGBuilder(booleanClauseList),
+                Computations.of(1));
     }
 
     protected YASA(YASA other) {
@@ -114,17 +127,37 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
         return arrayList;
     }
 
+    /**
+     * A solution found by the solver of a worker. Counts the partial
+     * configurations that refer to it, such that its array can be refilled with a
+     * new solution once it was evicted from the random sample of the worker. Only
+     * the owning worker adds references, but any worker may remove them.
+     */
+    private static class SolverSolution extends BooleanSolution {
+        private final AtomicInteger references = new AtomicInteger();
+
+        private SolverSolution(int variableCount) {
+            super(new int[variableCount], false);
+        }
+    }
+
     private class PartialConfiguration extends BooleanSolution {
         private final int id;
+        private final ReentrantLock lock = new ReentrantLock();
 
         private Visitor visitor;
-        private ArrayList<BooleanSolution> solverSolutions;
+        private ArrayList<SolverSolution> solverSolutions;
 
         public PartialConfiguration(PartialConfiguration config) {
             super(config);
             id = config.id;
             visitor = config.visitor.getVisitorProvider().new Visitor(config.visitor, elements);
-            solverSolutions = config.solverSolutions != null ? new ArrayList<>(config.solverSolutions) : null;
+            if (config.solverSolutions != null) {
+                solverSolutions = new ArrayList<>(config.solverSolutions);
+                for (SolverSolution solution : solverSolutions) {
+                    solution.references.incrementAndGet();
+                }
+            }
         }
 
         public PartialConfiguration(int id, ModalImplicationGraph mig, int... newliterals) {
@@ -135,9 +168,9 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
             visitor.propagate(newliterals);
         }
 
-        public void initSolutionList() {
+        public void initSolutionList(ArrayDeque<SolverSolution> randomSample) {
             solutionLoop:
-            for (BooleanSolution solution : randomSample) {
+            for (SolverSolution solution : randomSample) {
                 final int[] solverSolutionLiterals = solution.get();
                 for (int j = 0; j < visitor.getAddedLiteralCount(); j++) {
                     final int l = visitor.getAddedLiterals()[j];
@@ -145,10 +178,15 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
                         continue solutionLoop;
                     }
                 }
-                solverSolutions.add(solution);
+                addSolverSolution(solution);
             }
         }
 
+        public void addSolverSolution(SolverSolution solution) {
+            solverSolutions.add(solution);
+            solution.references.incrementAndGet();
+        }
+
         public void updateSolutionList(int lastIndex) {
             if (!isComplete()) {
                 for (int i = lastIndex; i < visitor.getAddedLiteralCount(); i++) {
@@ -160,7 +198,7 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
                         if (solverSolutionLiterals[k] != newLiteral) {
                             final int last = solverSolutions.size() - 1;
                             Collections.swap(solverSolutions, j, last);
-                            solverSolutions.remove(last);
+                            solverSolutions.remove(last).references.decrementAndGet();
                         }
                     }
                 }
@@ -174,7 +212,12 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
         }
 
         public void clear() {
-            solverSolutions = null;
+            if (solverSolutions != null) {
+                for (SolverSolution solution : solverSolutions) {
+                    solution.references.decrementAndGet();
+                }
+                solverSolutions = null;
+            }
         }
 
         public boolean isComplete() {
@@ -186,26 +229,70 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
         }
     }
 
+    /**
+     * Holds the partial configurations of all workers in parallel mode. Each
+     * worker publishes its configurations to this pool as soon as it creates them
+     * and covers combinations with the configurations of all workers. A
+     * configuration is only read or extended while its lock is held. The literals
+     * of all configurations are recorded in a shared index, such that no worker
+     * covers a combination that is already covered.
+     */
+    private class ConfigurationPool {
+        private final SharedConfigurationIndex index = new SharedConfigurationIndex(mig.size());
+        private final List<PartialConfiguration> configurations = new CopyOnWriteArrayList<>();
+        private final AtomicInteger nextId = new AtomicInteger();
+        private volatile boolean overLimit;
+
+        private ConfigurationPool() {
+            for (ABooleanAssignment config : inputSample) {
+                final PartialConfiguration configuration = new PartialConfiguration(nextId(), mig, config.get());
+                configurations.add(configuration);
+                for (int i = 0; i < configuration.visitor.getAddedLiteralCount(); i++) {
+                    index.set(configuration.visitor.getAddedLiterals()[i], configuration.id);
+                }
+            }
+        }
+
+        private int nextId() {
+            return nextId.getAndIncrement();
+        }
+
+        /**
+         * Adds a configuration to this pool, unless the pool already contains
+         * {@link YASA#CONFIGURATION_LIMIT} configurations.
+         *
+         * @return {@code true} if the configuration was added, {@code false} otherwise
+         */
+        private synchronized boolean publish(PartialConfiguration configuration) {
+            if (configurations.size() >= maxSampleSize) {
+                overLimit = true;
+                return false;
+            }
+            configurations.add(configuration);
+            return true;
+        }
+    }
+
     public static final int GLOBAL_SOLUTION_LIMIT = 100_000;
 
-    private int t, maxSampleSize, iterations, numberOfVariableLiterals;
+    /**
+     * Number of consecutive combinations that are handled by the same worker in
+     * parallel mode.
+     */
+    public static final int PARTITION_BLOCK_SIZE = 1024;
+
+    private int t, maxSampleSize, iterations, numberOfVariableLiterals, threadCount;
 
-    private SAT4JSolutionSolver solver;
+    private List<Object> dependencyList;
     private BooleanClauseList cnf;
     private ModalImplicationGraph mig;
     private Random random;
     private ABooleanAssignmentList<?> inputSample;
+    private long[][] binomials;
 
-    private final ArrayList<PartialConfiguration> candidateConfiguration = new ArrayList<>();
-    private final ArrayDeque<BooleanSolution> randomSample = new ArrayDeque<>(GLOBAL_SOLUTION_LIMIT);
-    private ArrayList<ExpandableIntegerList> indexedSolutions;
-    private ArrayList<ExpandableIntegerList> indexedBestSolutions;
+    private Worker mainWorker;
     private List<PartialConfiguration> bestSolutionList;
-    private List<PartialConfiguration> solutionList;
-    private ExpandableIntegerList[] selectedIndexedSolutions;
-
-    private PartialConfiguration newConfiguration;
-    private int curSolutionId;
+    private PackedConfigurationIndex indexedBestSolutions;
     private boolean overLimit;
 
     private final List<List<BooleanClause>> presenceConditions = new ArrayList<>();
@@ -221,62 +308,74 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
         if (iterations < 0) {
             iterations = Integer.MAX_VALUE;
         }
+        threadCount = THREAD_COUNT.get(dependencyList);
+        if (threadCount < 1) {
+            throw new IllegalArgumentException(String.valueOf(threadCount));
+        }
         random = new Random(RANDOM_SEED.get(dependencyList));
 
-        solver = initializeSolver(dependencyList);
-        mig = MIG.get(dependencyList);
-        inputSample = SAMPLE.get(dependencyList);
-        cnf = BOOLEAN_CLAUSE_LIST.get(dependencyList);
-        BooleanAssignment variables = LITERALS.get(dependencyList);
-        BooleanAssignment core = new BooleanAssignment(mig.getCore());
-
-        solver.setSelectionStrategy(ISelectionStrategy.random(random));
-        selectedIndexedSolutions = new ExpandableIntegerList[t];
-
-        List<List<BooleanClause>> nodes;
-        if (variables.isEmpty()) {
-            nodes = convertLiterals(
-                    new BooleanAssignment(IntStream.range(-cnf.getVariableCount(), cnf.getVariableCount() + 1)
-                            .filter(i -> i != 0)
-                            .toArray()));
-        } else {
-            nodes = convertLiterals(variables);
-        }
-        numberOfVariableLiterals = nodes.size() - core.countNegatives() - core.countPositives();
-
-        expressionLoop:
-        for (final List<BooleanClause> clauses : nodes) {
-            final List<BooleanClause> newClauses = new ArrayList<>(clauses.size());
-            for (final BooleanClause clause : clauses) {
-                // If clause can be satisfied
-                if (!core.containsAnyNegated(clause)) {
-                    // If clause is already satisfied
-                    if (core.containsAll(clause)) {
-                        continue expressionLoop;
-                    } else {
-                        newClauses.add(new BooleanClause(clause));
+        this.dependencyList = dependencyList;
+        mainWorker = new Worker(initializeSolver(dependencyList), random, GLOBAL_SOLUTION_LIMIT);
+        try {
+            mig = MIG.get(dependencyList);
+            inputSample = SAMPLE.get(dependencyList);
+            cnf = BOOLEAN_CLAUSE_LIST.get(dependencyList);
+            BooleanAssignment variables = LITERALS.get(dependencyList);
+            BooleanAssignment core = new BooleanAssignment(mig.getCore());
+
+            List<List<BooleanClause>> nodes;
+            if (variables.isEmpty()) {
+                nodes = convertLiterals(
+                        new BooleanAssignment(IntStream.range(-cnf.getVariableCount(), cnf.getVariableCount() + 1)
+                                .filter(i -> i != 0)
+                                .toArray()));
+            } else {
+                nodes = convertLiterals(variables);
+            }
+            numberOfVariableLiterals = nodes.size() - core.countNegatives() - core.countPositives();
+
+            expressionLoop:
+            for (final List<BooleanClause> clauses : nodes) {
+                final List<BooleanClause> newClauses = new ArrayList<>(clauses.size());
+                for (final BooleanClause clause : clauses) {
+                    // If clause can be satisfied
+                    if (!core.containsAnyNegated(clause)) {
+                        // If clause is already satisfied
+                        if (core.containsAll(clause)) {
+                            continue expressionLoop;
+                        } else {
+                            newClauses.add(new BooleanClause(clause));
+                        }
                     }
                 }
+                if (!newClauses.isEmpty()) {
+                    Collections.sort(newClauses, (o1, o2) -> o1.size() - o2.size());
+                    presenceConditions.add(newClauses);
+                }
             }
-            if (!newClauses.isEmpty()) {
-                Collections.sort(newClauses, (o1, o2) -> o1.size() - o2.size());
-                presenceConditions.add(newClauses);
-            }
-        }
-
-        progress.setTotalSteps((int) (BinomialCalculator.computeBinomial(presenceConditions.size(), t)));
 
-        buildCombinations(progress);
-        for (int j = 1; j < iterations; j++) {
-            checkCancel();
-            if (overLimit) {
-                buildCombinations(progress);
-            } else {
-                rebuildCombinations(progress);
+            // every iteration visits all combinations once
+            binomials = computeBinomials(presenceConditions.size(), t);
+            final long combinationCount = binomials[presenceConditions.size()][t];
+            final int roundCount = Math.max(1, iterations);
+            final long totalSteps =
+                    combinationCount > Long.MAX_VALUE / roundCount ? Long.MAX_VALUE : combinationCount * roundCount;
+            progress.setTotalSteps((int) Math.min(Integer.MAX_VALUE, totalSteps));
+
+            buildCombinations(progress);
+            for (int j = 1; j < iterations; j++) {
+                checkCancel();
+                if (overLimit) {
+                    buildCombinations(progress);
+                } else {
+                    rebuildCombinations(progress);
+                }
             }
-        }
 
-        return finalizeResult();
+            return finalizeResult();
+        } finally {
+            releaseSolver(dependencyList, mainWorker.solver);
+        }
     }
 
     @Override
@@ -289,7 +388,7 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
             List<PartialConfiguration> solution = reduce(bestSolutionList);
             BooleanSolutionList result = new BooleanSolutionList(cnf.getVariableCount());
             for (int j = solution.size() - 1; j >= 0; j--) {
-                result.add(autoComplete(solution.get(j)));
+                result.add(mainWorker.autoComplete(solution.get(j)));
             }
             return Result.of(result);
         } else {
@@ -299,111 +398,36 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
 
     private void buildCombinations(Progress monitor) {
         final int[] literals = initliterals(false);
-        initSolutionList();
-
-        final int[] combinationLiterals = new int[t];
-        LexicographicIterator.stream(t, presenceConditions.size()).forEach(combo -> {
-            checkCancel();
-            monitor.incrementCurrentStep();
-            int[] next = combo.elementIndices;
-            for (int i = 0; i < next.length; i++) {
-                combinationLiterals[i] = literals[next[i]];
-            }
-
-            if (isCovered(combinationLiterals, indexedSolutions)) {
-                return;
-            }
-            if (isCombinationInvalidMIG(combinationLiterals)) {
-                return;
-            }
-
-            if (isCombinationValidSample(combinationLiterals)) {
-                if (firstCover(combinationLiterals)) {
-                    return;
-                }
-            } else {
-                if (isCombinationInvalidSAT(combinationLiterals)) {
-                    return;
-                }
-                addToCandidateList(combinationLiterals);
-            }
-
-            if (coverSat(combinationLiterals)) {
-                return;
-            }
-            newConfiguration(combinationLiterals);
-        });
-        setBestSolutionList();
+        if (threadCount == 1) {
+            mainWorker.buildCombinations(monitor, literals, 0, 1);
+            overLimit = mainWorker.overLimit;
+            setBestSolutionList(mainWorker.solutionList);
+        } else {
+            buildCombinationsInParallel(monitor, literals, false);
+        }
     }
 
     private void rebuildCombinations(Progress monitor) {
         final int[] literals = initliterals(true);
-        initSolutionList();
-
-        final int indexSize = indexedSolutions.size();
-        indexedBestSolutions = new ArrayList<>(indexSize);
-        for (int i = 0; i < indexSize; i++) {
-            indexedBestSolutions.add(new ExpandableIntegerList());
-        }
+        indexedBestSolutions = new PackedConfigurationIndex(mig.size());
         for (PartialConfiguration solution : bestSolutionList) {
-            final int[] solutionLiterals = solution.get();
-            for (int i = 0; i < solutionLiterals.length; i++) {
-                final int literal = solutionLiterals[i];
-                if (literal != 0) {
-                    indexedBestSolutions
-                            .get(ModalImplicationGraph.getVertexIndex(literal))
-                            .add(solution.id);
-                }
-            }
+            indexedBestSolutions.add(solution.get(), solution.id);
         }
-        for (ExpandableIntegerList indexList : indexedBestSolutions) {
-            indexList.sort();
+        if (threadCount == 1) {
+            mainWorker.rebuildCombinations(monitor, literals, 0, 1);
+            overLimit = mainWorker.overLimit;
+            setBestSolutionList(mainWorker.solutionList);
+        } else {
+            buildCombinationsInParallel(monitor, literals, true);
         }
-
-        final int[] combinationLiterals = new int[t];
-        LexicographicIterator.stream(t, presenceConditions.size()).forEach(combo -> {
-            int[] next = combo.elementIndices;
-            for (int i = 0; i < next.length; i++) {
-                combinationLiterals[i] = literals[next[i]];
-            }
-
-            if (isCovered(combinationLiterals, indexedSolutions)) {
-                return;
-            }
-            if (!isCovered(combinationLiterals, indexedBestSolutions)) {
-                return;
-            }
-            if (firstCover(combinationLiterals)) {
-                return;
-            }
-            if (coverSat(combinationLiterals)) {
-                return;
-            }
-            newConfiguration(combinationLiterals);
-        });
-        setBestSolutionList();
     }
 
-    private void setBestSolutionList() {
+    private void setBestSolutionList(List<PartialConfiguration> solutionList) {
         if (bestSolutionList == null || bestSolutionList.size() > solutionList.size()) {
             bestSolutionList = solutionList;
         }
     }
 
-    private void initSolutionList() {
-        curSolutionId = 0;
-        overLimit = false;
-        solutionList = new ArrayList<>();
-        for (ABooleanAssignment config : inputSample) {
-            newConfiguration(config.get());
-        }
-        final int indexSize = 2 * mig.size();
-        indexedSolutions = new ArrayList<>(indexSize);
-        for (int i2 = 0; i2 < indexSize; i2++) {
-            indexedSolutions.add(new ExpandableIntegerList());
-        }
-    }
-
     private int[] initliterals(boolean shuffle) {
         if (shuffle) {
             shuffleSort();
@@ -429,352 +453,677 @@ public class YASA extends ASAT4JAnalysis<BooleanSolutionList> {
         }
     }
 
-    private boolean isCovered(int[] literals, ArrayList<ExpandableIntegerList> indexedSolutions) {
-        if (t < 2) {
-            return !indexedSolutions
-                    .get(ModalImplicationGraph.getVertexIndex(literals[0]))
-                    .isEmpty();
+    /**
+     * Splits the combination space into {@link #PARTITION_BLOCK_SIZE blocks} that
+     * are distributed round-robin over {@link #THREAD_COUNT} workers. Each worker
+     * uses its own solver, only visits the combinations of its own blocks, and
+     * covers them with the configurations of a shared {@link ConfigurationPool}.
+     *
+     * @param rebuild whether only combinations that are covered by the best sample
+     *                so far are considered
+     */
+    private void buildCombinationsInParallel(Progress monitor, int[] literals, boolean rebuild) {
+        final ConfigurationPool pool = new ConfigurationPool();
+        final ExecutorService threadPool = Executors.newFixedThreadPool(threadCount);
+        final List<Future<?>> futures = new ArrayList<>(threadCount);
+        try {
+            for (int i = 0; i < threadCount; i++) {
+                final int partition = i;
+                final Random workerRandom = new Random(random.nextLong());
+                futures.add(threadPool.submit(() -> {
+                    final Worker worker = new Worker(
+                            initializeSolver(dependencyList), workerRandom, GLOBAL_SOLUTION_LIMIT / threadCount, pool);
+                    try {
+                        if (rebuild) {
+                            worker.rebuildCombinations(monitor, literals, partition, threadCount);
+                        } else {
+                            worker.buildCombinations(monitor, literals, partition, threadCount);
+                        }
+                    } finally {
+                        releaseSolver(dependencyList, worker.solver);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            final List<PartialConfiguration> configurations = new ArrayList<>(pool.configurations);
+            Collections.sort(configurations, (a, b) -> b.countLiterals() - a.countLiterals());
+            overLimit = pool.overLimit;
+            setBestSolutionList(configurations);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            threadPool.shutdownNow();
         }
-        for (int i = 0; i < t; i++) {
-            final ExpandableIntegerList indexedSolution =
-                    indexedSolutions.get(ModalImplicationGraph.getVertexIndex(literals[i]));
-            if (indexedSolution.size() == 0) {
-                return false;
+    }
+
+    /**
+     * Computes all binomial coefficients up to the given values. Coefficients that
+     * exceed the range of {@code long} are set to {@link Long#MAX_VALUE}.
+     *
+     * @return an array that contains n over k at index [n][k]
+     */
+    private static long[][] computeBinomials(int n, int k) {
+        final long[][] binomials = new long[n + 1][k + 1];
+        for (int i = 0; i <= n; i++) {
+            binomials[i][0] = 1;
+            for (int j = 1; j <= Math.min(i, k); j++) {
+                final long sum = binomials[i - 1][j - 1] + binomials[i - 1][j];
+                binomials[i][j] = sum < 0 ? Long.MAX_VALUE : sum;
             }
-            selectedIndexedSolutions[i] = indexedSolution;
-        }
-        Arrays.sort(selectedIndexedSolutions, (a, b) -> a.size() - b.size());
-        final int[] ix = new int[t - 1];
-
-        final ExpandableIntegerList i0 = selectedIndexedSolutions[0];
-        final int[] ia0 = i0.toArray();
-        loop:
-        for (int i = 0; i < i0.size(); i++) {
-            int id0 = ia0[i];
-            for (int j = 1; j < t; j++) {
-                final ExpandableIntegerList i1 = selectedIndexedSolutions[j];
-                int binarySearch = Arrays.binarySearch(i1.toArray(), ix[j - 1], i1.size(), id0);
-                if (binarySearch < 0) {
-                    ix[j - 1] = -binarySearch - 1;
-                    continue loop;
+        }
+        return binomials;
+    }
+
+    /**
+     * Sets the element indices to the combination with the given rank in
+     * colexicographic order.
+     */
+    private static void unrankCombination(long rank, int[] elementIndices, int n, long[][] binomials) {
+        int upper = n;
+        for (int i = elementIndices.length - 1; i >= 0; i--) {
+            int low = i;
+            int high = upper - 1;
+            while (low < high) {
+                final int mid = (low + high + 1) >>> 1;
+                if (binomials[mid][i + 1] <= rank) {
+                    low = mid;
                 } else {
-                    ix[j - 1] = binarySearch;
+                    high = mid - 1;
                 }
             }
-            return true;
+            elementIndices[i] = low;
+            rank -= binomials[low][i + 1];
+            upper = low;
         }
-        return false;
     }
 
-    private void select(PartialConfiguration solution, int[] literals) {
-        final int lastIndex = solution.setLiteral(literals);
-        for (int i = lastIndex; i < solution.visitor.getAddedLiteralCount(); i++) {
-            ExpandableIntegerList indexList = indexedSolutions.get(
-                    ModalImplicationGraph.getVertexIndex(solution.visitor.getAddedLiterals()[i]));
-            final int idIndex = Arrays.binarySearch(indexList.toArray(), 0, indexList.size(), solution.id);
-            if (idIndex < 0) {
-                indexList.add(solution.id, -(idIndex + 1));
+    /**
+     * Sets the element indices to the next combination in colexicographic order.
+     */
+    private static void nextCombination(int[] elementIndices, int n) {
+        for (int i = 0; i < elementIndices.length; i++) {
+            final int limit = i + 1 < elementIndices.length ? elementIndices[i + 1] : n;
+            if (elementIndices[i] + 1 < limit) {
+                elementIndices[i]++;
+                for (int j = 0; j < i; j++) {
+                    elementIndices[j] = j;
+                }
+                return;
             }
         }
-        solution.updateSolutionList(lastIndex);
     }
 
-    private boolean firstCover(int[] literals) {
-        candidateConfiguration.clear();
-        if (newConfiguration != null) {
-            configLoop:
-            for (final PartialConfiguration configuration : solutionList) {
-                if (!configuration.isComplete()) {
-                    final int[] literals2 = configuration.get();
-                    for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
-                        final int l = newConfiguration.visitor.getAddedLiterals()[i];
-                        if (literals2[Math.abs(l) - 1] == -l) {
-                            continue configLoop;
+    /**
+     * Holds the state for building a sample with a single solver.
+     */
+    private class Worker {
+        private final SAT4JSolutionSolver solver;
+        private final Random random;
+        private final int solutionLimit;
+        private final ConfigurationPool pool;
+
+        private final ArrayList<PartialConfiguration> candidateConfiguration = new ArrayList<>();
+        private final ArrayList<PartialConfiguration> busyConfiguration = new ArrayList<>();
+        private final ArrayDeque<SolverSolution> randomSample;
+        private PackedConfigurationIndex indexedSolutions;
+        private List<PartialConfiguration> solutionList;
+        private long[] sortKeys = new long[0];
+
+        private PartialConfiguration newConfiguration;
+        private int curSolutionId;
+        private boolean overLimit;
+
+        private Worker(SAT4JSolutionSolver solver, Random random, int solutionLimit) {
+            this(solver, random, solutionLimit, null);
+        }
+
+        private Worker(SAT4JSolutionSolver solver, Random random, int solutionLimit, ConfigurationPool pool) {
+            this.solver = solver;
+            this.random = random;
+            this.solutionLimit = solutionLimit;
+            this.pool = pool;
+            randomSample = new ArrayDeque<>(solutionLimit);
+            solver.setSelectionStrategy(ISelectionStrategy.random(random));
+        }
+
+        private void buildCombinations(Progress monitor, int[] literals, int partition, int partitionCount) {
+            initSolutionList();
+            forEachCombination(monitor, literals, partition, partitionCount, this::buildCombination);
+        }
+
+        private void rebuildCombinations(Progress monitor, int[] literals, int partition, int partitionCount) {
+            initSolutionList();
+            forEachCombination(monitor, literals, partition, partitionCount, this::rebuildCombination);
+        }
+
+        /**
+         * Visits all combinations of the given partition. Blocks of the partition
+         * are located by their rank, so the combinations of other partitions are
+         * never visited.
+         */
+        private void forEachCombination(
+                Progress monitor, int[] literals, int partition, int partitionCount, Consumer<int[]> action) {
+            final int[] combinationLiterals = new int[t];
+            if (partitionCount == 1) {
+                LexicographicIterator.stream(t, presenceConditions.size()).forEach(combo -> {
+                    checkCancel();
+                    monitor.incrementCurrentStep();
+                    int[] next = combo.elementIndices;
+                    for (int i = 0; i < next.length; i++) {
+                        combinationLiterals[i] = literals[next[i]];
+                    }
+                    action.accept(combinationLiterals);
+                });
+            } else {
+                final int n = presenceConditions.size();
+                final long combinationCount = binomials[n][t];
+                final long stride = (long) partitionCount * PARTITION_BLOCK_SIZE;
+                final int[] elementIndices = new int[t];
+                for (long start = (long) partition * PARTITION_BLOCK_SIZE; start < combinationCount; start += stride) {
+                    final int blockSize = (int) Math.min(PARTITION_BLOCK_SIZE, combinationCount - start);
+                    unrankCombination(start, elementIndices, n, binomials);
+                    for (int j = 0; j < blockSize; j++) {
+                        checkCancel();
+                        if (j > 0) {
+                            nextCombination(elementIndices, n);
+                        }
+                        for (int i = 0; i < elementIndices.length; i++) {
+                            combinationLiterals[i] = literals[elementIndices[i]];
                         }
+                        action.accept(combinationLiterals);
                     }
-                    if (isSelectionPossibleSol(configuration, literals)) {
-                        select(configuration, literals);
-                        change(configuration);
-                        return true;
+                    synchronized (monitor) {
+                        for (int j = 0; j < blockSize; j++) {
+                            monitor.incrementCurrentStep();
+                        }
                     }
-                    candidateConfiguration.add(configuration);
                 }
             }
-        } else {
-            configLoop:
+        }
+
+        private void buildCombination(int[] combinationLiterals) {
+            if (indexedSolutions.isCovered(combinationLiterals)) {
+                return;
+            }
+            if (isCombinationInvalidMIG(combinationLiterals)) {
+                return;
+            }
+            updateSolutionList();
+
+            if (isCombinationValidSample(combinationLiterals)) {
+                if (firstCover(combinationLiterals)) {
+                    return;
+                }
+            } else {
+                if (isCombinationInvalidSAT(combinationLiterals)) {
+                    return;
+                }
+                addToCandidateList(combinationLiterals);
+            }
+
+            if (coverSat(combinationLiterals)) {
+                return;
+            }
+            newConfiguration(combinationLiterals);
+        }
+
+        private void rebuildCombination(int[] combinationLiterals) {
+            if (indexedSolutions.isCovered(combinationLiterals)) {
+                return;
+            }
+            if (!indexedBestSolutions.isCovered(combinationLiterals)) {
+                return;
+            }
+            updateSolutionList();
+
+            if (firstCover(combinationLiterals)) {
+                return;
+            }
+            if (coverSat(combinationLiterals)) {
+                return;
+            }
+            newConfiguration(combinationLiterals);
+        }
+
+        private void initSolutionList() {
+            curSolutionId = 0;
+            overLimit = false;
+            newConfiguration = null;
+            candidateConfiguration.clear();
+            solutionList = new ArrayList<>();
+            if (pool == null) {
+                indexedSolutions = new PackedConfigurationIndex(mig.size());
+                for (ABooleanAssignment config : inputSample) {
+                    newConfiguration(config.get());
+                }
+            } else {
+                indexedSolutions = pool.index;
+            }
+        }
+
+        /**
+         * Replaces the solution list with the configurations of the pool, ordered
+         * by their number of literals. The numbers are read once, as other workers
+         * may extend configurations meanwhile.
+         */
+        private void updateSolutionList() {
+            if (pool == null) {
+                return;
+            }
+            final PartialConfiguration[] configurations = pool.configurations.toArray(new PartialConfiguration[0]);
+            if (sortKeys.length < configurations.length) {
+                sortKeys = new long[Math.max(configurations.length, 2 * sortKeys.length)];
+            }
+            for (int i = 0; i < configurations.length; i++) {
+                sortKeys[i] = ((long) (mig.size() - configurations[i].countLiterals()) << 32) | i;
+            }
+            Arrays.sort(sortKeys, 0, configurations.length);
+            solutionList.clear();
+            for (int i = 0; i < configurations.length; i++) {
+                solutionList.add(configurations[(int) sortKeys[i]]);
+            }
+        }
+
+        /**
+         * Returns a new configuration id, which is unique among all workers that
+         * share a {@link ConfigurationPool}.
+         */
+        private int nextConfigurationId() {
+            return pool == null ? curSolutionId++ : pool.nextId();
+        }
+
+        private boolean tryLock(PartialConfiguration configuration) {
+            return pool == null || configuration.lock.tryLock();
+        }
+
+        private void lock(PartialConfiguration configuration) {
+            if (pool != null) {
+                configuration.lock.lock();
+            }
+        }
+
+        private void unlock(PartialConfiguration configuration) {
+            if (pool != null) {
+                configuration.lock.unlock();
+            }
+        }
+
+        private void select(PartialConfiguration solution, int[] literals) {
+            final int lastIndex = solution.setLiteral(literals);
+            for (int i = lastIndex; i < solution.visitor.getAddedLiteralCount(); i++) {
+                indexedSolutions.set(solution.visitor.getAddedLiterals()[i], solution.id);
+            }
+            solution.updateSolutionList(lastIndex);
+        }
+
+        /**
+         * Tries to cover a combination with a configuration that is compatible to
+         * one of its solver solutions. Configurations that are locked by another
+         * worker are only waited for, if no other configuration covers the
+         * combination.
+         */
+        private boolean firstCover(int[] literals) {
+            candidateConfiguration.clear();
+            busyConfiguration.clear();
             for (final PartialConfiguration configuration : solutionList) {
-                if (!configuration.isComplete()) {
-                    final int[] literals2 = configuration.get();
-                    for (int i = 0; i < literals.length; i++) {
-                        final int l = literals[i];
-                        if (literals2[Math.abs(l) - 1] == -l) {
-                            continue configLoop;
+                if (tryLock(configuration)) {
+                    try {
+                        if (firstCover(configuration, literals)) {
+                            return true;
                         }
+                    } finally {
+                        unlock(configuration);
                     }
-                    if (isSelectionPossibleSol(configuration, literals)) {
-                        select(configuration, literals);
-                        change(configuration);
+                } else {
+                    busyConfiguration.add(configuration);
+                }
+            }
+            for (final PartialConfiguration configuration : busyConfiguration) {
+                lock(configuration);
+                try {
+                    if (firstCover(configuration, literals)) {
                         return true;
                     }
-                    candidateConfiguration.add(configuration);
+                } finally {
+                    unlock(configuration);
                 }
             }
+            return false;
         }
-        return false;
-    }
 
-    private void addToCandidateList(int[] literals) {
-        candidateConfiguration.clear();
-        if (newConfiguration != null) {
-            configLoop:
-            for (final PartialConfiguration configuration : solutionList) {
-                if (!configuration.isComplete()) {
-                    final int[] literals2 = configuration.get();
-                    for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
-                        final int l = newConfiguration.visitor.getAddedLiterals()[i];
-                        if (literals2[Math.abs(l) - 1] == -l) {
-                            continue configLoop;
-                        }
-                    }
-                    candidateConfiguration.add(configuration);
+        private boolean firstCover(PartialConfiguration configuration, int[] literals) {
+            if (!configuration.isComplete() && isCompatible(configuration, literals)) {
+                if (isSelectionPossibleSol(configuration, literals)) {
+                    select(configuration, literals);
+                    change(configuration);
+                    return true;
                 }
+                candidateConfiguration.add(configuration);
             }
-        } else {
-            configLoop:
+            return false;
+        }
+
+        /**
+         * Collects all configurations that may cover a combination. Configurations
+         * that are locked by another worker are collected without checking them, as
+         * they are checked again before they are extended.
+         */
+        private void addToCandidateList(int[] literals) {
+            candidateConfiguration.clear();
             for (final PartialConfiguration configuration : solutionList) {
-                if (!configuration.isComplete()) {
-                    final int[] literals2 = configuration.get();
-                    for (int i = 0; i < literals.length; i++) {
-                        final int l = literals[i];
-                        if (literals2[Math.abs(l) - 1] == -l) {
-                            continue configLoop;
+                if (tryLock(configuration)) {
+                    try {
+                        if (!configuration.isComplete() && isCompatible(configuration, literals)) {
+                            candidateConfiguration.add(configuration);
                         }
+                    } finally {
+                        unlock(configuration);
                     }
+                } else {
                     candidateConfiguration.add(configuration);
                 }
             }
         }
-    }
-
-    private void change(final PartialConfiguration configuration) {
-        if (configuration.isComplete()) {
-            configuration.clear();
-        }
-        Collections.sort(solutionList, (a, b) -> b.countLiterals() - a.countLiterals());
-    }
 
-    private boolean isCombinationInvalidMIG(int[] literals) {
-        if (newConfiguration != null) {
-            newConfiguration.visitor.reset();
-            try {
-                newConfiguration.visitor.propagate(literals);
-            } catch (RuntimeContradictionException e) {
-                newConfiguration.visitor.reset();
-                return true;
-            }
-        } else {
-            try {
-                newConfiguration = new PartialConfiguration(curSolutionId++, mig, literals);
-            } catch (RuntimeContradictionException e) {
-                return true;
+        private boolean isCompatible(PartialConfiguration configuration, int[] literals) {
+            final int[] literals2 = configuration.get();
+            if (newConfiguration != null) {
+                for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
+                    final int l = newConfiguration.visitor.getAddedLiterals()[i];
+                    if (literals2[Math.abs(l) - 1] == -l) {
+                        return false;
+                    }
+                }
+            } else {
+                for (int i = 0; i < literals.length; i++) {
+                    final int l = literals[i];
+                    if (literals2[Math.abs(l) - 1] == -l) {
+                        return false;
+                    }
+                }
             }
+            return true;
         }
-        return false;
-    }
 
-    private boolean isCombinationValidSample(int[] literals) {
-        for (final BooleanSolution s : randomSample) {
-            if (!s.containsAnyNegated(literals)) {
-                return true;
+        private void change(final PartialConfiguration configuration) {
+            if (configuration.isComplete()) {
+                configuration.clear();
+            }
+            if (pool == null) {
+                Collections.sort(solutionList, (a, b) -> b.countLiterals() - a.countLiterals());
             }
         }
-        return false;
-    }
 
-    private boolean isCombinationInvalidSAT(int[] literals) {
-        final int orgAssignmentLength = solver.getAssignment().size();
-        try {
+        private boolean isCombinationInvalidMIG(int[] literals) {
             if (newConfiguration != null) {
-                for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
-                    solver.getAssignment().add(newConfiguration.visitor.getAddedLiterals()[i]);
+                newConfiguration.visitor.reset();
+                try {
+                    newConfiguration.visitor.propagate(literals);
+                } catch (RuntimeContradictionException e) {
+                    newConfiguration.visitor.reset();
+                    return true;
                 }
             } else {
-                for (int i = 0; i < literals.length; i++) {
-                    solver.getAssignment().add(literals[i]);
+                try {
+                    newConfiguration = new PartialConfiguration(nextConfigurationId(), mig, literals);
+                } catch (RuntimeContradictionException e) {
+                    return true;
                 }
             }
-            Result<Boolean> hasSolution = solver.hasSolution();
-            if (hasSolution.isPresent()) {
-                if (hasSolution.get()) {
-                    final BooleanSolution e = addSolverSolution();
+            return false;
+        }
 
-                    PartialConfiguration compatibleConfiguration = null;
-                    for (PartialConfiguration c : candidateConfiguration) {
-                        if (!c.containsAnyNegated(e)) {
-                            if (compatibleConfiguration == null) {
-                                compatibleConfiguration = c;
-                            } else {
-                                c.solverSolutions.add(e);
+        private boolean isCombinationValidSample(int[] literals) {
+            for (final BooleanSolution s : randomSample) {
+                if (!s.containsAnyNegated(literals)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isCombinationInvalidSAT(int[] literals) {
+            final int orgAssignmentLength = solver.getAssignment().mark();
+            try {
+                if (newConfiguration != null) {
+                    for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
+                        solver.getAssignment().add(newConfiguration.visitor.getAddedLiterals()[i]);
+                    }
+                } else {
+                    for (int i = 0; i < literals.length; i++) {
+                        solver.getAssignment().add(literals[i]);
+                    }
+                }
+                Result<Boolean> hasSolution = solver.hasSolution();
+                if (hasSolution.isPresent()) {
+                    if (hasSolution.get()) {
+                        final SolverSolution e = addSolverSolution();
+
+                        PartialConfiguration compatibleConfiguration = null;
+                        for (PartialConfiguration c : candidateConfiguration) {
+                            if (tryLock(c)) {
+                                try {
+                                    if (!c.isComplete() && !c.containsAnyNegated(e)) {
+                                        if (compatibleConfiguration == null) {
+                                            compatibleConfiguration = c;
+                                            select(c, literals);
+                                            c.addSolverSolution(e);
+                                            change(c);
+                                        } else {
+                                            c.addSolverSolution(e);
+                                        }
+                                    }
+                                } finally {
+                                    unlock(c);
+                                }
                             }
                         }
-                    }
-                    if (compatibleConfiguration != null) {
-                        select(compatibleConfiguration, literals);
-                        compatibleConfiguration.solverSolutions.add(e);
-                        change(compatibleConfiguration);
+                        return compatibleConfiguration != null;
+                    } else {
                         return true;
                     }
-                    return false;
                 } else {
                     return true;
                 }
-            } else {
-                return true;
+            } finally {
+                solver.getAssignment().rollback(orgAssignmentLength);
             }
-        } finally {
-            solver.getAssignment().clear(orgAssignmentLength);
         }
-    }
 
-    private boolean coverSat(int[] literals) {
-        for (PartialConfiguration configuration : candidateConfiguration) {
-            if (trySelectSat(configuration, literals)) {
-                change(configuration);
-                return true;
+        /**
+         * Tries to cover a combination by extending a candidate configuration, if
+         * the extended configuration is satisfiable. Candidates that are locked by
+         * another worker are only waited for, if no other candidate can be
+         * extended.
+         */
+        private boolean coverSat(int[] literals) {
+            busyConfiguration.clear();
+            for (PartialConfiguration configuration : candidateConfiguration) {
+                if (tryLock(configuration)) {
+                    try {
+                        if (coverSat(configuration, literals)) {
+                            return true;
+                        }
+                    } finally {
+                        unlock(configuration);
+                    }
+                } else {
+                    busyConfiguration.add(configuration);
+                }
             }
+            for (PartialConfiguration configuration : busyConfiguration) {
+                lock(configuration);
+                try {
+                    if (coverSat(configuration, literals)) {
+                        return true;
+                    }
+                } finally {
+                    unlock(configuration);
+                }
+            }
+            return false;
         }
-        return false;
-    }
 
-    private void newConfiguration(int[] literals) {
-        if (solutionList.size() < maxSampleSize) {
-            if (newConfiguration == null) {
-                newConfiguration = new PartialConfiguration(curSolutionId++, mig, literals);
-            }
-            newConfiguration.initSolutionList();
-            solutionList.add(newConfiguration);
-            change(newConfiguration);
-            for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
-                ExpandableIntegerList indexList = indexedSolutions.get(ModalImplicationGraph.getVertexIndex(
-                        newConfiguration.visitor.getAddedLiterals()[i]));
-                indexList.add(newConfiguration.id);
+        private boolean coverSat(PartialConfiguration configuration, int[] literals) {
+            if (!configuration.isComplete()
+                    && isCompatible(configuration, literals)
+                    && trySelectSat(configuration, literals)) {
+                change(configuration);
+                return true;
             }
-        } else {
-            overLimit = true;
+            return false;
         }
-        newConfiguration = null;
-    }
 
-    private BooleanSolution autoComplete(PartialConfiguration configuration) {
-        if (!configuration.isComplete()) {
-            if (configuration.solverSolutions.size() > 0) {
-                final int[] configuration2 =
-                        configuration.solverSolutions.get(0).get();
-                System.arraycopy(configuration2, 0, configuration.get(), 0, configuration.size());
-                configuration.clear();
-            } else {
-                final int orgAssignmentSize = setUpSolver(configuration);
+        private void newConfiguration(int[] literals) {
+            if (solutionList.size() < maxSampleSize) {
+                if (newConfiguration == null) {
+                    newConfiguration = new PartialConfiguration(nextConfigurationId(), mig, literals);
+                }
+                final PartialConfiguration configuration = newConfiguration;
+                lock(configuration);
                 try {
-                    Result<Boolean> hasSolution = solver.hasSolution();
-                    if (hasSolution.isPresent()) {
-                        if (hasSolution.get()) {
-                            final int[] internalSolution = solver.getInternalSolution();
-                            System.arraycopy(internalSolution, 0, configuration.get(), 0, configuration.size());
-                            configuration.clear();
-                        } else {
-                            throw new RuntimeContradictionException();
+                    if (pool == null || pool.publish(configuration)) {
+                        configuration.initSolutionList(randomSample);
+                        solutionList.add(configuration);
+                        change(configuration);
+                        for (int i = 0; i < configuration.visitor.getAddedLiteralCount(); i++) {
+                            indexedSolutions.set(configuration.visitor.getAddedLiterals()[i], configuration.id);
                         }
                     } else {
-                        throw new RuntimeTimeoutException();
+                        overLimit = true;
                     }
                 } finally {
-                    solver.getAssignment().clear(orgAssignmentSize);
+                    unlock(configuration);
                 }
+            } else {
+                overLimit = true;
             }
+            newConfiguration = null;
         }
-        return new BooleanSolution(configuration.get(), false);
-    }
 
-    private boolean isSelectionPossibleSol(PartialConfiguration configuration, int[] literals) {
-        for (BooleanSolution configuration2 : configuration.solverSolutions) {
-            if (!configuration2.containsAnyNegated(literals)) {
-                return true;
+        private BooleanSolution autoComplete(PartialConfiguration configuration) {
+            if (!configuration.isComplete()) {
+                if (configuration.solverSolutions.size() > 0) {
+                    final int[] configuration2 =
+                            configuration.solverSolutions.get(0).get();
+                    System.arraycopy(configuration2, 0, configuration.get(), 0, configuration.size());
+                    configuration.clear();
+                } else {
+                    final int orgAssignmentSize = setUpSolver(configuration);
+                    try {
+                        Result<Boolean> hasSolution = solver.hasSolution();
+                        if (hasSolution.isPresent()) {
+                            if (hasSolution.get()) {
+                                solver.fillSolution(configuration.get());
+                                configuration.clear();
+                            } else {
+                                throw new RuntimeContradictionException();
+                            }
+                        } else {
+                            throw new RuntimeTimeoutException();
+                        }
+                    } finally {
+                        solver.getAssignment().rollback(orgAssignmentSize);
+                    }
+                }
             }
+            return new BooleanSolution(configuration.get(), false);
         }
-        return false;
-    }
 
-    private boolean trySelectSat(PartialConfiguration configuration, final int[] literals) {
-        final int oldModelCount = configuration.visitor.getAddedLiteralCount();
-        try {
-            configuration.visitor.propagate(literals);
-        } catch (RuntimeException e) {
-            configuration.visitor.reset(oldModelCount);
+        private boolean isSelectionPossibleSol(PartialConfiguration configuration, int[] literals) {
+            for (BooleanSolution configuration2 : configuration.solverSolutions) {
+                if (!configuration2.containsAnyNegated(literals)) {
+                    return true;
+                }
+            }
             return false;
         }
 
-        final int orgAssignmentSize = setUpSolver(configuration);
-        try {
-            if (newConfiguration != null) {
-                for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
-                    int l = newConfiguration.visitor.getAddedLiterals()[i];
-                    if (configuration.get()[Math.abs(l) - 1] == 0) {
-                        solver.getAssignment().add(l);
+        private boolean trySelectSat(PartialConfiguration configuration, final int[] literals) {
+            final int oldModelCount = configuration.visitor.getAddedLiteralCount();
+            try {
+                configuration.visitor.propagate(literals);
+            } catch (RuntimeException e) {
+                configuration.visitor.reset(oldModelCount);
+                return false;
+            }
+
+            final int orgAssignmentSize = setUpSolver(configuration);
+            try {
+                if (newConfiguration != null) {
+                    for (int i = 0; i < newConfiguration.visitor.getAddedLiteralCount(); i++) {
+                        int l = newConfiguration.visitor.getAddedLiterals()[i];
+                        if (configuration.get()[Math.abs(l) - 1] == 0) {
+                            solver.getAssignment().add(l);
+                        }
                     }
-                }
-            } else {
-                for (int i = 0; i < literals.length; i++) {
-                    int l = literals[i];
-                    if (configuration.get()[Math.abs(l) - 1] == 0) {
-                        solver.getAssignment().add(l);
+                } else {
+                    for (int i = 0; i < literals.length; i++) {
+                        int l = literals[i];
+                        if (configuration.get()[Math.abs(l) - 1] == 0) {
+                            solver.getAssignment().add(l);
+                        }
                     }
                 }
-            }
-            Result<Boolean> hasSolution = solver.hasSolution();
-            if (hasSolution.isPresent()) {
-                if (hasSolution.get()) {
-                    final BooleanSolution e = addSolverSolution();
-                    for (int i = oldModelCount; i < configuration.visitor.getAddedLiteralCount(); i++) {
-                        ExpandableIntegerList indexList = indexedSolutions.get(ModalImplicationGraph.getVertexIndex(
-                                configuration.visitor.getAddedLiterals()[i]));
-                        final int idIndex =
-                                Arrays.binarySearch(indexList.toArray(), 0, indexList.size(), configuration.id);
-                        if (idIndex < 0) {
-                            indexList.add(configuration.id, -(idIndex + 1));
+                Result<Boolean> hasSolution = solver.hasSolution();
+                if (hasSolution.isPresent()) {
+                    if (hasSolution.get()) {
+                        final SolverSolution e = addSolverSolution();
+                        for (int i = oldModelCount; i < configuration.visitor.getAddedLiteralCount(); i++) {
+                            indexedSolutions.set(configuration.visitor.getAddedLiterals()[i], configuration.id);
                         }
+                        configuration.updateSolutionList(oldModelCount);
+                        configuration.addSolverSolution(e);
+                        return true;
+                    } else {
+                        configuration.visitor.reset(oldModelCount);
                     }
-                    configuration.updateSolutionList(oldModelCount);
-                    configuration.solverSolutions.add(e);
-                    return true;
                 } else {
                     configuration.visitor.reset(oldModelCount);
                 }
-            } else {
-                configuration.visitor.reset(oldModelCount);
+            } finally {
+                solver.getAssignment().rollback(orgAssignmentSize);
             }
-        } finally {
-            solver.getAssignment().clear(orgAssignmentSize);
+            return false;
         }
-        return false;
-    }
 
-    private BooleanSolution addSolverSolution() {
-        if (randomSample.size() == GLOBAL_SOLUTION_LIMIT) {
-            randomSample.removeFirst();
+        /**
+         * Adds the last solution of the solver to the random sample. If the sample
+         * is full, the oldest solution is evicted and its array is reused, unless it
+         * is still referred to by a partial configuration.
+         */
+        private SolverSolution addSolverSolution() {
+            SolverSolution e = null;
+            if (randomSample.size() == solutionLimit) {
+                final SolverSolution evicted = randomSample.removeFirst();
+                if (evicted.references.get() == 0) {
+                    e = evicted;
+                }
+            }
+            if (e == null) {
+                e = new SolverSolution(cnf.getVariableCount());
+            }
+            solver.fillSolution(e.get());
+            randomSample.add(e);
+            solver.shuffleOrder(random);
+            return e;
         }
-        final int[] solution = solver.getInternalSolution();
-        final BooleanSolution e = new BooleanSolution(Arrays.copyOf(solution, solution.length), false);
-        randomSample.add(e);
-        solver.shuffleOrder(random);
-        return e;
-    }
 
-    private int setUpSolver(PartialConfiguration configuration) {
-        final int orgAssignmentSize = solver.getAssignment().size();
-        for (int i = 0; i < configuration.visitor.getAddedLiteralCount(); i++) {
-            solver.getAssignment().add(configuration.visitor.getAddedLiterals()[i]);
+        private int setUpSolver(PartialConfiguration configuration) {
+            final int orgAssignmentSize = solver.getAssignment().mark();
+            for (int i = 0; i < configuration.visitor.getAddedLiteralCount(); i++) {
+                solver.getAssignment().add(configuration.visitor.getAddedLiterals()[i]);
+            }
+            return orgAssignmentSize;
         }
-        return orgAssignmentSize;
     }
 
     @Override
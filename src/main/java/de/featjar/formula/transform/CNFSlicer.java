@@ -31,6 +31,7 @@ import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolverPool;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -49,6 +50,7 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
     protected static final Dependency<BooleanClauseList> CNF = Dependency.newDependency(BooleanClauseList.class);
     public static final Dependency<BooleanAssignment> VARIABLES_OF_INTEREST =
             Dependency.newDependency(BooleanAssignment.class);
+    public static final Dependency<Boolean> USE_SOLVER_POOL = Dependency.newDependency(Boolean.class);
 
     protected static final Comparator<ABooleanAssignment> lengthComparator =
             Comparator.comparing(ABooleanAssignment::size);
@@ -70,6 +72,9 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
     protected DirtyFeature[] map;
     protected MinimumClauseHeuristic heuristic;
     private SAT4JSolutionSolver newSolver;
+    private SAT4JSolutionSolver redundancySolver;
+    private int redundancyGroup;
+    private boolean useSolverPool;
 
     private boolean first = false;
 
@@ -80,7 +85,7 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
     protected int newDirtyListDelIndex = 0;
 
     public CNFSlicer(IComputation<BooleanClauseList> booleanClauseList) {
-        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()));
+        super(booleanClauseList, new ComputeConstant<>(new BooleanAssignment()), new ComputeConstant<>(Boolean.FALSE));
     }
 
     int cr = 0, cnr = 0, dr = 0, dnr = 0;
@@ -89,6 +94,7 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
     public Result<BooleanClauseList> compute(List<Object> dependencyList, Progress progress) {
         orgCNF = CNF.get(dependencyList);
         dirtyVariables = VARIABLES_OF_INTEREST.get(dependencyList);
+        useSolverPool = USE_SOLVER_POOL.get(dependencyList);
 
         cnfCopy = new BooleanClauseList(orgCNF.getVariableCount());
 
@@ -100,49 +106,52 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
         }
         helper = new int[map.length];
 
-        // Initialize lists and sets
-        createClauseLists();
+        try {
+            // Initialize lists and sets
+            createClauseLists();
 
-        if (!prepareHeuristics()) {
-            return Result.of(new BooleanClauseList(orgCNF));
-        }
+            if (!prepareHeuristics()) {
+                return Result.of(new BooleanClauseList(orgCNF));
+            }
 
-        progress.setTotalSteps(heuristic.size());
+            progress.setTotalSteps(heuristic.size());
 
-        while (heuristic.hasNext()) {
-            final DirtyFeature nextFeature = heuristic.next();
-            if (nextFeature == null) {
-                break;
-            }
+            while (heuristic.hasNext()) {
+                final DirtyFeature nextFeature = heuristic.next();
+                if (nextFeature == null) {
+                    break;
+                }
 
-            // Remove redundant dirty clauses
-            firstRedundancyCheck(nextFeature);
+                // Remove redundant dirty clauses
+                firstRedundancyCheck(nextFeature);
 
-            // Partition dirty list into clauses that contain the current variable and
-            // clauses that don't
-            partitionDirtyList(nextFeature);
+                // Partition dirty list into clauses that contain the current variable and
+                // clauses that don't
+                partitionDirtyList(nextFeature);
 
-            // Remove variable & create transitive clauses
-            resolution(nextFeature);
+                // Remove variable & create transitive clauses
+                resolution(nextFeature);
 
-            // Remove redundant clauses
-            detectRedundancy(nextFeature);
+                // Remove redundant clauses
+                detectRedundancy(nextFeature);
 
-            // Merge new dirty list into the old list
-            updateLists();
+                // Merge new dirty list into the old list
+                updateLists();
 
-            progress.incrementCurrentStep();
+                progress.incrementCurrentStep();
 
-            // If ALL dirty clauses exclusively consists of dirty features, they can just be
-            // removed without applying resolution
-            if (globalMixedClauseCount == 0) {
-                break;
+                // If ALL dirty clauses exclusively consists of dirty features, they can just be
+                // removed without applying resolution
+                if (globalMixedClauseCount == 0) {
+                    break;
+                }
             }
-        }
 
-        addCleanClauses();
+            addCleanClauses();
+        } finally {
+            release();
+        }
 
-        release();
         //        final HashSet<String> names = new HashSet<>(orgCNF.getVariableNames());
         //        for (final int literal : dirtyVariables.getIntegers()) {
         //            names.remove(
@@ -286,9 +295,9 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
         if (nextFeature.getClauseCount() > 0) {
             addCleanClauses();
 
-            final SAT4JSolutionSolver solver = new SAT4JSolutionSolver(cnfCopy);
-            solver.getClauseList().addAll(cleanLiteralListIndexList);
-            solver.getClauseList().addAll(dirtyClauseList.subList(0, dirtyListPosIndex));
+            final SAT4JSolutionSolver solver = getRedundancySolver();
+            addRedundancyClauses(solver, cleanLiteralListIndexList);
+            addRedundancyClauses(solver, dirtyClauseList.subList(0, dirtyListPosIndex));
 
             newDirtyClauseList.subList(0, newDirtyListDelIndex).sort(lengthComparator);
             for (int i = newDirtyListDelIndex - 1; i >= 0; --i) {
@@ -298,7 +307,7 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
                     Collections.swap(newDirtyClauseList, i, --newDirtyListDelIndex);
                 } else {
                     dnr++;
-                    solver.getClauseList().add(curClause);
+                    addRedundancyClause(solver, curClause);
                 }
             }
         }
@@ -329,8 +338,8 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
 
             addCleanClauses();
 
-            final SAT4JSolutionSolver solver = new SAT4JSolutionSolver(cnfCopy);
-            solver.getClauseList().addAll(cleanLiteralListIndexList);
+            final SAT4JSolutionSolver solver = getRedundancySolver();
+            addRedundancyClauses(solver, cleanLiteralListIndexList);
 
             // SAT Relevant
             for (int i = dirtyListPosIndex - 1; i >= 0; --i) {
@@ -340,7 +349,7 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
                     Collections.swap(dirtyClauseList, i, --dirtyListPosIndex);
                 } else {
                     dnr++;
-                    solver.getClauseList().add(mainClause);
+                    addRedundancyClause(solver, mainClause);
                 }
             }
             deleteOldDirtyClauses();
@@ -357,10 +366,52 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
     protected boolean prepareHeuristics() {
         heuristic = new MinimumClauseHeuristic(map, numberOfDirtyFeatures);
         first = true;
-        newSolver = new SAT4JSolutionSolver(cnfCopy);
+        newSolver = acquireSolver();
         return newSolver.hasSolution().valueEquals(Boolean.TRUE);
     }
 
+    /**
+     * Returns a solver containing only the clauses of {@link #cnfCopy}. The same
+     * solver is reused for every redundancy check. Clauses of a previous check are
+     * kept in a clause group, which is retracted instead of removing the clauses,
+     * so the solver keeps its learned clauses.
+     */
+    private SAT4JSolutionSolver getRedundancySolver() {
+        if (redundancySolver == null) {
+            redundancySolver = acquireSolver();
+        } else {
+            redundancySolver.getClauseList().retractGroup(redundancyGroup);
+        }
+        redundancyGroup = redundancySolver.getClauseList().newGroup();
+        return redundancySolver;
+    }
+
+    private void addRedundancyClauses(SAT4JSolutionSolver solver, List<? extends BooleanClause> clauses) {
+        for (final BooleanClause clause : clauses) {
+            addRedundancyClause(solver, clause);
+        }
+    }
+
+    private void addRedundancyClause(SAT4JSolutionSolver solver, BooleanClause clause) {
+        solver.getClauseList().addToGroup(redundancyGroup, clause.get());
+    }
+
+    /**
+     * Returns a new solver for {@link #cnfCopy}, which is taken from the
+     * {@link SAT4JSolverPool}, if {@link #USE_SOLVER_POOL} is set.
+     */
+    private SAT4JSolutionSolver acquireSolver() {
+        return useSolverPool
+                ? SAT4JSolverPool.getInstance().acquire(SAT4JSolutionSolver.class, cnfCopy, SAT4JSolutionSolver::new)
+                : new SAT4JSolutionSolver(cnfCopy);
+    }
+
+    private void releaseSolver(SAT4JSolutionSolver solver) {
+        if (useSolverPool) {
+            SAT4JSolverPool.getInstance().release(solver);
+        }
+    }
+
     protected void release() {
         newDirtyClauseList.clear();
         newCleanClauseList.clear();
@@ -368,8 +419,13 @@ public class CNFSlicer extends AComputation<BooleanClauseList> {
         cleanClauseSet.clear();
         dirtyClauseList.clear();
 
-        //        if (newSolver != null) {
-        //            newSolver.reset();
-        //        }
+        if (newSolver != null) {
+            releaseSolver(newSolver);
+            newSolver = null;
+        }
+        if (redundancySolver != null) {
+            releaseSolver(redundancySolver);
+            redundancySolver = null;
+        }
     }
 }
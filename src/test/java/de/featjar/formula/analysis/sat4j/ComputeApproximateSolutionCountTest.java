@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.math.BigInteger;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ComputeApproximateSolutionCountTest {
+
+    @Test
+    void countIsWithinTolerance() {
+        BooleanClauseList smallClauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 4);
+        BigInteger smallCount = Computations.of(smallClauseList)
+                .map(ComputeApproximateSolutionCountSAT4J::new)
+                .compute();
+        assertEquals(BigInteger.valueOf(12), smallCount);
+
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(1, 2), new BooleanClause(-3, 4), new BooleanClause(5, -6, 7)), 14);
+        BigInteger exactCount = Computations.of(clauseList)
+                .map(ComputeSolutionCountSAT4J::new)
+                .compute();
+        double epsilon = 0.8;
+        BigInteger approximateCount = Computations.of(clauseList)
+                .map(ComputeApproximateSolutionCountSAT4J::new)
+                .set(ComputeApproximateSolutionCountSAT4J.EPSILON, epsilon)
+                .set(ComputeApproximateSolutionCountSAT4J.DELTA, 0.05)
+                .set(ComputeApproximateSolutionCountSAT4J.THREAD_COUNT, 4)
+                .compute();
+        assertTrue(approximateCount.doubleValue() >= exactCount.doubleValue() / (1 + epsilon));
+        assertTrue(approximateCount.doubleValue() <= exactCount.doubleValue() * (1 + epsilon));
+    }
+}
@@ -20,16 +20,29 @@
  */
 package de.featjar.formula.analysis.sat4j;
 
+import static de.featjar.base.computation.Computations.async;
+import static de.featjar.formula.structure.Expressions.and;
+import static de.featjar.formula.structure.Expressions.literal;
+import static de.featjar.formula.structure.Expressions.or;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import de.featjar.Common;
 import de.featjar.base.computation.Computations;
+import de.featjar.base.computation.IComputation;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanAssignmentList;
+import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolverPool;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import de.featjar.formula.transformer.ComputeNNFFormula;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 public class ComputeAtomicSetsTest extends Common {
@@ -48,4 +61,87 @@ public class ComputeAtomicSetsTest extends Common {
 
         assertEquals(27, atomicSets.size());
     }
+
+    @Test
+    public void gplHas27AtomicSetsWithSolverPool() {
+        BooleanClauseList clauseList = Computations.of(loadFormula("GPL/model.xml"))
+                .cast(IFormula.class)
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .map(ComputeBooleanRepresentation::new)
+                .map(Computations::getKey)
+                .cast(BooleanClauseList.class)
+                .compute();
+        SAT4JSolverPool.getInstance().clear();
+
+        BooleanAssignment core = Computations.of(clauseList)
+                .map(ComputeCoreSAT4J::new)
+                .compute();
+        BooleanAssignment pooledCore = Computations.of(clauseList)
+                .map(ComputeCoreSAT4J::new)
+                .set(ComputeCoreSAT4J.USE_SOLVER_POOL, Boolean.TRUE)
+                .compute();
+        assertArrayEquals(
+                IntStream.of(core.get()).sorted().toArray(),
+                IntStream.of(pooledCore.get()).sorted().toArray());
+        assertEquals(1, SAT4JSolverPool.getInstance().getIdleCount());
+
+        BooleanAssignmentList atomicSets = Computations.of(clauseList)
+                .map(ComputeAtomicSetsSAT4J::new)
+                .set(ComputeAtomicSetsSAT4J.USE_SOLVER_POOL, Boolean.TRUE)
+                .compute();
+        assertEquals(27, atomicSets.size());
+        assertEquals(1, SAT4JSolverPool.getInstance().getIdleCount());
+    }
+
+    @Test
+    public void solverPoolDiscardsSolversWithGroups() {
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 2);
+        SAT4JSolverPool pool = new SAT4JSolverPool(4);
+
+        SAT4JSolutionSolver solver = pool.acquire(SAT4JSolutionSolver.class, clauseList, SAT4JSolutionSolver::new);
+        pool.release(solver);
+        assertEquals(1, pool.getIdleCount());
+
+        solver = pool.acquire(SAT4JSolutionSolver.class, clauseList, SAT4JSolutionSolver::new);
+        assertEquals(0, pool.getIdleCount());
+        int group = solver.getClauseList().newGroup();
+        solver.getClauseList().addToGroup(group, -1);
+        solver.getClauseList().retractGroup(group);
+        assertFalse(solver.isResettable());
+        pool.release(solver);
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void atomicSetsAreEqualInParallel() {
+        IComputation<BooleanClauseList> clauses = async(and(
+                        literal("e"),
+                        or(literal(false, "a"), literal("b")),
+                        or(literal(false, "b"), literal("a")),
+                        or(literal("c"), literal("d")),
+                        or(literal(false, "c"), literal(false, "d")),
+                        or(literal("f"), literal("a"))))
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .map(ComputeBooleanRepresentation::new)
+                .map(Computations::getKey);
+
+        for (Boolean useMIG : new Boolean[] {Boolean.FALSE, Boolean.TRUE}) {
+            for (int threadCount = 2; threadCount <= 4; threadCount++) {
+                BooleanAssignmentList atomicSets = clauses.map(ComputeAtomicSetsSAT4J::new)
+                        .set(ComputeAtomicSetsSAT4J.THREAD_COUNT, threadCount)
+                        .set(ComputeAtomicSetsSAT4J.USE_MIG, useMIG)
+                        .compute();
+                assertEquals(4, atomicSets.size());
+                assertEquals(1, atomicSets.getAll().get(0).size());
+                assertArrayEquals(
+                        new int[] {1, 1, 2, 2},
+                        atomicSets.getAll().stream()
+                                .mapToInt(BooleanAssignment::size)
+                                .sorted()
+                                .toArray());
+            }
+        }
+    }
 }
@@ -42,6 +42,15 @@ public class ComputeIndeterminateTest {
 
     @Test
     void formulaHas2Indeterminate() {
+        assertIndeterminate(1);
+    }
+
+    @Test
+    void formulaHas2IndeterminateInParallel() {
+        assertIndeterminate(3);
+    }
+
+    private void assertIndeterminate(int threadCount) {
         IFormula formula = Expressions.and(
                 Expressions.or(Expressions.literal("a"), Expressions.literal("b")),
                 Expressions.biImplies(Expressions.literal("x"), Expressions.literal("y")));
@@ -51,7 +60,9 @@ public class ComputeIndeterminateTest {
                 .map(ComputeBooleanRepresentation::new);
         IComputation<BooleanClauseList> clauses = cnf.map(Computations::getKey);
         VariableMap variables = cnf.map(Computations::getValue).compute();
-        BooleanAssignment compute = clauses.map(ComputeIndeterminate::new).compute();
+        BooleanAssignment compute = clauses.map(ComputeIndeterminate::new)
+                .set(ComputeIndeterminate.THREAD_COUNT, threadCount)
+                .compute();
         List<String> indeterminate = Arrays.stream(compute.get())
                 .mapToObj(v -> (v > 0 ? "+" : "-") + variables.get((int) v).get())
                 .collect(Collectors.toCollection(ArrayList::new));
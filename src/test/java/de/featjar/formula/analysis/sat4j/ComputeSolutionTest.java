@@ -24,18 +24,35 @@ import static de.featjar.formula.structure.Expressions.and;
 import static de.featjar.formula.structure.Expressions.biImplies;
 import static de.featjar.formula.structure.Expressions.literal;
 import static de.featjar.formula.structure.Expressions.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.featjar.Common;
 import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.ComputePresence;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
 import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSource;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSpliterator.BlockingStrategy;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolverPool;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import de.featjar.formula.transformer.ComputeNNFFormula;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
 
 public class ComputeSolutionTest extends Common {
@@ -76,4 +93,119 @@ public class ComputeSolutionTest extends Common {
     void gplIsSatisfiable() {
         assertTrue(hasSolution(loadFormula("GPL/model.xml")));
     }
+
+    @Test
+    void batchedQueriesAreDecidedCorrectly() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(1, 2), new BooleanClause(-1, -2), new BooleanClause(-3, 1)), 3);
+        List<int[]> queries = List.of(
+                new int[] {1}, new int[] {2}, new int[] {1, 2}, new int[] {3, 2}, new int[] {3, 1}, new int[] {-1, -2});
+        byte[] expected = {
+            SAT4JSolver.SATISFIABLE,
+            SAT4JSolver.SATISFIABLE,
+            SAT4JSolver.UNSATISFIABLE,
+            SAT4JSolver.UNSATISFIABLE,
+            SAT4JSolver.SATISFIABLE,
+            SAT4JSolver.UNSATISFIABLE
+        };
+        assertArrayEquals(expected, new SAT4JSolutionSolver(clauseList).hasSolutions(queries, false));
+        assertArrayEquals(expected, new SAT4JSolutionSolver(clauseList).hasSolutions(queries, true));
+        assertArrayEquals(
+                expected, SAT4JSolver.hasSolutions(() -> new SAT4JSolutionSolver(clauseList), queries, true, 3));
+    }
+
+    @Test
+    void batchedQueriesReleaseTheirSolvers() {
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 2);
+        SAT4JSolverPool.getInstance().clear();
+        byte[] results = SAT4JSolver.hasSolutions(
+                () -> SAT4JSolverPool.getInstance()
+                        .acquire(SAT4JSolutionSolver.class, clauseList, SAT4JSolutionSolver::new),
+                List.<int[]>of(new int[] {-1}),
+                false,
+                4);
+        assertArrayEquals(new byte[] {SAT4JSolver.SATISFIABLE}, results);
+        assertEquals(1, SAT4JSolverPool.getInstance().getIdleCount());
+    }
+
+    @Test
+    void parallelSolveIgnoresGlobalAssignment() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(1, 2), new BooleanClause(-1, -2), new BooleanClause(-3, 1)), 3);
+        List<Result<Boolean>> results = SAT4JSolutionSolver.parallelSolve(
+                () -> {
+                    SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
+                    solver.getAssignment().add(-1);
+                    return solver;
+                },
+                List.of(new BooleanClause(1), new BooleanClause(3), new BooleanClause(1, 2)));
+        assertEquals(
+                List.of(Boolean.TRUE, Boolean.TRUE, Boolean.FALSE),
+                results.stream().map(Result::get).collect(Collectors.toList()));
+    }
+
+    @Test
+    void solutionsAreStreamedLazily() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(1, 2), new BooleanClause(-1, -2), new BooleanClause(-3, 1)), 3);
+        SAT4JSolutionSource solutions = Computations.of(clauseList)
+                .map(ComputeSolutionStreamSAT4J::new)
+                .compute();
+        SAT4JSolutionSpliterator spliterator = solutions.spliterator();
+        assertEquals(0, spliterator.getCount());
+        assertTrue(spliterator.tryAdvance(solution -> assertTrue(isSatisfying(clauseList, solution))));
+        assertEquals(1, spliterator.getCount());
+        List<BooleanSolution> remainingSolutions = spliterator.stream().collect(Collectors.toList());
+        assertEquals(2, remainingSolutions.size());
+        assertEquals(3, spliterator.getCount());
+        assertFalse(spliterator.isTimeoutOccurred());
+        assertFalse(spliterator.tryAdvance(solution -> {}));
+        assertEquals(3, solutions.stream().count());
+
+        SAT4JSolutionSource limitedSolutions = Computations.of(clauseList)
+                .map(ComputeSolutionStreamSAT4J::new)
+                .set(ComputeSolutionStreamSAT4J.LIMIT, 2L)
+                .compute();
+        assertEquals(2, limitedSolutions.stream().count());
+        assertEquals(
+                2,
+                Computations.of(clauseList)
+                        .map(ComputeSolutionsSAT4J::new)
+                        .set(ComputeSolutionsSAT4J.LIMIT, 2)
+                        .compute()
+                        .size());
+    }
+
+    @Test
+    void blockingStrategiesEnumerateAllSolutions() {
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 12);
+        for (BlockingStrategy blockingStrategy : BlockingStrategy.values()) {
+            BigInteger count = Computations.of(clauseList)
+                    .map(ComputeSolutionCountSAT4J::new)
+                    .set(ComputeSolutionCountSAT4J.ENUMERATE, Boolean.TRUE)
+                    .set(ComputeSolutionCountSAT4J.BLOCKING_STRATEGY, blockingStrategy)
+                    .set(ComputeSolutionCountSAT4J.PROJECTION, new BooleanAssignment(1, 2))
+                    .compute();
+            assertEquals(BigInteger.valueOf(blockingStrategy == BlockingStrategy.PROJECTION ? 3 : 3072), count);
+        }
+
+        BooleanSolutionList solutions = Computations.of(clauseList)
+                .map(ComputeSolutionsSAT4J::new)
+                .set(ComputeSolutionsSAT4J.BLOCKING_STRATEGY, BlockingStrategy.DECISIONS)
+                .compute();
+        assertEquals(3072, solutions.size());
+        assertEquals(
+                3072,
+                solutions.getAll().stream()
+                        .map(solution -> Arrays.toString(solution.get()))
+                        .distinct()
+                        .count());
+        assertTrue(solutions.getAll().stream().allMatch(solution -> isSatisfying(clauseList, solution)));
+    }
+
+    private static boolean isSatisfying(BooleanClauseList clauseList, BooleanSolution solution) {
+        int[] literals = solution.get();
+        return clauseList.getAll().stream()
+                .allMatch(clause -> IntStream.of(clause.get()).anyMatch(l -> literals[Math.abs(l) - 1] == l));
+    }
 }
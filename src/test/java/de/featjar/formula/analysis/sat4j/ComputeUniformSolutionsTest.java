@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import de.featjar.formula.analysis.bool.BooleanSolutionList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class ComputeUniformSolutionsTest {
+
+    @Test
+    void solutionsAreDrawnEquallyOften() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(-1, -2), new BooleanClause(-1, -3), new BooleanClause(-1, -4)), 4);
+        BooleanSolutionList solutions = Computations.of(clauseList)
+                .map(ComputeUniformSolutionsSAT4J::new)
+                .set(ComputeUniformSolutionsSAT4J.LIMIT, 9000)
+                .set(ComputeUniformSolutionsSAT4J.THREAD_COUNT, 4)
+                .compute();
+        assertEquals(9000, solutions.size());
+        assertTrue(solutions.getAll().stream().allMatch(solution -> isSatisfying(clauseList, solution)));
+        Map<String, Long> frequencies = solutions.getAll().stream()
+                .collect(Collectors.groupingBy(solution -> Arrays.toString(solution.get()), Collectors.counting()));
+        assertEquals(9, frequencies.size());
+        assertTrue(frequencies.values().stream().allMatch(frequency -> frequency > 800 && frequency < 1200));
+
+        BooleanClauseList unsatisfiableClauseList =
+                new BooleanClauseList(List.of(new BooleanClause(1), new BooleanClause(-1)), 2);
+        assertEquals(
+                0,
+                Computations.of(unsatisfiableClauseList)
+                        .map(ComputeUniformSolutionsSAT4J::new)
+                        .compute()
+                        .size());
+    }
+
+    private static boolean isSatisfying(BooleanClauseList clauseList, BooleanSolution solution) {
+        int[] literals = solution.get();
+        return clauseList.getAll().stream()
+                .allMatch(clause -> IntStream.of(clause.get()).anyMatch(l -> literals[Math.abs(l) - 1] == l));
+    }
+}
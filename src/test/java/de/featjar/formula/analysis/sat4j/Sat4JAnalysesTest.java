@@ -22,23 +22,46 @@ package de.featjar.formula.analysis.sat4j;
 
 import static de.featjar.base.computation.Computations.async;
 import static de.featjar.base.computation.Computations.await;
+import static de.featjar.formula.structure.Expressions.and;
 import static de.featjar.formula.structure.Expressions.literal;
 import static de.featjar.formula.structure.Expressions.or;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.featjar.AnalysisTest;
 import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.IComputation;
+import de.featjar.base.data.Result;
+import de.featjar.formula.analysis.RuntimeContradictionException;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanAssignmentList;
+import de.featjar.formula.analysis.bool.BooleanClause;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
 import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.bool.ComputeBooleanClauseList;
 import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.mig.solver.ComputeCachedMIG;
+import de.featjar.formula.analysis.mig.solver.IncrementalMIGBuilder;
+import de.featjar.formula.analysis.mig.solver.MIGBuilder;
+import de.featjar.formula.analysis.mig.solver.ModalImplicationGraph;
+import de.featjar.formula.analysis.sat4j.solver.ClauseExchange;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JPortfolioSolver;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolutionSolver;
 import de.featjar.formula.structure.formula.IFormula;
 import de.featjar.formula.transformer.ComputeCNFFormula;
 import de.featjar.formula.transformer.ComputeNNFFormula;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class Sat4JAnalysesTest extends AnalysisTest {
 
@@ -73,6 +96,325 @@ public class Sat4JAnalysesTest extends AnalysisTest {
         testCore(ComputeBooleanClauseList::new, ComputeCoreSAT4J::new);
     }
 
+    @Test
+    void coreIsEqualInParallel() {
+        IComputation<BooleanClauseList> clauses = async(and(
+                        literal("a"),
+                        or(literal(false, "b"), literal("c")),
+                        or(literal(false, "a"), literal("b")),
+                        or(literal("d"), literal("e")),
+                        or(literal(false, "f"), literal(false, "a"))))
+                .map(ComputeNNFFormula::new)
+                .map(ComputeCNFFormula::new)
+                .map(ComputeBooleanRepresentation::new)
+                .map(Computations::getKey);
+
+        BooleanAssignment core = clauses.map(ComputeCoreSAT4J::new).compute();
+        for (int threadCount = 2; threadCount <= 4; threadCount++) {
+            BooleanAssignment parallelCore = clauses.map(ComputeCoreSAT4J::new)
+                    .set(ComputeCoreSAT4J.THREAD_COUNT, threadCount)
+                    .compute();
+            assertArrayEquals(core.get(), parallelCore.get());
+        }
+        assertEquals(4, core.size());
+    }
+
+    @Test
+    void weakTraversalFindsConditionallyImpliedLiterals() {
+        BooleanClauseList clauseList =
+                new BooleanClauseList(List.of(new BooleanClause(-1, 2, 3), new BooleanClause(-2, -4, 5)), 5);
+        ModalImplicationGraph mig = Computations.of(clauseList).map(MIGBuilder::new).compute();
+
+        assertArrayEquals(
+                new int[] {-4, 2, 3, 5},
+                IntStream.of(mig.getConditionallyImpliedLiterals(1)).sorted().toArray());
+        assertArrayEquals(new int[0], mig.getConditionallyImpliedLiterals(3));
+        assertTrue(mig.canImplyComplement(1, 4));
+        assertTrue(mig.canImplyComplement(1, -5));
+        assertTrue(mig.canImplyComplement(2, -2));
+        assertFalse(mig.canImplyComplement(3, 4));
+        assertFalse(mig.canImplyComplement(-1, 2, 3));
+    }
+
+    @Test
+    void visitorReusesTraversalBuffers() {
+        BooleanClauseList clauseList =
+                new BooleanClauseList(List.of(new BooleanClause(-1, 2, 3), new BooleanClause(-2, -4, 5)), 5);
+        ModalImplicationGraph.Visitor visitor =
+                Computations.of(clauseList).map(MIGBuilder::new).compute().getVisitor();
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue(visitor.canImplyComplement(1, 4));
+            assertTrue(visitor.canImplyComplement(1, -5));
+            assertTrue(visitor.canImplyComplement(2, -2));
+            assertFalse(visitor.canImplyComplement(3, 4));
+            assertFalse(visitor.canImplyComplement(-1, 2, 3));
+        }
+        visitor.setTraversalLimit(1);
+        assertTrue(visitor.canImplyComplement(3, 4));
+    }
+
+    @Test
+    void migPropagatesAllClausesOfLiteral() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(-1, 2, 3), new BooleanClause(-1, 4, 5), new BooleanClause(-6, 1)), 6);
+        ModalImplicationGraph mig = Computations.of(clauseList).map(MIGBuilder::new).compute();
+        ModalImplicationGraph.Visitor visitor = mig.getVisitor();
+
+        visitor.propagate(6, -2);
+        assertArrayEquals(new int[] {1, -2, 3, 6}, getAssignedLiterals(visitor));
+        visitor.reset();
+        visitor.propagate(6, -4);
+        assertArrayEquals(new int[] {1, -4, 5, 6}, getAssignedLiterals(visitor));
+        visitor.reset();
+        assertTrue(visitor.isContradiction(1, -2, -3));
+        assertTrue(visitor.isContradiction(6, -4, -5));
+        assertFalse(visitor.isContradiction(6, -2, -4));
+    }
+
+    @Test
+    void migIsEqualInParallel() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(
+                        new BooleanClause(-1, 2),
+                        new BooleanClause(-2, 1),
+                        new BooleanClause(-2, 3),
+                        new BooleanClause(-3, 4),
+                        new BooleanClause(-4, 2),
+                        new BooleanClause(5, 6, -1),
+                        new BooleanClause(-5, -6)),
+                6);
+        ModalImplicationGraph mig = Computations.of(clauseList).map(MIGBuilder::new).compute();
+        ModalImplicationGraph parallelMig = Computations.of(clauseList)
+                .map(MIGBuilder::new)
+                .set(MIGBuilder.THREAD_COUNT, 4)
+                .compute();
+
+        ModalImplicationGraph.Visitor visitor = mig.getVisitor();
+        ModalImplicationGraph.Visitor parallelVisitor = parallelMig.getVisitor();
+        for (int literal = -6; literal <= 6; literal++) {
+            if (literal != 0) {
+                visitor.propagate(literal);
+                parallelVisitor.propagate(literal);
+                assertArrayEquals(getAssignedLiterals(visitor), getAssignedLiterals(parallelVisitor));
+                visitor.reset();
+                parallelVisitor.reset();
+            }
+        }
+
+        parallelVisitor.propagate(1);
+        assertArrayEquals(new int[] {1, 2, 3, 4}, getAssignedLiterals(parallelVisitor));
+        parallelVisitor.reset();
+        parallelVisitor.propagate(-3);
+        assertArrayEquals(new int[] {-1, -2, -3, -4}, getAssignedLiterals(parallelVisitor));
+    }
+
+    @Test
+    void migIsLoadedFromCache(@TempDir Path cacheDirectory) throws IOException {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(
+                        new BooleanClause(-1, 2),
+                        new BooleanClause(-2, 3),
+                        new BooleanClause(4, 5, -3),
+                        new BooleanClause(-4, -5),
+                        new BooleanClause(6)),
+                6);
+        ModalImplicationGraph mig = Computations.of(clauseList).map(MIGBuilder::new).compute();
+        ModalImplicationGraph writtenMig = Computations.of(clauseList)
+                .map(ComputeCachedMIG::new)
+                .set(ComputeCachedMIG.CACHE_DIRECTORY, cacheDirectory)
+                .set(ComputeCachedMIG.THREAD_COUNT, 2)
+                .compute();
+        Path cacheFile = cacheDirectory.resolve(ComputeCachedMIG.getKey(clauseList) + ".mig");
+        assertTrue(Files.isRegularFile(cacheFile));
+        ModalImplicationGraph loadedMig = Computations.of(clauseList)
+                .map(ComputeCachedMIG::new)
+                .set(ComputeCachedMIG.CACHE_DIRECTORY, cacheDirectory)
+                .compute();
+
+        assertEquals(mig.size(), loadedMig.size());
+        assertArrayEquals(mig.getCore(), loadedMig.getCore());
+        for (ModalImplicationGraph other : List.of(writtenMig, loadedMig)) {
+            ModalImplicationGraph.Visitor visitor = mig.getVisitor();
+            ModalImplicationGraph.Visitor otherVisitor = other.getVisitor();
+            for (int literal = -5; literal <= 5; literal++) {
+                if (literal != 0) {
+                    assertEquals(visitor.isContradiction(literal), otherVisitor.isContradiction(literal));
+                    if (!visitor.isContradiction(literal)) {
+                        visitor.propagate(literal);
+                        otherVisitor.propagate(literal);
+                        assertArrayEquals(getAssignedLiterals(visitor), getAssignedLiterals(otherVisitor));
+                        visitor.reset();
+                        otherVisitor.reset();
+                    }
+                }
+            }
+        }
+
+        Files.write(cacheFile, new byte[] {1, 2, 3});
+        ModalImplicationGraph rebuiltMig = Computations.of(clauseList)
+                .map(ComputeCachedMIG::new)
+                .set(ComputeCachedMIG.CACHE_DIRECTORY, cacheDirectory)
+                .compute();
+        assertArrayEquals(mig.getCore(), rebuiltMig.getCore());
+        assertArrayEquals(mig.getCore(), ComputeCachedMIG.read(cacheFile).getCore());
+    }
+
+    @Test
+    void migIsUpdatedIncrementally() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(
+                        new BooleanClause(-1, 2),
+                        new BooleanClause(-2, 3),
+                        new BooleanClause(-4, 5),
+                        new BooleanClause(4, 5, 6),
+                        new BooleanClause(-5, -6)),
+                6);
+        IncrementalMIGBuilder builder = new IncrementalMIGBuilder(clauseList);
+        assertMIGEquals(builder.getClauseList(), builder.getModalImplicationGraph());
+
+        builder.addClauses(List.of(new BooleanClause(-3, 4), new BooleanClause(1)));
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, -6}, getSortedCore(builder.getModalImplicationGraph()));
+        assertMIGEquals(builder.getClauseList(), builder.getModalImplicationGraph());
+
+        builder.removeClauses(List.of(new BooleanClause(1)));
+        assertArrayEquals(new int[0], builder.getModalImplicationGraph().getCore());
+        assertMIGEquals(builder.getClauseList(), builder.getModalImplicationGraph());
+        ModalImplicationGraph.Visitor visitor = builder.getModalImplicationGraph().getVisitor();
+        visitor.propagate(1);
+        assertArrayEquals(new int[] {1, 2, 3, 4, 5, -6}, getAssignedLiterals(visitor));
+
+        builder.update(List.of(new BooleanClause(-2, -3)), List.of(new BooleanClause(-3, 4)));
+        assertArrayEquals(new int[] {-1, -2}, getSortedCore(builder.getModalImplicationGraph()));
+        assertMIGEquals(builder.getClauseList(), builder.getModalImplicationGraph());
+
+        assertThrows(
+                RuntimeContradictionException.class,
+                () -> builder.addClauses(List.of(new BooleanClause(2), new BooleanClause(3))));
+        assertThrows(
+                IllegalArgumentException.class, () -> builder.removeClauses(List.of(new BooleanClause(1, 2, 3))));
+        assertEquals(6, builder.getClauseList().size());
+    }
+
+    private static void assertMIGEquals(BooleanClauseList clauseList, ModalImplicationGraph incrementalMig) {
+        ModalImplicationGraph mig = Computations.of(clauseList).map(MIGBuilder::new).compute();
+        assertArrayEquals(getSortedCore(mig), getSortedCore(incrementalMig));
+        ModalImplicationGraph.Visitor visitor = mig.getVisitor();
+        ModalImplicationGraph.Visitor incrementalVisitor = incrementalMig.getVisitor();
+        for (int literal = -mig.size(); literal <= mig.size(); literal++) {
+            if (literal != 0) {
+                assertEquals(visitor.isContradiction(literal), incrementalVisitor.isContradiction(literal));
+                if (!visitor.isContradiction(literal)) {
+                    visitor.propagate(literal);
+                    incrementalVisitor.propagate(literal);
+                    assertArrayEquals(getAssignedLiterals(visitor), getAssignedLiterals(incrementalVisitor));
+                    visitor.reset();
+                    incrementalVisitor.reset();
+                }
+            }
+        }
+    }
+
+    private static int[] getSortedCore(ModalImplicationGraph mig) {
+        return IntStream.of(mig.getCore())
+                .boxed()
+                .sorted((a, b) -> Integer.compare(Math.abs(a), Math.abs(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Test
+    void sharedClausesPreserveResults() {
+        final int selector = 21;
+        BooleanClauseList clauseList = getPigeonholeClauses(5, 4);
+
+        ClauseExchange clauseExchange = new ClauseExchange();
+        SAT4JSolutionSolver solver1 = new SAT4JSolutionSolver(clauseList);
+        SAT4JSolutionSolver solver2 = new SAT4JSolutionSolver(clauseList);
+        solver1.setClauseExchange(clauseExchange);
+        solver2.setClauseExchange(clauseExchange);
+
+        assertEquals(Boolean.FALSE, solver1.hasSolution(selector).get());
+        assertEquals(Boolean.TRUE, solver2.hasSolution(-selector).get());
+        assertEquals(Boolean.FALSE, solver2.hasSolution(selector).get());
+        assertEquals(Boolean.TRUE, solver1.hasSolution(-selector, 1, 6).get());
+        assertEquals(Boolean.FALSE, solver2.hasSolution(selector, 1, 6).get());
+
+        solver1.getClauseList().add(-1);
+        assertEquals(Boolean.TRUE, solver1.hasSolution(-selector).get());
+        solver1.getClauseList().remove();
+        assertEquals(Boolean.TRUE, solver2.hasSolution(-selector, 1).get());
+    }
+
+    @Test
+    void portfolioDecidesQueries() {
+        final int selector = 21;
+        BooleanClauseList clauseList = getPigeonholeClauses(5, 4);
+        try (SAT4JPortfolioSolver solver = new SAT4JPortfolioSolver(clauseList, 4, 1L)) {
+            assertEquals(4, solver.size());
+            assertEquals(Boolean.FALSE, solver.hasSolution(selector).get());
+            Result<BooleanSolution> solution = solver.findSolution(-selector, 1);
+            assertTrue(solution.isPresent());
+            assertEquals(-selector, solution.get().get()[selector - 1]);
+            assertEquals(1, solution.get().get()[0]);
+            solver.addClause(new BooleanClause(-1, -2));
+            assertEquals(Boolean.FALSE, solver.hasSolution(1, 2).get());
+            solver.removeClause();
+            assertEquals(Boolean.TRUE, solver.hasSolution(1, 2).get());
+        }
+
+        BooleanClauseList redundantClauseList = new BooleanClauseList(
+                List.of(
+                        new BooleanClause(-1, 2),
+                        new BooleanClause(-2, 3),
+                        new BooleanClause(-1, 3),
+                        new BooleanClause(1, 4),
+                        new BooleanClause(3, 4)),
+                4);
+        BooleanClauseList redundantClauses = Computations.of(redundantClauseList)
+                .map(ComputeRedundantClauses::new)
+                .compute();
+        BooleanClauseList portfolioRedundantClauses = Computations.of(redundantClauseList)
+                .map(ComputeRedundantClauses::new)
+                .set(ComputeRedundantClauses.PORTFOLIO_SIZE, 3)
+                .compute();
+        assertEquals(redundantClauses.size(), portfolioRedundantClauses.size());
+        for (int i = 0; i < redundantClauses.size(); i++) {
+            assertArrayEquals(
+                    redundantClauses.getAll().get(i).get(),
+                    portfolioRedundantClauses.getAll().get(i).get());
+        }
+    }
+
+    /**
+     * Creates a pigeonhole formula that is only active if the variable after
+     * all pigeon variables is selected.
+     */
+    private static BooleanClauseList getPigeonholeClauses(int pigeons, int holes) {
+        final int selector = pigeons * holes + 1;
+        List<BooleanClause> clauses = new ArrayList<>();
+        for (int p = 0; p < pigeons; p++) {
+            int[] literals = new int[holes + 1];
+            for (int h = 0; h < holes; h++) {
+                literals[h] = p * holes + h + 1;
+            }
+            literals[holes] = -selector;
+            clauses.add(new BooleanClause(literals));
+        }
+        for (int h = 0; h < holes; h++) {
+            for (int p1 = 0; p1 < pigeons; p1++) {
+                for (int p2 = p1 + 1; p2 < pigeons; p2++) {
+                    clauses.add(new BooleanClause(-(p1 * holes + h + 1), -(p2 * holes + h + 1)));
+                }
+            }
+        }
+        return new BooleanClauseList(clauses, selector);
+    }
+
+    private static int[] getAssignedLiterals(ModalImplicationGraph.Visitor visitor) {
+        return IntStream.of(visitor.getModel()).filter(l -> l != 0).toArray();
+    }
+
     @Test
     void computedSolutionIsSatisfying() {
         testSolution(ComputeBooleanClauseList::new, ComputeSolutionSAT4J::new);
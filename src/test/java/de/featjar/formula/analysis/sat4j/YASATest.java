@@ -24,6 +24,8 @@ import static de.featjar.base.computation.Computations.async;
 import static de.featjar.formula.structure.Expressions.literal;
 import static de.featjar.formula.structure.Expressions.or;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import de.featjar.Common;
 import de.featjar.base.FeatJAR;
@@ -31,12 +33,17 @@ import de.featjar.base.computation.Computations;
 import de.featjar.base.computation.IComputation;
 import de.featjar.formula.analysis.bool.BooleanAssignment;
 import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
 import de.featjar.formula.analysis.bool.BooleanSolutionList;
 import de.featjar.formula.analysis.bool.ComputeBooleanRepresentation;
+import de.featjar.formula.analysis.mig.solver.MIGBuilder;
 import de.featjar.formula.analysis.sat4j.solver.ISelectionStrategy;
+import de.featjar.formula.analysis.sat4j.solver.SAT4JSolverPool;
 import de.featjar.formula.analysis.sat4j.twise.CoverageStatistic;
+import de.featjar.formula.analysis.sat4j.twise.PackedConfigurationIndex;
 import de.featjar.formula.analysis.sat4j.twise.RelativeTWiseCoverageComputation;
 import de.featjar.formula.analysis.sat4j.twise.TWiseCoverageComputation;
+import de.featjar.formula.analysis.sat4j.twise.TWiseCoverageTracker;
 import de.featjar.formula.analysis.sat4j.twise.TWiseStatisticGenerator;
 import de.featjar.formula.analysis.sat4j.twise.YASA;
 import de.featjar.formula.structure.formula.IFormula;
@@ -93,6 +100,69 @@ public class YASATest extends Common {
         assertFullCoverageWithAllAlgorithms(loadFormula("testFeatureModels/model_with_free_variables.dimacs"), 3);
     }
 
+    @Test
+    void gplHas2WiseCoverageInParallel() {
+        assertFullCoverageInParallel(loadFormula("GPL/model.xml"), 2, 4);
+    }
+
+    @Test
+    void gplHas3WiseCoverageInParallel() {
+        assertFullCoverageInParallel(loadFormula("GPL/model.xml"), 3, 4);
+    }
+
+    @Test
+    void modelWithFreeVariablesHas2WiseCoverageInParallel() {
+        assertFullCoverageInParallel(loadFormula("testFeatureModels/model_with_free_variables.dimacs"), 2, 3);
+    }
+
+    @Test
+    void gplSampleDoesNotGrowInParallel() {
+        IComputation<BooleanClauseList> clauses = getClauses(loadFormula("GPL/model.xml"));
+        int sequentialSize = clauses.map(YASA::new).set(YASA.T, 2).compute().size();
+        int parallelSize = clauses.map(YASA::new)
+                .set(YASA.T, 2)
+                .set(YASA.THREAD_COUNT, 4)
+                .compute()
+                .size();
+        FeatJAR.log().info("Sample Size: %d | %d", sequentialSize, parallelSize);
+        assertTrue(parallelSize <= sequentialSize + Math.max(2, sequentialSize / 4));
+    }
+
+    @Test
+    void yasaAndCoverageReturnSolversToPool() {
+        IComputation<BooleanClauseList> clauses = getClauses(loadFormula("GPL/model.xml"));
+        SAT4JSolverPool.getInstance().clear();
+        BooleanSolutionList sample = clauses.map(YASA::new)
+                .set(YASA.T, 2)
+                .set(YASA.USE_SOLVER_POOL, Boolean.TRUE)
+                .compute();
+        assertTrue(SAT4JSolverPool.getInstance().getIdleCount() > 0);
+
+        CoverageStatistic statistic = clauses.map(TWiseCoverageComputation::new)
+                .set(TWiseCoverageComputation.T, 2)
+                .set(TWiseCoverageComputation.SAMPLE, sample)
+                .set(TWiseCoverageComputation.USE_SOLVER_POOL, Boolean.TRUE)
+                .compute();
+        assertEquals(1.0, statistic.coverage());
+        assertTrue(SAT4JSolverPool.getInstance().getIdleCount() > 0);
+    }
+
+    @Test
+    void coverageRespectsAssumptions() {
+        IComputation<BooleanClauseList> clauses =
+                getClauses(or(literal("x"), literal(false, "y"), literal(false, "z")));
+        BooleanSolutionList sample = new BooleanSolutionList();
+        sample.add(new BooleanSolution(new int[] {-1, -2, -3}, false));
+        CoverageStatistic statistic = clauses.map(TWiseCoverageComputation::new)
+                .set(TWiseCoverageComputation.T, 1)
+                .set(TWiseCoverageComputation.SAMPLE, sample)
+                .set(TWiseCoverageComputation.ASSUMED_ASSIGNMENT, new BooleanAssignment(-1))
+                .compute();
+        assertEquals(3, statistic.covered());
+        assertEquals(1, statistic.invalid());
+        assertEquals(2, statistic.uncovered());
+    }
+
     //	@Test
     void embToolkitHas2WiseCoverage() {
         assertFullCoverage(loadFormula("EMBToolkit/model.xml"), 2);
@@ -120,6 +190,52 @@ public class YASATest extends Common {
         compareVariants(loadFormula("EMBToolkit/model.xml"));
     }
 
+    @Test
+    void packedIndexCoversInteractionsBeyondFirstWord() {
+        PackedConfigurationIndex index = new PackedConfigurationIndex(4);
+        for (int i = 0; i < 100; i++) {
+            index.add(new int[] {1, -2, 3, 0});
+        }
+        assertEquals(100, index.size());
+        assertFalse(index.isCovered(2, 4));
+        assertFalse(index.isCovered(1, 4));
+
+        index.add(new int[] {-1, 2, 0, 4});
+        index.set(3, 100);
+        assertTrue(index.isCovered(2, 4));
+        assertTrue(index.isCovered(-1, 2, 3, 4));
+        assertTrue(index.isCovered(1, -2, 3));
+        assertFalse(index.isCovered(1, 2));
+        assertFalse(index.isCovered(-3));
+        assertTrue(index.contains(3, 100));
+        assertFalse(index.contains(-2, 100));
+    }
+
+    @Test
+    void gplCoverageIsTrackedIncrementally() {
+        IComputation<BooleanClauseList> clauses = getClauses(loadFormula("GPL/model.xml"));
+        BooleanSolutionList sample = computeRandomSample(clauses, 20);
+
+        TWiseCoverageTracker tracker = new TWiseCoverageTracker(
+                2,
+                clauses.compute(),
+                clauses.map(MIGBuilder::new).compute(),
+                new BooleanAssignment());
+        long coveredCount = 0;
+        for (BooleanSolution configuration : sample) {
+            coveredCount += tracker.add(configuration);
+        }
+        assertEquals(sample.size(), tracker.size());
+        assertEquals(coveredCount, tracker.getCoveredCount());
+        assertEquals(0, tracker.add(sample.get(0).get()));
+
+        CoverageStatistic statistic1 = computeCoverageNew(2, clauses, sample);
+        CoverageStatistic statistic2 = tracker.getStatistic();
+        assertEquals(statistic1.covered(), statistic2.covered());
+        assertEquals(statistic1.uncovered(), statistic2.uncovered());
+        assertEquals(statistic1.invalid(), statistic2.invalid());
+    }
+
     @Test
     void gplRunsUntilTimeout() {
         testTimeout(loadFormula("GPL/model.xml"), 10);
@@ -240,6 +356,21 @@ public class YASATest extends Common {
         return sample;
     }
 
+    public void assertFullCoverageInParallel(IFormula formula, int t, int threadCount) {
+        IComputation<BooleanClauseList> clauses = getClauses(formula);
+        BooleanSolutionList sample = clauses.map(YASA::new)
+                .set(YASA.T, t)
+                .set(YASA.ITERATIONS, 2)
+                .set(YASA.THREAD_COUNT, threadCount)
+                .compute();
+        FeatJAR.log().info("Sample Size: %d", sample.size());
+
+        CoverageStatistic statistic1 = computeCoverageNew(t, clauses, sample);
+        CoverageStatistic statistic3 = computeCoverageOld(t, clauses, sample);
+        assertEquals(1.0, statistic1.coverage());
+        assertEquals(1.0, statistic3.coverage());
+    }
+
     public void assertFullCoverage(IFormula formula, int t) {
         IComputation<BooleanClauseList> clauses = getClauses(formula);
         BooleanSolutionList sample = computeSample(t, clauses);
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.counting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.base.computation.Computations;
+import de.featjar.formula.analysis.bool.BooleanAssignment;
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.sat4j.ComputeSolutionCountSAT4J;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class ComponentCounterTest {
+
+    @Test
+    void countsExactly() {
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(
+                        new BooleanClause(1, 2),
+                        new BooleanClause(-1, -2),
+                        new BooleanClause(-3, 1),
+                        new BooleanClause(4, 5, 6),
+                        new BooleanClause(-4, 7),
+                        new BooleanClause(-7, -5)),
+                9);
+        for (long cacheMemoryLimit : new long[] {0, ComponentCounter.DEFAULT_CACHE_MEMORY_LIMIT}) {
+            for (BooleanAssignment assumptions :
+                    List.of(new BooleanAssignment(), new BooleanAssignment(3), new BooleanAssignment(-7, 8))) {
+                BigInteger enumeratedCount = Computations.of(clauseList)
+                        .map(ComputeSolutionCountSAT4J::new)
+                        .set(ComputeSolutionCountSAT4J.ENUMERATE, Boolean.TRUE)
+                        .set(ComputeSolutionCountSAT4J.ASSUMED_ASSIGNMENT, assumptions)
+                        .compute();
+                BigInteger exactCount = Computations.of(clauseList)
+                        .map(ComputeSolutionCountSAT4J::new)
+                        .set(ComputeSolutionCountSAT4J.CACHE_MEMORY_LIMIT, cacheMemoryLimit)
+                        .set(ComputeSolutionCountSAT4J.ASSUMED_ASSIGNMENT, assumptions)
+                        .compute();
+                assertEquals(enumeratedCount, exactCount);
+            }
+        }
+
+        List<BooleanClause> chain = new ArrayList<>();
+        for (int i = 1; i < 400; i++) {
+            chain.add(new BooleanClause(-i, i + 1));
+        }
+        BigInteger chainCount = Computations.of(new BooleanClauseList(chain, 400))
+                .map(ComputeSolutionCountSAT4J::new)
+                .compute();
+        assertEquals(BigInteger.valueOf(401), chainCount);
+
+        BigInteger largeCount = Computations.of(new BooleanClauseList(List.of(new BooleanClause(1, 2)), 400))
+                .map(ComputeSolutionCountSAT4J::new)
+                .compute();
+        assertEquals(BigInteger.valueOf(3).shiftLeft(398), largeCount);
+        assertTrue(largeCount.compareTo(BigInteger.TEN.pow(100)) > 0);
+
+        BigInteger unsatisfiableCount = Computations.of(
+                        new BooleanClauseList(List.of(new BooleanClause(1), new BooleanClause(-1)), 2))
+                .map(ComputeSolutionCountSAT4J::new)
+                .compute();
+        assertEquals(BigInteger.ZERO, unsatisfiableCount);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.counting;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class DecisionDNNFTest {
+
+    @Test
+    void compiledChainIsCountedAndSampled() {
+        List<BooleanClause> chain = new ArrayList<>();
+        for (int i = 1; i < 200; i++) {
+            chain.add(new BooleanClause(-i, i + 1));
+        }
+        ComponentCounter counter = new ComponentCounter(new BooleanClauseList(chain, 200));
+        DecisionDNNF dnnf = counter.compile(Duration.ZERO).get();
+        assertEquals(BigInteger.valueOf(201), dnnf.getSolutionCount());
+        assertEquals(counter.count(Duration.ZERO).get(), dnnf.getSolutionCount());
+        assertTrue(dnnf.sample(100, new Random(1), 2).getAll().stream()
+                .allMatch(solution -> isSatisfying(new BooleanClauseList(chain, 200), solution)));
+        assertEquals(
+                dnnf.sample(300, new Random(2), 1).getAll().stream()
+                        .map(solution -> Arrays.toString(solution.get()))
+                        .collect(Collectors.toList()),
+                dnnf.sample(300, new Random(2), 4).getAll().stream()
+                        .map(solution -> Arrays.toString(solution.get()))
+                        .collect(Collectors.toList()));
+    }
+
+    private static boolean isSatisfying(BooleanClauseList clauseList, BooleanSolution solution) {
+        int[] literals = solution.get();
+        return clauseList.getAll().stream()
+                .allMatch(clause -> IntStream.of(clause.get()).anyMatch(l -> literals[Math.abs(l) - 1] == l));
+    }
+}
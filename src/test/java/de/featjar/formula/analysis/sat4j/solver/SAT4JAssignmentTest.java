@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class SAT4JAssignmentTest {
+
+    @Test
+    void indexesVariables() {
+        SAT4JAssignment assignment = new SAT4JAssignment();
+        assignment.addAll(new int[] {1, -2});
+        int mark = assignment.mark();
+        assignment.add(3);
+        assignment.add(-4);
+        assertEquals(Boolean.TRUE, assignment.getValue(3).get());
+        assertEquals(Boolean.FALSE, assignment.getValue(4).get());
+        assignment.replaceLast(5);
+        assertTrue(assignment.getValue(4).isEmpty());
+        assertEquals(Boolean.TRUE, assignment.getValue(5).get());
+        assignment.setValue(2, true);
+        assertArrayEquals(new int[] {1, 2, 3, 5}, assignment.get());
+        assignment.rollback(mark);
+        assertArrayEquals(new int[] {1, 2}, assignment.get());
+        assertTrue(assignment.getValue(3).isEmpty());
+        assertTrue(assignment.getValue(5).isEmpty());
+        assignment.removeValue(1);
+        assertArrayEquals(new int[] {2}, assignment.get());
+        assertTrue(assignment.getValue(1).isEmpty());
+        assertEquals(Boolean.TRUE, assignment.getValue(2).get());
+        assertEquals(2, assignment.remove());
+        assertEquals(0, assignment.size());
+
+        assignment.addAll(new int[] {1, 2, 3, 4});
+        assignment.remove(1);
+        assertArrayEquals(new int[] {1, 4, 3}, assignment.get());
+        assertTrue(assignment.getValue(2).isEmpty());
+        assertEquals(Boolean.TRUE, assignment.getValue(4).get());
+        assignment.removeValue(4);
+        assertArrayEquals(new int[] {1, 3}, assignment.get());
+        assertEquals(Boolean.TRUE, assignment.getValue(3).get());
+    }
+}
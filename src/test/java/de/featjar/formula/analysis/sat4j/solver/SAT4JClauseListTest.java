@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class SAT4JClauseListTest {
+
+    @Test
+    void supportsCheckpointsAndGroups() {
+        BooleanClauseList clauseList = new BooleanClauseList(List.of(new BooleanClause(1, 2)), 3);
+        SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
+        SAT4JClauseList solverClauses = solver.getClauseList();
+
+        int base = solverClauses.checkpoint();
+        solverClauses.add(-1);
+        solverClauses.checkpoint("second");
+        solverClauses.add(-2);
+        assertFalse(solver.hasSolution().get());
+        solverClauses.rollback("second");
+        assertTrue(solver.hasSolution().get());
+        assertFalse(solver.hasSolution(1).get());
+        solverClauses.rollback(base);
+        assertTrue(solver.hasSolution(1).get());
+        assertThrows(IllegalArgumentException.class, () -> solverClauses.rollback("second"));
+
+        int group = solverClauses.newGroup();
+        solverClauses.addToGroup(group, -3);
+        assertFalse(solver.hasSolution(3).get());
+        assertEquals(3, solver.findSolution().get().size());
+        solverClauses.retractGroup(group);
+        assertTrue(solver.hasSolution(3).get());
+        assertThrows(IllegalArgumentException.class, () -> solverClauses.addToGroup(group, -3));
+
+        int otherGroup = solverClauses.newGroup();
+        solverClauses.addToGroup(otherGroup, -1);
+        solverClauses.addToGroup(otherGroup, -2);
+        assertFalse(solver.hasSolution().get());
+        solverClauses.reset();
+        assertTrue(solver.hasSolution().get());
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2024 FeatJAR-Development-Team
+ *
+ * This file is part of FeatJAR-formula-analysis-sat4j.
+ *
+ * formula-analysis-sat4j is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3.0 of the License,
+ * or (at your option) any later version.
+ *
+ * formula-analysis-sat4j is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with formula-analysis-sat4j. If not, see <https://www.gnu.org/licenses/>.
+ *
+ * See <https://github.com/FeatureIDE/FeatJAR-formula-analysis-sat4j> for further information.
+ */
+package de.featjar.formula.analysis.sat4j.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import de.featjar.formula.analysis.bool.BooleanClause;
+import de.featjar.formula.analysis.bool.BooleanClauseList;
+import de.featjar.formula.analysis.bool.BooleanSolution;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class SampleDistributionTest {
+
+    @Test
+    void tracksCompatibleSamples() {
+        SampleDistribution distribution = new SampleDistribution(List.of(
+                new BooleanSolution(new int[] {1, 2, 3}, false),
+                new BooleanSolution(new int[] {1, -2, 3}, false),
+                new BooleanSolution(new int[] {-1, -2, -3}, false)));
+        assertEquals(3, distribution.getCompatibleCount());
+        distribution.set(1);
+        assertEquals(2, distribution.getCompatibleCount());
+        assertEquals(1, distribution.getPositiveCount(1));
+        distribution.set(-2);
+        assertEquals(1, distribution.getCompatibleCount());
+        distribution.set(-3);
+        assertEquals(0, distribution.getCompatibleCount());
+        distribution.unset(1);
+        assertEquals(1, distribution.getCompatibleCount());
+        assertEquals(0, distribution.getPositiveCount(0));
+        distribution.unset(3);
+        assertEquals(2, distribution.getCompatibleCount());
+        assertEquals(1, distribution.getPositiveCount(0));
+        distribution.reset();
+        assertEquals(3, distribution.getCompatibleCount());
+        assertEquals(2, distribution.getPositiveCount(2));
+
+        BooleanClauseList clauseList = new BooleanClauseList(
+                List.of(new BooleanClause(1, 2), new BooleanClause(-1, -2), new BooleanClause(-3, 1)), 3);
+        SAT4JSolutionSolver solver = new SAT4JSolutionSolver(clauseList);
+        solver.setSelectionStrategy(ISelectionStrategy.uniform(distribution));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(isSatisfying(clauseList, solver.findSolution().get()));
+        }
+    }
+
+    private static boolean isSatisfying(BooleanClauseList clauseList, BooleanSolution solution) {
+        int[] literals = solution.get();
+        return clauseList.getAll().stream()
+                .allMatch(clause -> IntStream.of(clause.get()).anyMatch(l -> literals[Math.abs(l) - 1] == l));
+    }
+}